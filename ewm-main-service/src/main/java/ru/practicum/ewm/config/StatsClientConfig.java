@@ -1,18 +1,90 @@
 package ru.practicum.ewm.config;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import ru.practicum.ewm.service.HitSpool;
+import ru.practicum.stats.client.HitBufferSettings;
+import ru.practicum.stats.client.HttpTransport;
+import ru.practicum.stats.client.OverflowPolicy;
 import ru.practicum.stats.client.StatsClient;
+import ru.practicum.stats.client.StatsTransports;
+import ru.practicum.stats.client.TransportSettings;
+import ru.practicum.stats.client.WireFormat;
+
+import java.time.Duration;
 
 @Configuration
 public class StatsClientConfig {
 
     @Bean
     public StatsClient statsClient(RestTemplateBuilder builder,
-                                   @Value("${stats-service.url:http://localhost:9090}") String baseUrl) {
-        return new StatsClient(builder.build(), baseUrl);
+                                   @Value("${stats-service.url:http://localhost:9090}") String baseUrl,
+                                   @Value("${stats-service.wire-format:JSON}") WireFormat wireFormat,
+                                   @Value("${stats-service.async.enabled:false}") boolean asyncEnabled,
+                                   @Value("${stats-service.async.capacity:10000}") int capacity,
+                                   @Value("${stats-service.async.flush-size:200}") int flushSize,
+                                   @Value("${stats-service.async.flush-interval:1s}") Duration flushInterval,
+                                   @Value("${stats-service.async.overflow-policy:DROP}") OverflowPolicy overflowPolicy,
+                                   @Value("${stats-service.async.block-timeout:100ms}") Duration blockTimeout,
+                                   TransportSettings transportSettings,
+                                   HitSpool hitSpool) {
+        HitBufferSettings settings = null;
+        if (asyncEnabled) {
+            settings = HitBufferSettings.builder()
+                    .capacity(capacity)
+                    .flushSize(flushSize)
+                    .flushInterval(flushInterval)
+                    .overflowPolicy(overflowPolicy)
+                    .blockTimeout(blockTimeout)
+                    .build();
+        }
+        return new StatsClient(builder.requestFactory(() -> StatsTransports.requestFactory(transportSettings)).build(),
+                baseUrl, settings, wireFormat, hitSpool);
+    }
+
+    @Bean
+    public TransportSettings statsTransportSettings(
+            @Value("${stats-service.transport.type:HTTP1_POOLED}") HttpTransport transport,
+            @Value("${stats-service.transport.connect-timeout:1s}") Duration connectTimeout,
+            @Value("${stats-service.transport.read-timeout:2s}") Duration readTimeout,
+            @Value("${stats-service.transport.max-connections:50}") int maxConnections,
+            @Value("${stats-service.transport.acquire-timeout:500ms}") Duration acquireTimeout) {
+        return TransportSettings.builder()
+                .transport(transport)
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .maxConnections(maxConnections)
+                .acquireTimeout(acquireTimeout)
+                .build();
     }
-}
 
+    @Bean
+    public MeterBinder statsClientMetrics(StatsClient statsClient, HitSpool hitSpool) {
+        return registry -> {
+            FunctionCounter.builder("stats.client.hits.sent", statsClient,
+                            client -> client.getHitSenderMetrics().getSent())
+                    .register(registry);
+            FunctionCounter.builder("stats.client.hits.dropped", statsClient,
+                            client -> client.getHitSenderMetrics().getDropped())
+                    .register(registry);
+            FunctionCounter.builder("stats.client.hits.failed", statsClient,
+                            client -> client.getHitSenderMetrics().getFailed())
+                    .register(registry);
+            Gauge.builder("stats.client.hits.queued", statsClient,
+                            client -> client.getHitSenderMetrics().getQueued())
+                    .register(registry);
+            Gauge.builder("stats.client.spool.hits", hitSpool, HitSpool::pendingHits)
+                    .register(registry);
+            Gauge.builder("stats.client.spool.bytes", hitSpool, HitSpool::pendingBytes)
+                    .baseUnit("bytes")
+                    .register(registry);
+            FunctionCounter.builder("stats.client.spool.rejected", hitSpool, HitSpool::rejectedHits)
+                    .register(registry);
+        };
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.ewm.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Positive;
@@ -27,7 +28,13 @@ public class AdminCommentController {
                                         @RequestParam(required = false) Long eventId,
                                         @RequestParam(required = false) Long authorId,
                                         @RequestParam(defaultValue = "0") @Min(0) int from,
-                                        @RequestParam(defaultValue = "10") @Positive int size) {
+                                        @RequestParam(defaultValue = "10") @Positive int size,
+                                        @RequestParam(required = false) String cursor,
+                                        HttpServletResponse response) {
+        if (cursor != null) {
+            return CursorHeaders.unwrap(
+                    commentService.getCommentsForAdmin(status, eventId, authorId, cursor, size), response);
+        }
         return commentService.getCommentsForAdmin(status, eventId, authorId, from, size);
     }
 
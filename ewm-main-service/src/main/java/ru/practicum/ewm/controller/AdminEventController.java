@@ -1,5 +1,6 @@
 package ru.practicum.ewm.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Positive;
@@ -30,11 +31,17 @@ public class AdminEventController {
                                          @RequestParam(required = false) String rangeStart,
                                          @RequestParam(required = false) String rangeEnd,
                                          @RequestParam(defaultValue = "0") @Min(0) int from,
-                                         @RequestParam(defaultValue = "10") @Positive int size) {
+                                         @RequestParam(defaultValue = "10") @Positive int size,
+                                         @RequestParam(required = false) String cursor,
+                                         HttpServletResponse response) {
         List<EventState> stateFilter = states == null ? null : states.stream()
                 .filter(Objects::nonNull)
                 .map(this::parseState)
                 .toList();
+        if (cursor != null) {
+            return CursorHeaders.unwrap(eventService.findEventsForAdmin(users, stateFilter, categories,
+                    rangeStart, rangeEnd, cursor, size), response);
+        }
         return eventService.findEventsForAdmin(users, stateFilter, categories, rangeStart, rangeEnd, from, size);
     }
 
@@ -1,5 +1,6 @@
 package ru.practicum.ewm.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Positive;
@@ -30,7 +31,12 @@ public class AdminUserController {
     @GetMapping
     public List<UserDto> getUsers(@RequestParam(required = false) List<Long> ids,
                                   @RequestParam(defaultValue = "0") @Min(0) int from,
-                                  @RequestParam(defaultValue = "10") @Positive int size) {
+                                  @RequestParam(defaultValue = "10") @Positive int size,
+                                  @RequestParam(required = false) String cursor,
+                                  HttpServletResponse response) {
+        if (cursor != null) {
+            return CursorHeaders.unwrap(userService.getUsers(ids, cursor, size), response);
+        }
         return userService.getUsers(ids, from, size);
     }
 
@@ -0,0 +1,25 @@
+package ru.practicum.ewm.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+import ru.practicum.ewm.dto.CursorPage;
+
+import java.util.List;
+
+/**
+ * Keyset listings keep their plain array bodies; the cursor of the next page travels in a response header that is
+ * absent on the last page.
+ */
+final class CursorHeaders {
+
+    static final String NEXT_CURSOR = "X-Next-Cursor";
+
+    private CursorHeaders() {
+    }
+
+    static <T> List<T> unwrap(CursorPage<T> page, HttpServletResponse response) {
+        if (page.nextCursor() != null) {
+            response.setHeader(NEXT_CURSOR, page.nextCursor());
+        }
+        return page.items();
+    }
+}
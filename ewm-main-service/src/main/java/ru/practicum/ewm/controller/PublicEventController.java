@@ -1,6 +1,7 @@
 package ru.practicum.ewm.controller;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
@@ -32,8 +33,14 @@ public class PublicEventController {
                                          @RequestParam(required = false) String sort,
                                          @RequestParam(defaultValue = "0") @Min(0) int from,
                                          @RequestParam(defaultValue = "10") @Positive int size,
-                                         HttpServletRequest request) {
+                                         @RequestParam(required = false) String cursor,
+                                         HttpServletRequest request,
+                                         HttpServletResponse response) {
         statsService.hit(request);
+        if (cursor != null) {
+            return CursorHeaders.unwrap(eventService.findPublicEvents(text, categories, paid, rangeStart, rangeEnd,
+                    onlyAvailable, sort, cursor, size), response);
+        }
         return eventService.findPublicEvents(text, categories, paid, rangeStart, rangeEnd,
                 onlyAvailable, sort, from, size);
     }
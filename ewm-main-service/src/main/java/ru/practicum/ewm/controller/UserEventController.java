@@ -1,5 +1,6 @@
 package ru.practicum.ewm.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Positive;
@@ -26,7 +27,12 @@ public class UserEventController {
     @GetMapping
     public List<EventShortDto> getUserEvents(@PathVariable long userId,
                                              @RequestParam(defaultValue = "0") @Min(0) int from,
-                                             @RequestParam(defaultValue = "10") @Positive int size) {
+                                             @RequestParam(defaultValue = "10") @Positive int size,
+                                             @RequestParam(required = false) String cursor,
+                                             HttpServletResponse response) {
+        if (cursor != null) {
+            return CursorHeaders.unwrap(eventService.getUserEvents(userId, cursor, size), response);
+        }
         return eventService.getUserEvents(userId, from, size);
     }
 
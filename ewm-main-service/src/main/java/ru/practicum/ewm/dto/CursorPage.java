@@ -0,0 +1,9 @@
+package ru.practicum.ewm.dto;
+
+import java.util.List;
+
+/**
+ * A keyset page with the cursor of the next one, {@code null} once the listing is exhausted.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+}
@@ -17,7 +17,8 @@ import java.util.Set;
         @Index(name = "idx_events_event_date", columnList = "event_date"),
         @Index(name = "idx_events_state", columnList = "state"),
         @Index(name = "idx_events_category_id", columnList = "category_id"),
-        @Index(name = "idx_events_initiator_id", columnList = "initiator_id")
+        @Index(name = "idx_events_initiator_id", columnList = "initiator_id"),
+        @Index(name = "idx_events_views", columnList = "views DESC, event_date")
 })
 public class Event {
 
@@ -67,6 +68,18 @@ public class Event {
     @JoinColumn(name = "category_id", nullable = false)
     private Category category;
 
+    /**
+     * Number of confirmed participation requests, changed only by atomic updates in {@code EventRepository}.
+     */
+    @Column(name = "confirmed_requests", nullable = false, insertable = false, updatable = false)
+    private Integer confirmedRequests;
+
+    /**
+     * Unique views snapshot maintained by {@code EventViewsRefresher}; only used to order VIEWS queries.
+     */
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Long views;
+
     @ManyToMany(mappedBy = "events", fetch = FetchType.LAZY)
     private Set<Compilation> compilations = new HashSet<>();
 }
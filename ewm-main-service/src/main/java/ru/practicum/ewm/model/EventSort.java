@@ -2,6 +2,7 @@ package ru.practicum.ewm.model;
 
 public enum EventSort {
     EVENT_DATE,
-    VIEWS
+    VIEWS,
+    RELEVANCE
 }
 
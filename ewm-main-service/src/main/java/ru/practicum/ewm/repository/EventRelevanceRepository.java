@@ -0,0 +1,16 @@
+package ru.practicum.ewm.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.ewm.model.Event;
+
+import java.util.List;
+
+public interface EventRelevanceRepository {
+
+    /**
+     * Events matching {@code spec}, ordered by pg_trgm word similarity of {@code text} to annotation or description,
+     * best first, then by event date and id. The sort of {@code pageable} is ignored.
+     */
+    List<Event> findAllByRelevance(Specification<Event> spec, String text, Pageable pageable);
+}
@@ -0,0 +1,40 @@
+package ru.practicum.ewm.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.ewm.model.Event;
+
+import java.util.List;
+
+class EventRelevanceRepositoryImpl implements EventRelevanceRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Event> findAllByRelevance(Specification<Event> spec, String text, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Event> query = cb.createQuery(Event.class);
+        Root<Event> root = query.from(Event.class);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        Expression<String> term = cb.literal(text.toLowerCase());
+        Expression<Double> relevance = cb.function("greatest", Double.class,
+                cb.function("word_similarity", Double.class, term, cb.lower(root.get("annotation"))),
+                cb.function("word_similarity", Double.class, term, cb.lower(root.get("description"))));
+        query.select(root).orderBy(cb.desc(relevance), cb.asc(root.get("eventDate")), cb.asc(root.get("id")));
+        return entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+}
@@ -4,15 +4,20 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.ewm.model.Event;
 import ru.practicum.ewm.model.EventState;
+import ru.practicum.ewm.repository.projection.EventViewsSnapshot;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event> {
+public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event>,
+        EventRelevanceRepository {
 
     List<Event> findAllByIdIn(Collection<Long> ids);
 
@@ -27,4 +32,38 @@ public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecific
     List<Event> findAllByInitiatorIdAndEventDateAfter(long initiatorId, LocalDateTime dateTime);
 
     Optional<Event> findByIdAndState(long id, EventState state);
+
+    /**
+     * Counts one more confirmed request unless the participant limit is already reached.
+     *
+     * @return 1 if the slot was taken, 0 if the event is full
+     */
+    @Transactional
+    @Modifying
+    @Query("update Event e set e.confirmedRequests = e.confirmedRequests + 1 "
+            + "where e.id = :eventId and (e.participantLimit = 0 or e.confirmedRequests < e.participantLimit)")
+    int reserveParticipantSlot(long eventId);
+
+    @Transactional
+    @Modifying
+    @Query("update Event e set e.confirmedRequests = e.confirmedRequests - 1 "
+            + "where e.id = :eventId and e.confirmedRequests > 0")
+    int releaseParticipantSlot(long eventId);
+
+    @Query("select e.id as id, e.createdOn as createdOn, e.views as views "
+            + "from Event e "
+            + "where e.state = ru.practicum.ewm.model.EventState.PUBLISHED and e.id > :afterId "
+            + "order by e.id")
+    List<EventViewsSnapshot> findPublishedViewsAfter(long afterId, Pageable pageable);
+
+    @Query("select e.id as id, e.createdOn as createdOn, e.views as views "
+            + "from Event e "
+            + "where e.state = ru.practicum.ewm.model.EventState.PUBLISHED and e.id in :ids "
+            + "order by e.id")
+    List<EventViewsSnapshot> findPublishedViewsByIdIn(Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query("update Event e set e.views = :views where e.id = :eventId and e.views < :views")
+    int raiseViews(long eventId, long views);
 }
@@ -1,10 +1,8 @@
 package ru.practicum.ewm.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
 import ru.practicum.ewm.model.ParticipationRequest;
 import ru.practicum.ewm.model.RequestStatus;
-import ru.practicum.ewm.repository.projection.EventRequestCount;
 
 import java.util.Collection;
 import java.util.List;
@@ -12,8 +10,6 @@ import java.util.Optional;
 
 public interface ParticipationRequestRepository extends JpaRepository<ParticipationRequest, Long> {
 
-    long countByEventIdAndStatus(long eventId, RequestStatus status);
-
     List<ParticipationRequest> findAllByEventId(long eventId);
 
     List<ParticipationRequest> findAllByRequesterId(long requesterId);
@@ -25,10 +21,4 @@ public interface ParticipationRequestRepository extends JpaRepository<Participat
     List<ParticipationRequest> findAllByEventIdAndStatus(long eventId, RequestStatus status);
 
     List<ParticipationRequest> findAllByIdIn(Collection<Long> ids);
-
-    @Query("select pr.event.id as eventId, count(pr) as requestCount "
-            + "from ParticipationRequest pr "
-            + "where pr.event.id in :eventIds and pr.status = ru.practicum.ewm.model.RequestStatus.CONFIRMED "
-            + "group by pr.event.id")
-    List<EventRequestCount> countConfirmedByEventIds(Collection<Long> eventIds);
 }
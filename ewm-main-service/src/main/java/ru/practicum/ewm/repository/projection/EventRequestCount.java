@@ -1,9 +0,0 @@
-package ru.practicum.ewm.repository.projection;
-
-public interface EventRequestCount {
-
-    Long getEventId();
-
-    Long getRequestCount();
-}
-
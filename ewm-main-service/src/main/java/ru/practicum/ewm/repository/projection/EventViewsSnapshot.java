@@ -0,0 +1,12 @@
+package ru.practicum.ewm.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface EventViewsSnapshot {
+
+    Long getId();
+
+    LocalDateTime getCreatedOn();
+
+    Long getViews();
+}
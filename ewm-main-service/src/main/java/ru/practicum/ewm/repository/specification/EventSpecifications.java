@@ -64,6 +64,25 @@ public final class EventSpecifications {
         };
     }
 
+    /**
+     * Events whose participant limit is not exhausted, judged by the maintained {@code confirmed_requests} counter.
+     */
+    public static Specification<Event> hasAvailableSlots(Boolean onlyAvailable) {
+        return (root, query, cb) -> {
+            if (!Boolean.TRUE.equals(onlyAvailable)) {
+                return cb.conjunction();
+            }
+            return cb.or(
+                    cb.equal(root.get("participantLimit"), 0),
+                    cb.lessThan(root.get("confirmedRequests"), root.get("participantLimit"))
+            );
+        };
+    }
+
+    /**
+     * Substring match over annotation and description. The {@code lower(...) LIKE} form is served by the trigram
+     * indexes in schema.sql, so keep the expressions identical to the indexed ones.
+     */
     public static Specification<Event> hasText(String text) {
         return (root, query, cb) -> {
             if (text == null || text.isBlank()) {
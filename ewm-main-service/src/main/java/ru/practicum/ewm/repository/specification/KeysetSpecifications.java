@@ -0,0 +1,46 @@
+package ru.practicum.ewm.repository.specification;
+
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public final class KeysetSpecifications {
+
+    private KeysetSpecifications() {
+    }
+
+    /**
+     * Matches rows that come after the row with sort keys {@code lastKeys} in {@code sort}, which must end with a
+     * unique attribute. The leading key is also bounded on its own so the database can range-scan an index on it.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public static <T> Specification<T> after(Sort sort, List<? extends Comparable<?>> lastKeys) {
+        return (root, query, cb) -> {
+            if (lastKeys == null) {
+                return cb.conjunction();
+            }
+            List<Sort.Order> orders = sort.toList();
+            Predicate predicate = null;
+            for (int i = orders.size() - 1; i >= 0; i--) {
+                Sort.Order order = orders.get(i);
+                Path<Comparable> path = root.get(order.getProperty());
+                Comparable key = lastKeys.get(i);
+                Predicate beyond = order.isAscending() ? cb.greaterThan(path, key) : cb.lessThan(path, key);
+                predicate = predicate == null ? beyond : cb.or(beyond, cb.and(cb.equal(path, key), predicate));
+            }
+            if (orders.size() == 1) {
+                return predicate;
+            }
+            Sort.Order leading = orders.get(0);
+            Path<Comparable> leadingPath = root.get(leading.getProperty());
+            Comparable leadingKey = lastKeys.get(0);
+            Predicate bound = leading.isAscending()
+                    ? cb.greaterThanOrEqualTo(leadingPath, leadingKey)
+                    : cb.lessThanOrEqualTo(leadingPath, leadingKey);
+            return cb.and(bound, predicate);
+        };
+    }
+}
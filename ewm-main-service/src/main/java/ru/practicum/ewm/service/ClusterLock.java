@@ -0,0 +1,50 @@
+package ru.practicum.ewm.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Runs a task on at most one instance at a time using a PostgreSQL session advisory lock. The lock is held on a
+ * connection of its own for the duration of the task and is released by the database if that connection dies.
+ */
+@Component
+@RequiredArgsConstructor
+public class ClusterLock {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Runs {@code task} if no other session holds lock {@code key}.
+     *
+     * @return {@code false} if the lock was taken elsewhere and the task did not run
+     */
+    public boolean runExclusively(long key, Runnable task) {
+        Boolean ran = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!call(connection.prepareStatement("SELECT pg_try_advisory_lock(?)"), key)) {
+                return false;
+            }
+            try {
+                task.run();
+                return true;
+            } finally {
+                call(connection.prepareStatement("SELECT pg_advisory_unlock(?)"), key);
+            }
+        });
+        return Boolean.TRUE.equals(ran);
+    }
+
+    private static boolean call(PreparedStatement statement, long key) throws SQLException {
+        try (statement) {
+            statement.setLong(1, key);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.ewm.dto.CommentDto;
+import ru.practicum.ewm.dto.CursorPage;
 import ru.practicum.ewm.dto.NewCommentDto;
 import ru.practicum.ewm.dto.UpdateCommentAdminRequest;
 import ru.practicum.ewm.dto.UpdateCommentUserRequest;
@@ -20,6 +21,8 @@ import ru.practicum.ewm.repository.CommentRepository;
 import ru.practicum.ewm.repository.EventRepository;
 import ru.practicum.ewm.repository.UserRepository;
 import ru.practicum.ewm.repository.specification.CommentSpecifications;
+import ru.practicum.ewm.repository.specification.KeysetSpecifications;
+import ru.practicum.ewm.util.PageCursor;
 import ru.practicum.ewm.util.PaginationUtil;
 
 import java.time.Clock;
@@ -32,6 +35,9 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class CommentService {
 
+    private static final String COMMENTS_NEWEST_FIRST = "comments";
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdOn"), Sort.Order.desc("id"));
+
     private final CommentRepository commentRepository;
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
@@ -102,15 +108,28 @@ public class CommentService {
                                                 Long authorId,
                                                 int from,
                                                 int size) {
-        Pageable pageable = PaginationUtil.offsetPageable(from, size, Sort.by(Sort.Direction.DESC, "createdOn"));
-        Specification<Comment> spec = Specification.where(CommentSpecifications.hasStatus(status))
-                .and(CommentSpecifications.hasEventId(eventId))
-                .and(CommentSpecifications.hasAuthorId(authorId));
-        return commentRepository.findAll(spec, pageable).stream()
+        Pageable pageable = PaginationUtil.offsetPageable(from, size, NEWEST_FIRST);
+        return commentRepository.findAll(adminFilter(status, eventId, authorId), pageable).stream()
                 .map(CommentMapper::toDto)
                 .toList();
     }
 
+    public CursorPage<CommentDto> getCommentsForAdmin(CommentStatus status,
+                                                      Long eventId,
+                                                      Long authorId,
+                                                      String cursor,
+                                                      int size) {
+        PageCursor after = PageCursor.decode(cursor, COMMENTS_NEWEST_FIRST);
+        Specification<Comment> spec = adminFilter(status, eventId, authorId)
+                .and(KeysetSpecifications.after(NEWEST_FIRST,
+                        after == null ? null : List.of(after.getDateTime(0), after.getLong(1))));
+        List<Comment> comments = commentRepository.findBy(spec,
+                query -> query.sortBy(NEWEST_FIRST).limit(size).all());
+        return new CursorPage<>(comments.stream().map(CommentMapper::toDto).toList(),
+                PageCursor.next(comments, size,
+                        comment -> PageCursor.of(COMMENTS_NEWEST_FIRST, comment.getCreatedOn(), comment.getId())));
+    }
+
     @Transactional
     public CommentDto moderateComment(long commentId, UpdateCommentAdminRequest request) {
         Comment comment = commentRepository.findById(commentId)
@@ -138,6 +157,12 @@ public class CommentService {
         log.info("Administrator deleted comment id={}", commentId);
     }
 
+    private static Specification<Comment> adminFilter(CommentStatus status, Long eventId, Long authorId) {
+        return Specification.where(CommentSpecifications.hasStatus(status))
+                .and(CommentSpecifications.hasEventId(eventId))
+                .and(CommentSpecifications.hasAuthorId(authorId));
+    }
+
     private Event getPublishedEvent(long eventId) {
         return eventRepository.findByIdAndState(eventId, EventState.PUBLISHED)
                 .orElseThrow(() -> new NotFoundException("Event with id=%d was not found".formatted(eventId)));
@@ -0,0 +1,63 @@
+package ru.practicum.ewm.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+
+/**
+ * Fills {@code events.confirmed_requests} from the requests table once, for databases that predate the counter.
+ * Completion is recorded in {@code schema_migrations}, so later starts only check the marker.
+ * <p>
+ * The events table is locked against writes while counting. A slot reserved concurrently either commits before
+ * the count is taken and is included in it, or waits and is added on top of it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConfirmedRequestsBackfill {
+
+    private static final String MIGRATION = "events.confirmed_requests";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() {
+        if (isApplied()) {
+            return;
+        }
+        jdbcTemplate.execute("LOCK TABLE events IN SHARE ROW EXCLUSIVE MODE");
+        if (isApplied()) {
+            return;
+        }
+        int updated = jdbcTemplate.update("""
+                UPDATE events e
+                SET confirmed_requests = c.confirmed
+                FROM (
+                    SELECT r.event_id, COUNT(*) AS confirmed
+                    FROM requests r
+                    WHERE r.status = 'CONFIRMED'
+                    GROUP BY r.event_id
+                ) c
+                WHERE c.event_id = e.id AND e.confirmed_requests <> c.confirmed
+                """);
+        jdbcTemplate.update("INSERT INTO schema_migrations (name, applied_on) VALUES (?, ?)",
+                MIGRATION, Timestamp.valueOf(LocalDateTime.now(clock)));
+        log.info("Backfilled confirmed request counters of {} events", updated);
+    }
+
+    private boolean isApplied() {
+        Boolean applied = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM schema_migrations WHERE name = ?)", Boolean.class, MIGRATION);
+        return Boolean.TRUE.equals(applied);
+    }
+}
@@ -15,11 +15,11 @@ import ru.practicum.ewm.mapper.EventMapper;
 import ru.practicum.ewm.model.*;
 import ru.practicum.ewm.repository.CategoryRepository;
 import ru.practicum.ewm.repository.EventRepository;
-import ru.practicum.ewm.repository.ParticipationRequestRepository;
 import ru.practicum.ewm.repository.UserRepository;
-import ru.practicum.ewm.repository.projection.EventRequestCount;
 import ru.practicum.ewm.repository.specification.EventSpecifications;
+import ru.practicum.ewm.repository.specification.KeysetSpecifications;
 import ru.practicum.ewm.util.DateTimeUtil;
+import ru.practicum.ewm.util.PageCursor;
 import ru.practicum.ewm.util.PaginationUtil;
 
 import java.time.Clock;
@@ -34,11 +34,15 @@ public class EventService {
 
     private static final int USER_EVENT_HOURS_BEFORE = 2;
     private static final int ADMIN_EVENT_HOURS_BEFORE = 1;
+    private static final String EVENTS_NEWEST_FIRST = "events.created";
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdOn"), Sort.Order.desc("id"));
+    private static final Sort BY_EVENT_DATE = Sort.by(Sort.Order.asc("eventDate"), Sort.Order.asc("id"));
+    private static final Sort BY_VIEWS = Sort.by(Sort.Order.desc("views"), Sort.Order.asc("eventDate"),
+            Sort.Order.asc("id"));
 
     private final EventRepository eventRepository;
     private final CategoryRepository categoryRepository;
     private final UserRepository userRepository;
-    private final ParticipationRequestRepository requestRepository;
     private final StatsService statsService;
     private final Clock clock;
 
@@ -55,11 +59,17 @@ public class EventService {
 
     public List<EventShortDto> getUserEvents(long userId, int from, int size) {
         ensureUserExists(userId);
-        Pageable pageable = PaginationUtil.offsetPageable(from, size, Sort.by(Sort.Direction.DESC, "createdOn"));
+        Pageable pageable = PaginationUtil.offsetPageable(from, size, NEWEST_FIRST);
         List<Event> events = eventRepository.findAllByInitiatorId(userId, pageable).getContent();
         return toShortDtos(events);
     }
 
+    public CursorPage<EventShortDto> getUserEvents(long userId, String cursor, int size) {
+        ensureUserExists(userId);
+        List<Event> events = findNewestFirst(EventSpecifications.hasInitiatorIds(List.of(userId)), cursor, size);
+        return new CursorPage<>(toShortDtos(events), nextNewestFirst(events, size));
+    }
+
     public EventFullDto getUserEvent(long userId, long eventId) {
         Event event = getEventForInitiator(eventId, userId);
         return toFullDto(event);
@@ -97,20 +107,24 @@ public class EventService {
                                                  String rangeEnd,
                                                  int from,
                                                  int size) {
-        LocalDateTime start = DateTimeUtil.parseOrNull(rangeStart);
-        LocalDateTime end = DateTimeUtil.parseOrNull(rangeEnd);
-        validateDateRange(start, end);
-
-        Specification<Event> spec = Specification.where(EventSpecifications.hasInitiatorIds(userIds))
-                .and(EventSpecifications.hasStates(states))
-                .and(EventSpecifications.hasCategories(categories))
-                .and(EventSpecifications.eventDateBetween(start, end));
-
-        Pageable pageable = PaginationUtil.offsetPageable(from, size, Sort.by(Sort.Direction.DESC, "createdOn"));
+        Specification<Event> spec = adminFilter(userIds, states, categories, rangeStart, rangeEnd);
+        Pageable pageable = PaginationUtil.offsetPageable(from, size, NEWEST_FIRST);
         List<Event> events = eventRepository.findAll(spec, pageable).getContent();
         return toFullDtos(events);
     }
 
+    public CursorPage<EventFullDto> findEventsForAdmin(List<Long> userIds,
+                                                       List<EventState> states,
+                                                       List<Long> categories,
+                                                       String rangeStart,
+                                                       String rangeEnd,
+                                                       String cursor,
+                                                       int size) {
+        Specification<Event> spec = adminFilter(userIds, states, categories, rangeStart, rangeEnd);
+        List<Event> events = findNewestFirst(spec, cursor, size);
+        return new CursorPage<>(toFullDtos(events), nextNewestFirst(events, size));
+    }
+
     @Transactional
     public EventFullDto updateEventByAdmin(long eventId, UpdateEventAdminRequest request) {
         Event event = eventRepository.findById(eventId)
@@ -143,57 +157,53 @@ public class EventService {
                                                 String sort,
                                                 int from,
                                                 int size) {
-        LocalDateTime start = DateTimeUtil.parseOrNull(rangeStart);
-        LocalDateTime end = DateTimeUtil.parseOrNull(rangeEnd);
-        if (start == null) {
-            start = LocalDateTime.now(clock);
-        }
-        validateDateRange(start, end);
-
-        Specification<Event> spec = Specification.where(EventSpecifications.isPublished())
-                .and(EventSpecifications.hasText(text))
-                .and(EventSpecifications.hasCategories(categories))
-                .and(EventSpecifications.isPaid(paid))
-                .and(EventSpecifications.eventDateBetween(start, end));
-
-        EventSort sortType = parseSort(sort);
+        Specification<Event> spec = publicFilter(text, categories, paid, rangeStart, rangeEnd, onlyAvailable);
+        EventSort sortType = parsePublicSort(sort, text);
         List<Event> events;
-        if (sortType == EventSort.EVENT_DATE) {
-            Pageable pageable = PaginationUtil.offsetPageable(from, size, Sort.by(Sort.Direction.ASC, "eventDate"));
-            events = eventRepository.findAll(spec, pageable).getContent();
+        if (sortType == EventSort.RELEVANCE) {
+            events = eventRepository.findAllByRelevance(spec, text, PaginationUtil.offsetPageable(from, size));
         } else {
-            events = eventRepository.findAll(spec, Sort.by(Sort.Direction.ASC, "id"));
+            Sort order = sortType == EventSort.VIEWS ? BY_VIEWS : BY_EVENT_DATE;
+            events = eventRepository.findAll(spec, PaginationUtil.offsetPageable(from, size, order)).getContent();
         }
+        return toPublicDtos(events, sortType);
+    }
 
-        Map<Long, Long> confirmed = getConfirmedRequests(events);
-        if (Boolean.TRUE.equals(onlyAvailable)) {
-            final Map<Long, Long> confirmedSnapshot = confirmed;
-            events = events.stream()
-                    .filter(event -> {
-                        int limit = event.getParticipantLimit() == null ? 0 : event.getParticipantLimit();
-                        if (limit == 0) {
-                            return true;
-                        }
-                        long confirmedCount = confirmedSnapshot.getOrDefault(event.getId(), 0L);
-                        return confirmedCount < limit;
-                    })
-                    .toList();
-            confirmed = getConfirmedRequests(events);
+    /**
+     * Keyset variant of {@link #findPublicEvents}. Relevance is computed per query and cannot be resumed from a
+     * cursor, so only EVENT_DATE and VIEWS are supported. VIEWS pages follow the stored counts, which the refresher
+     * only ever raises, so an event whose count grows past the cursor between fetches is not shown again.
+     */
+    public CursorPage<EventShortDto> findPublicEvents(String text,
+                                                      List<Long> categories,
+                                                      Boolean paid,
+                                                      String rangeStart,
+                                                      String rangeEnd,
+                                                      Boolean onlyAvailable,
+                                                      String sort,
+                                                      String cursor,
+                                                      int size) {
+        Specification<Event> spec = publicFilter(text, categories, paid, rangeStart, rangeEnd, onlyAvailable);
+        EventSort sortType = parsePublicSort(sort, text);
+        if (sortType == EventSort.RELEVANCE) {
+            throw new ValidationException("Cursor pagination is not supported for sort " + EventSort.RELEVANCE);
         }
-
-        Map<Long, Long> views = getViews(events);
-
-        List<EventShortDto> dtos = toShortDtos(events, confirmed, views);
-
+        String ordering = "events." + sortType.name();
+        PageCursor after = PageCursor.decode(cursor, ordering);
+        List<Event> events;
+        String next;
         if (sortType == EventSort.VIEWS) {
-            dtos.sort(Comparator.comparing(EventShortDto::getViews).reversed()
-                    .thenComparing(EventShortDto::getEventDate));
-            int startIndex = Math.min(from, dtos.size());
-            int endIndex = Math.min(startIndex + size, dtos.size());
-            return dtos.subList(startIndex, endIndex);
+            events = findPage(spec, BY_VIEWS, after == null ? null
+                    : List.of(after.getLong(0), after.getDateTime(1), after.getLong(2)), size);
+            next = PageCursor.next(events, size,
+                    event -> PageCursor.of(ordering, event.getViews(), event.getEventDate(), event.getId()));
+        } else {
+            events = findPage(spec, BY_EVENT_DATE, after == null ? null
+                    : List.of(after.getDateTime(0), after.getLong(1)), size);
+            next = PageCursor.next(events, size,
+                    event -> PageCursor.of(ordering, event.getEventDate(), event.getId()));
         }
-
-        return dtos;
+        return new CursorPage<>(toPublicDtos(events, sortType), next);
     }
 
     public EventFullDto getPublishedEvent(long eventId) {
@@ -261,6 +271,79 @@ public class EventService {
                 .orElseThrow(() -> new NotFoundException("Category with id=%d was not found".formatted(categoryId)));
     }
 
+    private Specification<Event> adminFilter(List<Long> userIds,
+                                             List<EventState> states,
+                                             List<Long> categories,
+                                             String rangeStart,
+                                             String rangeEnd) {
+        LocalDateTime start = DateTimeUtil.parseOrNull(rangeStart);
+        LocalDateTime end = DateTimeUtil.parseOrNull(rangeEnd);
+        validateDateRange(start, end);
+
+        return Specification.where(EventSpecifications.hasInitiatorIds(userIds))
+                .and(EventSpecifications.hasStates(states))
+                .and(EventSpecifications.hasCategories(categories))
+                .and(EventSpecifications.eventDateBetween(start, end));
+    }
+
+    private Specification<Event> publicFilter(String text,
+                                              List<Long> categories,
+                                              Boolean paid,
+                                              String rangeStart,
+                                              String rangeEnd,
+                                              Boolean onlyAvailable) {
+        LocalDateTime start = DateTimeUtil.parseOrNull(rangeStart);
+        LocalDateTime end = DateTimeUtil.parseOrNull(rangeEnd);
+        if (start == null) {
+            start = LocalDateTime.now(clock);
+        }
+        validateDateRange(start, end);
+
+        return Specification.where(EventSpecifications.isPublished())
+                .and(EventSpecifications.hasText(text))
+                .and(EventSpecifications.hasCategories(categories))
+                .and(EventSpecifications.isPaid(paid))
+                .and(EventSpecifications.hasAvailableSlots(onlyAvailable))
+                .and(EventSpecifications.eventDateBetween(start, end));
+    }
+
+    private List<EventShortDto> toPublicDtos(List<Event> events, EventSort sortType) {
+        List<EventShortDto> dtos = toShortDtos(events, getViews(events));
+        if (sortType == EventSort.VIEWS && dtos.size() > 1) {
+            // pages are cut by the stored snapshot; order the page itself by the live counts shown to the client
+            dtos.sort(Comparator.comparing(EventShortDto::getViews).reversed()
+                    .thenComparing(EventShortDto::getEventDate));
+        }
+        return dtos;
+    }
+
+    private List<Event> findNewestFirst(Specification<Event> spec, String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor, EVENTS_NEWEST_FIRST);
+        return findPage(spec, NEWEST_FIRST, after == null ? null
+                : List.of(after.getDateTime(0), after.getLong(1)), size);
+    }
+
+    private static String nextNewestFirst(List<Event> events, int size) {
+        return PageCursor.next(events, size,
+                event -> PageCursor.of(EVENTS_NEWEST_FIRST, event.getCreatedOn(), event.getId()));
+    }
+
+    private List<Event> findPage(Specification<Event> spec,
+                                 Sort sort,
+                                 List<? extends Comparable<?>> lastKeys,
+                                 int size) {
+        return eventRepository.findBy(spec.and(KeysetSpecifications.after(sort, lastKeys)),
+                query -> query.sortBy(sort).limit(size).all());
+    }
+
+    private EventSort parsePublicSort(String sort, String text) {
+        EventSort sortType = parseSort(sort);
+        if (sortType == EventSort.RELEVANCE && (text == null || text.isBlank())) {
+            return EventSort.EVENT_DATE;
+        }
+        return sortType;
+    }
+
     private EventSort parseSort(String sort) {
         if (sort == null || sort.isBlank()) {
             return EventSort.EVENT_DATE;
@@ -276,21 +359,17 @@ public class EventService {
         if (events.isEmpty()) {
             return List.of();
         }
-        Map<Long, Long> confirmed = getConfirmedRequests(events);
-        Map<Long, Long> views = getViews(events);
-        return toShortDtos(events, confirmed, views);
+        return toShortDtos(events, getViews(events));
     }
 
-    private List<EventShortDto> toShortDtos(List<Event> events,
-                                            Map<Long, Long> confirmed,
-                                            Map<Long, Long> views) {
+    private List<EventShortDto> toShortDtos(List<Event> events, Map<Long, Long> views) {
         if (events.isEmpty()) {
             return List.of();
         }
         List<EventShortDto> dtos = new ArrayList<>(events.size());
         for (Event event : events) {
             dtos.add(EventMapper.toShortDto(event,
-                    confirmed.getOrDefault(event.getId(), 0L),
+                    confirmedRequests(event),
                     views.getOrDefault(event.getId(), 0L)));
         }
         return dtos;
@@ -304,27 +383,16 @@ public class EventService {
         if (events.isEmpty()) {
             return List.of();
         }
-        Map<Long, Long> confirmed = getConfirmedRequests(events);
         Map<Long, Long> views = getViews(events);
         return events.stream()
                 .map(event -> EventMapper.toFullDto(event,
-                        confirmed.getOrDefault(event.getId(), 0L),
+                        confirmedRequests(event),
                         views.getOrDefault(event.getId(), 0L)))
                 .toList();
     }
 
-    private Map<Long, Long> getConfirmedRequests(List<Event> events) {
-        Map<Long, Long> result = new HashMap<>();
-        if (events.isEmpty()) {
-            return result;
-        }
-        List<Long> ids = events.stream().map(Event::getId).toList();
-        List<EventRequestCount> counts = requestRepository.countConfirmedByEventIds(ids);
-        for (EventRequestCount count : counts) {
-            result.put(count.getEventId(), count.getRequestCount());
-        }
-        ids.forEach(id -> result.putIfAbsent(id, 0L));
-        return result;
+    private static long confirmedRequests(Event event) {
+        return event.getConfirmedRequests() == null ? 0L : event.getConfirmedRequests();
     }
 
     private Map<Long, Long> getViews(List<Event> events) {
@@ -0,0 +1,208 @@
+package ru.practicum.ewm.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Views known locally: the last counts returned by the stats server and the distinct IPs seen by this instance.
+ * Used to answer view counts while the stats server is unavailable. Entries live in a concurrent map and are
+ * locked one at a time. Reads and writes refresh an entry; entries expire after {@code ttl} without access and the
+ * least recently used ones are evicted once the estimated footprint exceeds {@code memoryBudget}.
+ */
+@Component
+public class EventViewsFallbackStore {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+    private static final long MAX_SWEEP_INTERVAL_MILLIS = 60_000;
+
+    private final Clock clock;
+    private final long memoryBudgetBytes;
+    private final long ttlMillis;
+    private final long sweepIntervalMillis;
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final AtomicLong accessTicks = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private volatile long nextSweepAt;
+
+    public EventViewsFallbackStore(Clock clock,
+                                   @Value("${ewm.views.fallback.memory-budget:16MB}") DataSize memoryBudget,
+                                   @Value("${ewm.views.fallback.ttl:24h}") Duration ttl) {
+        this.clock = clock;
+        this.memoryBudgetBytes = memoryBudget.toBytes();
+        this.ttlMillis = ttl.toMillis();
+        this.sweepIntervalMillis = Math.max(1, Math.min(ttlMillis, MAX_SWEEP_INTERVAL_MILLIS));
+        this.nextSweepAt = clock.millis() + sweepIntervalMillis;
+    }
+
+    public void recordView(Long eventId, String ip) {
+        update(eventId, entry -> {
+            if (entry.ips == null) {
+                entry.ips = new IpDistinctCounter();
+                usedBytes.addAndGet(entry.ips.sizeInBytes());
+            }
+            int before = entry.ips.sizeInBytes();
+            entry.ips.add(ip);
+            usedBytes.addAndGet(entry.ips.sizeInBytes() - before);
+        });
+        evict();
+    }
+
+    public void rememberViews(Map<Long, Long> views) {
+        views.forEach((eventId, count) -> update(eventId, entry -> entry.lastKnown = count));
+        evict();
+    }
+
+    public long localViews(Long eventId) {
+        Entry entry = live(eventId);
+        if (entry == null) {
+            return 0;
+        }
+        synchronized (entry) {
+            return entry.ips == null ? 0 : entry.ips.count();
+        }
+    }
+
+    public Map<Long, Long> getViews(Collection<Long> eventIds) {
+        Map<Long, Long> result = new HashMap<>();
+        for (Long eventId : eventIds) {
+            Entry entry = live(eventId);
+            if (entry == null) {
+                result.put(eventId, 0L);
+                continue;
+            }
+            synchronized (entry) {
+                long local = entry.ips == null ? 0 : entry.ips.count();
+                result.put(eventId, Math.max(entry.lastKnown, local));
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long usedBytes() {
+        return usedBytes.get();
+    }
+
+    private void update(Long eventId, Consumer<Entry> change) {
+        while (true) {
+            Entry entry = touch(eventId);
+            synchronized (entry) {
+                if (!entry.removed) {
+                    change.accept(entry);
+                    return;
+                }
+            }
+        }
+    }
+
+    private Entry touch(Long eventId) {
+        long now = clock.millis();
+        Entry existing = entries.get(eventId);
+        if (existing != null && isExpired(existing, now)) {
+            remove(eventId, existing);
+        }
+        Entry entry = entries.computeIfAbsent(eventId, id -> {
+            usedBytes.addAndGet(ENTRY_OVERHEAD_BYTES);
+            return new Entry();
+        });
+        markAccess(entry, now);
+        return entry;
+    }
+
+    /**
+     * Returns the entry if it has not expired and refreshes it.
+     */
+    private Entry live(Long eventId) {
+        long now = clock.millis();
+        Entry entry = entries.get(eventId);
+        if (entry == null || isExpired(entry, now)) {
+            return null;
+        }
+        markAccess(entry, now);
+        return entry;
+    }
+
+    private void markAccess(Entry entry, long now) {
+        entry.accessedAt = now;
+        entry.lastAccess = accessTicks.incrementAndGet();
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return entry.accessedAt <= now - ttlMillis;
+    }
+
+    /**
+     * Drops expired entries at most once per sweep interval and, while over budget, the least recently used ones.
+     * Only one caller evicts at a time; the others carry on.
+     */
+    private void evict() {
+        long now = clock.millis();
+        boolean sweep = now >= nextSweepAt;
+        if (!sweep && usedBytes.get() <= memoryBudgetBytes || !evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            if (sweep) {
+                nextSweepAt = now + sweepIntervalMillis;
+                entries.forEach((eventId, entry) -> {
+                    if (isExpired(entry, now)) {
+                        remove(eventId, entry);
+                    }
+                });
+            }
+            if (usedBytes.get() <= memoryBudgetBytes) {
+                return;
+            }
+            List<Candidate> candidates = new ArrayList<>(entries.size());
+            entries.forEach((eventId, entry) -> candidates.add(new Candidate(eventId, entry, entry.lastAccess)));
+            candidates.sort(Comparator.comparingLong(Candidate::lastAccess));
+            long target = memoryBudgetBytes - memoryBudgetBytes / 10;
+            for (Candidate candidate : candidates) {
+                if (usedBytes.get() <= target) {
+                    return;
+                }
+                remove(candidate.eventId(), candidate.entry());
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void remove(Long eventId, Entry entry) {
+        long freed;
+        synchronized (entry) {
+            if (entry.removed) {
+                return;
+            }
+            entry.removed = true;
+            freed = ENTRY_OVERHEAD_BYTES + (entry.ips == null ? 0 : entry.ips.sizeInBytes());
+        }
+        entries.remove(eventId, entry);
+        usedBytes.addAndGet(-freed);
+    }
+
+    private record Candidate(Long eventId, Entry entry, long lastAccess) {
+    }
+
+    private static final class Entry {
+
+        private long lastKnown;
+        private IpDistinctCounter ips;
+        private boolean removed;
+        private volatile long accessedAt;
+        private volatile long lastAccess;
+    }
+}
@@ -0,0 +1,132 @@
+package ru.practicum.ewm.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.repository.EventRepository;
+import ru.practicum.ewm.repository.projection.EventViewsSnapshot;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Copies unique view counts of published events from the stats server into {@code events.views}, so VIEWS-sorted
+ * searches can order and paginate in SQL. Stored counts only grow: a lower answer (e.g. served from the fallback
+ * store while the stats server is down) never overwrites a higher snapshot.
+ * <p>
+ * Each run refreshes only the events whose pages were hit since the previous run. All published events are walked
+ * on the first run and then every {@code full-refresh-interval}, which picks up hits that reached the stats server
+ * late (e.g. replayed from the spool). Runs are serialized across instances by an advisory lock.
+ */
+@Slf4j
+@Component
+public class EventViewsRefresher {
+
+    // "ewm_view" in ASCII
+    private static final long LOCK_KEY = 0x65776d5f76696577L;
+    private static final Duration LATE_HIT_MARGIN = Duration.ofMinutes(1);
+
+    private final EventRepository eventRepository;
+    private final StatsService statsService;
+    private final ClusterLock clusterLock;
+    private final Clock clock;
+    private final int batchSize;
+    private final Duration fullRefreshInterval;
+    private LocalDateTime refreshedUntil;
+    private LocalDateTime nextFullRefreshAt;
+
+    public EventViewsRefresher(EventRepository eventRepository,
+                               StatsService statsService,
+                               ClusterLock clusterLock,
+                               Clock clock,
+                               @Value("${ewm.views.refresh-batch-size:500}") int batchSize,
+                               @Value("${ewm.views.full-refresh-interval:1h}") Duration fullRefreshInterval) {
+        this.eventRepository = eventRepository;
+        this.statsService = statsService;
+        this.clusterLock = clusterLock;
+        this.clock = clock;
+        this.batchSize = Math.max(1, batchSize);
+        this.fullRefreshInterval = fullRefreshInterval;
+    }
+
+    @Scheduled(fixedDelayString = "${ewm.views.refresh-interval:1m}")
+    public void refresh() {
+        if (!clusterLock.runExclusively(LOCK_KEY, this::refreshViews)) {
+            log.debug("Stored views are being refreshed by another instance");
+        }
+    }
+
+    private void refreshViews() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        if (refreshedUntil == null || !now.isBefore(nextFullRefreshAt)) {
+            refreshAll(now);
+            nextFullRefreshAt = now.plus(fullRefreshInterval);
+        } else {
+            Optional<Set<Long>> viewed = statsService.findViewedEventIds(refreshedUntil.minus(LATE_HIT_MARGIN), now);
+            if (viewed.isEmpty()) {
+                return;
+            }
+            refreshViewed(viewed.get(), now);
+        }
+        refreshedUntil = now;
+    }
+
+    private void refreshAll(LocalDateTime now) {
+        long afterId = 0;
+        int updated = 0;
+        List<EventViewsSnapshot> batch;
+        do {
+            batch = eventRepository.findPublishedViewsAfter(afterId, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            updated += refreshBatch(batch, now);
+            afterId = batch.get(batch.size() - 1).getId();
+        } while (batch.size() == batchSize);
+        if (updated > 0) {
+            log.debug("Refreshed stored views of {} events", updated);
+        }
+    }
+
+    private void refreshViewed(Set<Long> eventIds, LocalDateTime now) {
+        List<Long> ids = eventIds.stream().sorted().toList();
+        int updated = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<EventViewsSnapshot> batch = eventRepository.findPublishedViewsByIdIn(
+                    ids.subList(from, Math.min(ids.size(), from + batchSize)));
+            if (!batch.isEmpty()) {
+                updated += refreshBatch(batch, now);
+            }
+        }
+        if (updated > 0) {
+            log.debug("Refreshed stored views of {} recently viewed events", updated);
+        }
+    }
+
+    private int refreshBatch(List<EventViewsSnapshot> batch, LocalDateTime now) {
+        List<Long> ids = batch.stream().map(EventViewsSnapshot::getId).toList();
+        LocalDateTime earliest = batch.stream()
+                .map(EventViewsSnapshot::getCreatedOn)
+                .filter(Objects::nonNull)
+                .min(LocalDateTime::compareTo)
+                .orElse(null);
+        Map<Long, Long> views = statsService.getEventViews(ids, earliest, now);
+        int updated = 0;
+        for (EventViewsSnapshot snapshot : batch) {
+            long current = views.getOrDefault(snapshot.getId(), 0L);
+            long stored = snapshot.getViews() == null ? 0L : snapshot.getViews();
+            if (current > stored) {
+                updated += eventRepository.raiseViews(snapshot.getId(), current);
+            }
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,274 @@
+package ru.practicum.ewm.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.stats.client.FailedHitHandler;
+import ru.practicum.stats.dto.EndpointHitDto;
+import ru.practicum.stats.dto.StatsBinaryCodec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of hits that could not be delivered to the stats server. Each record is a batch encoded with
+ * {@link StatsBinaryCodec} behind a {@code length, hit count, crc32} header. The replay position lives in a
+ * sidecar {@code .offset} file that is replaced atomically. Once everything is replayed the spool is truncated; when
+ * the replayed prefix outgrows half of the size limit, the pending records are copied into a fresh file. A torn tail
+ * left by a crash is cut off on startup. Replay is at-least-once: a crash may resend hits that were already delivered.
+ */
+@Slf4j
+@Component
+public class HitSpool implements FailedHitHandler {
+
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+
+    private final boolean enabled;
+    private final long maxSizeBytes;
+    private final boolean force;
+    private final Path path;
+    private final Path offsetPath;
+    private FileChannel channel;
+    private long readOffset;
+    private long pendingHits;
+    private long rejectedHits;
+
+    public HitSpool(@Value("${stats-service.spool.enabled:true}") boolean enabled,
+                    @Value("${stats-service.spool.path:spool/hits.spool}") Path path,
+                    @Value("${stats-service.spool.max-size:64MB}") DataSize maxSize,
+                    @Value("${stats-service.spool.force:false}") boolean force) {
+        this.enabled = enabled;
+        this.maxSizeBytes = maxSize.toBytes();
+        this.force = force;
+        this.path = path;
+        this.offsetPath = path.resolveSibling(path.getFileName() + ".offset");
+        if (enabled) {
+            open();
+        }
+    }
+
+    @Override
+    public boolean handle(List<EndpointHitDto> hits) {
+        return append(hits);
+    }
+
+    public synchronized boolean append(List<EndpointHitDto> hits) {
+        if (!enabled || channel == null || hits.isEmpty()) {
+            return false;
+        }
+        byte[] payload = StatsBinaryCodec.encodeHits(hits);
+        try {
+            if (channel.size() - readOffset + HEADER_BYTES + payload.length > maxSizeBytes) {
+                rejectedHits += hits.size();
+                return false;
+            }
+            ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length)
+                    .putInt(payload.length)
+                    .putInt(hits.size())
+                    .putInt(crc(payload))
+                    .put(payload)
+                    .flip();
+            channel.write(record, channel.size());
+            if (force) {
+                channel.force(false);
+            }
+            pendingHits += hits.size();
+            return true;
+        } catch (IOException ex) {
+            log.warn("Failed to spool {} endpoint hits: {}", hits.size(), ex.getMessage());
+            rejectedHits += hits.size();
+            return false;
+        }
+    }
+
+    /**
+     * Reads whole records from the replay position until at least {@code maxHits} hits are collected.
+     * Returns {@code null} when nothing is pending. The chunk stays pending until {@link #acknowledge} is called.
+     */
+    public synchronized Chunk read(int maxHits) {
+        if (channel == null) {
+            return null;
+        }
+        try {
+            List<EndpointHitDto> hits = new ArrayList<>();
+            long offset = readOffset;
+            long size = channel.size();
+            while (offset < size && hits.size() < maxHits) {
+                ByteBuffer header = readFully(offset, HEADER_BYTES);
+                byte[] payload = readFully(offset + HEADER_BYTES, header.getInt(0)).array();
+                hits.addAll(StatsBinaryCodec.decodeHits(payload));
+                offset += HEADER_BYTES + payload.length;
+            }
+            return hits.isEmpty() ? null : new Chunk(List.copyOf(hits), offset);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public synchronized void acknowledge(Chunk chunk) {
+        try {
+            readOffset = chunk.nextOffset();
+            pendingHits = Math.max(0, pendingHits - chunk.hits().size());
+            if (readOffset >= channel.size()) {
+                channel.truncate(0);
+                readOffset = 0;
+                pendingHits = 0;
+            } else if (readOffset > maxSizeBytes / 2) {
+                compact();
+                return;
+            }
+            writeOffset(readOffset);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public synchronized long pendingBytes() {
+        try {
+            return channel == null ? 0 : channel.size() - readOffset;
+        } catch (IOException ex) {
+            return 0;
+        }
+    }
+
+    public synchronized long pendingHits() {
+        return pendingHits;
+    }
+
+    public synchronized long rejectedHits() {
+        return rejectedHits;
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.force(true);
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void open() {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            readOffset = readOffset();
+            recover();
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to open hit spool " + path, ex);
+        }
+    }
+
+    private long readOffset() throws IOException {
+        if (!Files.exists(offsetPath)) {
+            return 0;
+        }
+        String value = Files.readString(offsetPath).trim();
+        try {
+            return Math.max(0, Long.parseLong(value));
+        } catch (NumberFormatException ex) {
+            log.warn("Ignoring unreadable hit spool offset '{}', replaying the spool from the start", value);
+            return 0;
+        }
+    }
+
+    private void writeOffset(long offset) throws IOException {
+        Path temp = offsetPath.resolveSibling(offsetPath.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.write(ByteBuffer.wrap(Long.toString(offset).getBytes(StandardCharsets.US_ASCII)));
+            if (force) {
+                out.force(true);
+            }
+        }
+        Files.move(temp, offsetPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Copies the pending records into a new file and moves it over the spool. The offset is reset first, so a crash
+     * in between replays the old file from the start instead of skipping records.
+     */
+    private void compact() throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = channel.size();
+            long position = readOffset;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+            out.force(true);
+        }
+        writeOffset(0);
+        channel.close();
+        try {
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            readOffset = 0;
+        } finally {
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+    }
+
+    private void recover() throws IOException {
+        long size = channel.size();
+        long offset = 0;
+        long pending = 0;
+        while (offset + HEADER_BYTES <= size) {
+            ByteBuffer header = readFully(offset, HEADER_BYTES);
+            int length = header.getInt(0);
+            if (length < 0 || offset + HEADER_BYTES + length > size
+                    || crc(readFully(offset + HEADER_BYTES, length).array()) != header.getInt(8)) {
+                break;
+            }
+            if (offset >= readOffset) {
+                pending += header.getInt(4);
+            }
+            offset += HEADER_BYTES + length;
+        }
+        if (offset < size) {
+            log.warn("Truncating {} bytes of incomplete records from hit spool", size - offset);
+            channel.truncate(offset);
+        }
+        if (readOffset > offset) {
+            readOffset = offset;
+        }
+        pendingHits = pending;
+        if (pending > 0) {
+            log.info("Hit spool holds {} undelivered endpoint hits", pending);
+        }
+    }
+
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of hit spool");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    public record Chunk(List<EndpointHitDto> hits, long nextOffset) {
+    }
+}
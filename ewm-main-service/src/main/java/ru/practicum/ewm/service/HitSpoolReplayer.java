@@ -0,0 +1,49 @@
+package ru.practicum.ewm.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.stats.client.StatsClient;
+import ru.practicum.stats.client.StatsClientException;
+
+@Slf4j
+@Component
+public class HitSpoolReplayer {
+
+    private final HitSpool hitSpool;
+    private final StatsClient statsClient;
+    private final int replayBatchSize;
+
+    public HitSpoolReplayer(HitSpool hitSpool,
+                            StatsClient statsClient,
+                            @Value("${stats-service.spool.replay-batch-size:500}") int replayBatchSize) {
+        this.hitSpool = hitSpool;
+        this.statsClient = statsClient;
+        this.replayBatchSize = replayBatchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${stats-service.spool.replay-interval:5s}")
+    public void replay() {
+        HitSpool.Chunk chunk;
+        int replayed = 0;
+        while ((chunk = hitSpool.read(replayBatchSize)) != null) {
+            try {
+                statsClient.hitBatch(chunk.hits());
+                replayed += chunk.hits().size();
+            } catch (StatsClientException ex) {
+                if (!ex.isRejected()) {
+                    log.debug("Stats server still unavailable, {} hits remain spooled: {}",
+                            hitSpool.pendingHits(), ex.getMessage());
+                    break;
+                }
+                log.warn("Stats server rejected {} spooled hits, dropping them: {}",
+                        chunk.hits().size(), ex.getMessage());
+            }
+            hitSpool.acknowledge(chunk);
+        }
+        if (replayed > 0) {
+            log.info("Replayed {} spooled endpoint hits", replayed);
+        }
+    }
+}
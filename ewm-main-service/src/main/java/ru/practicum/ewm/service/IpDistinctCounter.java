@@ -0,0 +1,139 @@
+package ru.practicum.ewm.service;
+
+/**
+ * Distinct IP counter with a bounded footprint. IPv4 addresses are packed into a long, anything else is
+ * hashed to 64 bits. Up to {@link #EXACT_LIMIT} keys are kept in an open-addressing set and counted exactly;
+ * beyond that the set is folded into a 1 KiB HyperLogLog (about 3% standard error).
+ */
+final class IpDistinctCounter {
+
+    static final int EXACT_LIMIT = 64;
+
+    private static final int PRECISION = 10;
+    private static final int REGISTERS = 1 << PRECISION;
+    private static final long IPV4_TAG = 1L << 32;
+
+    private long[] keys = new long[8];
+    private int size;
+    private byte[] registers;
+
+    void add(String ip) {
+        long key = key(ip);
+        if (registers != null) {
+            addToSketch(key);
+            return;
+        }
+        if (insert(key) && size > EXACT_LIMIT) {
+            registers = new byte[REGISTERS];
+            for (long existing : keys) {
+                if (existing != 0) {
+                    addToSketch(existing);
+                }
+            }
+            keys = null;
+        }
+    }
+
+    long count() {
+        if (registers == null) {
+            return size;
+        }
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / REGISTERS);
+        double estimate = alpha * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    int sizeInBytes() {
+        return 16 + (registers != null ? registers.length : keys.length * Long.BYTES);
+    }
+
+    private boolean insert(long key) {
+        if ((size + 1) * 2 > keys.length) {
+            long[] old = keys;
+            keys = new long[old.length * 2];
+            size = 0;
+            for (long existing : old) {
+                if (existing != 0) {
+                    insert(existing);
+                }
+            }
+        }
+        int mask = keys.length - 1;
+        int index = (int) mix(key) & mask;
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        size++;
+        return true;
+    }
+
+    private void addToSketch(long key) {
+        long hash = mix(key);
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    static long key(String ip) {
+        long ipv4 = parseIpv4(ip);
+        if (ipv4 >= 0) {
+            return IPV4_TAG | ipv4;
+        }
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < ip.length(); i++) {
+            hash ^= Character.toLowerCase(ip.charAt(i));
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static long parseIpv4(String ip) {
+        long value = 0;
+        int octets = 0;
+        int octet = -1;
+        for (int i = 0; i <= ip.length(); i++) {
+            char c = i == ip.length() ? '.' : ip.charAt(i);
+            if (c == '.') {
+                if (octet < 0 || ++octets > 4) {
+                    return -1;
+                }
+                value = (value << 8) | octet;
+                octet = -1;
+            } else if (c >= '0' && c <= '9') {
+                octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+                if (octet > 255) {
+                    return -1;
+                }
+            } else {
+                return -1;
+            }
+        }
+        return octets == 4 ? value : -1;
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
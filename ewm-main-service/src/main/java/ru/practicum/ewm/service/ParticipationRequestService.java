@@ -51,14 +51,16 @@ public class ParticipationRequestService {
         requestRepository.findByEventIdAndRequesterId(eventId, userId).ifPresent(existing -> {
             throw new ConflictException("Request already exists");
         });
-        long confirmed = requestRepository.countByEventIdAndStatus(eventId, RequestStatus.CONFIRMED);
         int limit = event.getParticipantLimit() == null ? 0 : event.getParticipantLimit();
-        if (limit > 0 && confirmed >= limit) {
+        if (limit > 0 && confirmedRequests(event) >= limit) {
             throw new ConflictException("Participant limit reached");
         }
         RequestStatus status = (event.getRequestModeration() == null || !event.getRequestModeration() || limit == 0)
                 ? RequestStatus.CONFIRMED
                 : RequestStatus.PENDING;
+        if (status == RequestStatus.CONFIRMED && eventRepository.reserveParticipantSlot(eventId) == 0) {
+            throw new ConflictException("Participant limit reached");
+        }
         ParticipationRequest request = ParticipationRequest.builder()
                 .event(event)
                 .requester(userRepository.findById(userId)
@@ -74,6 +76,9 @@ public class ParticipationRequestService {
     public ParticipationRequestDto cancelRequest(long userId, long requestId) {
         ParticipationRequest request = requestRepository.findByIdAndRequesterId(requestId, userId)
                 .orElseThrow(() -> new NotFoundException("Request with id=%d was not found".formatted(requestId)));
+        if (request.getStatus() == RequestStatus.CONFIRMED) {
+            eventRepository.releaseParticipantSlot(request.getEvent().getId());
+        }
         request.setStatus(RequestStatus.CANCELED);
         ParticipationRequest saved = requestRepository.save(request);
         return ParticipationRequestMapper.toDto(saved);
@@ -92,11 +97,8 @@ public class ParticipationRequestService {
                                                               EventRequestStatusUpdateRequest request) {
         Event event = getEventForInitiator(userId, eventId);
         int limit = event.getParticipantLimit() == null ? 0 : event.getParticipantLimit();
-        if (request.getStatus() == RequestUpdateStatus.CONFIRMED && limit > 0) {
-            long alreadyConfirmed = requestRepository.countByEventIdAndStatus(eventId, RequestStatus.CONFIRMED);
-            if (alreadyConfirmed >= limit) {
-                throw new ConflictException("Participant limit reached");
-            }
+        if (request.getStatus() == RequestUpdateStatus.CONFIRMED && limit > 0 && confirmedRequests(event) >= limit) {
+            throw new ConflictException("Participant limit reached");
         }
         if (request.getRequestIds() == null || request.getRequestIds().isEmpty()) {
             return EventRequestStatusUpdateResult.builder()
@@ -121,16 +123,14 @@ public class ParticipationRequestService {
         List<ParticipationRequest> confirmed = new ArrayList<>();
         List<ParticipationRequest> rejected = new ArrayList<>();
         if (status == RequestUpdateStatus.CONFIRMED) {
-            long alreadyConfirmed = requestRepository.countByEventIdAndStatus(eventId, RequestStatus.CONFIRMED);
             for (ParticipationRequest participationRequest : requests) {
-                if (limit > 0 && alreadyConfirmed >= limit) {
+                if (eventRepository.reserveParticipantSlot(eventId) == 0) {
                     participationRequest.setStatus(RequestStatus.REJECTED);
                     rejected.add(participationRequest);
                     continue;
                 }
                 participationRequest.setStatus(RequestStatus.CONFIRMED);
                 confirmed.add(participationRequest);
-                alreadyConfirmed++;
             }
         } else {
             for (ParticipationRequest participationRequest : requests) {
@@ -158,6 +158,10 @@ public class ParticipationRequestService {
         return event;
     }
 
+    private static long confirmedRequests(Event event) {
+        return event.getConfirmedRequests() == null ? 0L : event.getConfirmedRequests();
+    }
+
     private void ensureUserExists(long userId) {
         if (!userRepository.existsById(userId)) {
             throw new NotFoundException("User with id=%d was not found".formatted(userId));
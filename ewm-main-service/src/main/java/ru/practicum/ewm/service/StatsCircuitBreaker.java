@@ -0,0 +1,95 @@
+package ru.practicum.ewm.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Consecutive-failure circuit breaker for calls to the stats server. After {@code failureThreshold} failures
+ * in a row the circuit opens for {@code openDuration}; then up to {@code halfOpenProbes} calls are let through
+ * and the first result decides whether it closes again or reopens.
+ */
+@Slf4j
+@Component
+public class StatsCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final Clock clock;
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final int halfOpenProbes;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private int probesInFlight;
+    private Instant openedAt;
+
+    public StatsCircuitBreaker(Clock clock,
+                               @Value("${stats-service.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                               @Value("${stats-service.circuit-breaker.open-duration:30s}") Duration openDuration,
+                               @Value("${stats-service.circuit-breaker.half-open-probes:1}") int halfOpenProbes) {
+        if (failureThreshold <= 0 || halfOpenProbes <= 0) {
+            throw new IllegalArgumentException("Failure threshold and half-open probes must be positive");
+        }
+        this.clock = clock;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.halfOpenProbes = halfOpenProbes;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.instant().isBefore(openedAt.plus(openDuration))) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight >= halfOpenProbes) {
+                return false;
+            }
+            probesInFlight++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("Stats circuit closed");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probesInFlight = 0;
+    }
+
+    /**
+     * Records a failed call. Failures reported while the circuit is already open come from calls admitted before
+     * it opened and do not extend the open period.
+     */
+    public synchronized void onFailure() {
+        if (state == State.OPEN) {
+            return;
+        }
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            log.warn("Stats circuit opened after {} consecutive failures", consecutiveFailures);
+            state = State.OPEN;
+            openedAt = clock.instant();
+            probesInFlight = 0;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
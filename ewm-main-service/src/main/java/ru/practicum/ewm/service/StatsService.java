@@ -11,7 +11,10 @@ import ru.practicum.stats.dto.ViewStatsDto;
 
 import java.time.Clock;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
@@ -19,18 +22,29 @@ import java.util.concurrent.ConcurrentHashMap;
 public class StatsService {
 
     private static final String DEFAULT_APP_NAME = "ewm-main-service";
+    private static final String EVENT_URI_TEMPLATE = "/events/{id}";
+    private static final String EVENT_URI_PREFIX = "/events/*";
 
     private final StatsClient statsClient;
     private final Clock clock;
     private final String appName;
-    private final Map<Long, Set<String>> localUniqueViews = new ConcurrentHashMap<>();
+    private final StatsCircuitBreaker circuitBreaker;
+    private final EventViewsFallbackStore fallbackStore;
+    private final HitSpool hitSpool;
+    private final Map<ViewsKey, CompletableFuture<Map<Long, Long>>> inFlightViews = new ConcurrentHashMap<>();
 
     public StatsService(StatsClient statsClient,
                         Clock clock,
-                        @Value("${ewm.app-name:" + DEFAULT_APP_NAME + "}") String appName) {
+                        @Value("${ewm.app-name:" + DEFAULT_APP_NAME + "}") String appName,
+                        StatsCircuitBreaker circuitBreaker,
+                        EventViewsFallbackStore fallbackStore,
+                        HitSpool hitSpool) {
         this.statsClient = statsClient;
         this.clock = clock;
         this.appName = appName;
+        this.circuitBreaker = circuitBreaker;
+        this.fallbackStore = fallbackStore;
+        this.hitSpool = hitSpool;
     }
 
     public void hit(HttpServletRequest request) {
@@ -55,7 +69,9 @@ public class StatsService {
         try {
             statsClient.hit(hit);
         } catch (StatsClientException ex) {
-            log.warn("Failed to register endpoint hit for uri={} ip={}: {}", uri, ip, ex.getMessage());
+            if (!hitSpool.append(List.of(hit))) {
+                log.warn("Failed to register endpoint hit for uri={} ip={}: {}", uri, ip, ex.getMessage());
+            }
         }
         recordLocalView(uri, sanitizedIp);
     }
@@ -68,43 +84,86 @@ public class StatsService {
         }
         LocalDateTime actualStart = start == null ? LocalDateTime.now(clock).minusYears(10) : start;
         LocalDateTime actualEnd = end == null ? LocalDateTime.now(clock) : end;
-        List<String> uris = eventIds.stream()
-                .map(id -> "/events/" + id)
-                .toList();
-        Map<Long, Long> result = new HashMap<>();
-        boolean statsAvailable = true;
-        try {
-            List<ViewStatsDto> stats = statsClient.getStats(actualStart, actualEnd, uris, true);
-            for (ViewStatsDto stat : stats) {
-                Long eventId = extractEventId(stat.getUri());
-                if (eventId != null) {
-                    result.merge(eventId, stat.getHits(), Long::sum);
-                }
+        ViewsKey key = new ViewsKey(Set.copyOf(eventIds), actualStart.truncatedTo(ChronoUnit.SECONDS),
+                actualEnd.truncatedTo(ChronoUnit.SECONDS));
+        CompletableFuture<Map<Long, Long>> call = new CompletableFuture<>();
+        CompletableFuture<Map<Long, Long>> inFlight = inFlightViews.putIfAbsent(key, call);
+        if (inFlight != null) {
+            try {
+                return new HashMap<>(inFlight.join());
+            } catch (CompletionException ex) {
+                throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
             }
+        }
+        try {
+            Map<Long, Long> views = loadEventViews(eventIds, actualStart, actualEnd);
+            call.complete(views);
+            return new HashMap<>(views);
+        } catch (RuntimeException ex) {
+            call.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlightViews.remove(key, call);
+        }
+    }
+
+    private Map<Long, Long> loadEventViews(Collection<Long> eventIds,
+                                           LocalDateTime actualStart,
+                                           LocalDateTime actualEnd) {
+        if (actualEnd.isBefore(actualStart) || !circuitBreaker.tryAcquire()) {
+            return fallbackStore.getViews(eventIds);
+        }
+        Map<Long, Long> result;
+        try {
+            result = new HashMap<>(statsClient.getViews(eventIds, EVENT_URI_TEMPLATE, actualStart, actualEnd, true));
+            circuitBreaker.onSuccess();
         } catch (StatsClientException | IllegalArgumentException ex) {
             log.warn("Failed to retrieve stats: {}", ex.getMessage());
-            statsAvailable = false;
+            circuitBreaker.onFailure();
+            return fallbackStore.getViews(eventIds);
+        } catch (RuntimeException ex) {
+            circuitBreaker.onFailure();
+            throw ex;
         }
         eventIds.forEach(id -> result.putIfAbsent(id, 0L));
-
+        fallbackStore.rememberViews(result);
         for (Long eventId : eventIds) {
-            Set<String> localIps = localUniqueViews.get(eventId);
-            if (localIps == null || localIps.isEmpty()) {
-                continue;
-            }
-            long localCount = localIps.size();
-            if (!statsAvailable) {
-                result.put(eventId, localCount);
-            } else {
+            long localCount = fallbackStore.localViews(eventId);
+            if (localCount > 0) {
                 result.compute(eventId, (id, current) -> current == null ? localCount : Math.max(current, localCount));
             }
         }
+        return result;
+    }
 
-        if (!statsAvailable) {
-            return result;
+    /**
+     * Ids of events whose pages were hit between {@code start} and {@code end}, or empty when the stats server
+     * cannot be asked; the caller should then ask for the same window again later.
+     */
+    public Optional<Set<Long>> findViewedEventIds(LocalDateTime start, LocalDateTime end) {
+        if (!circuitBreaker.tryAcquire()) {
+            return Optional.empty();
         }
-
-        return result;
+        List<ViewStatsDto> stats;
+        try {
+            stats = statsClient.getStats(start, end, List.of(EVENT_URI_PREFIX), false);
+            circuitBreaker.onSuccess();
+        } catch (StatsClientException | IllegalArgumentException ex) {
+            log.warn("Failed to retrieve viewed events: {}", ex.getMessage());
+            circuitBreaker.onFailure();
+            return Optional.empty();
+        } catch (RuntimeException ex) {
+            circuitBreaker.onFailure();
+            throw ex;
+        }
+        Set<Long> eventIds = new HashSet<>();
+        for (ViewStatsDto dto : stats) {
+            Long eventId = extractEventId(dto.getUri());
+            if (eventId != null) {
+                eventIds.add(eventId);
+            }
+        }
+        return Optional.of(eventIds);
     }
 
     private Long extractEventId(String uri) {
@@ -124,12 +183,9 @@ public class StatsService {
 
     private void recordLocalView(String uri, String ip) {
         Long eventId = extractEventId(uri);
-        if (eventId == null) {
-            return;
+        if (eventId != null) {
+            fallbackStore.recordView(eventId, ip);
         }
-        localUniqueViews
-                .computeIfAbsent(eventId, key -> ConcurrentHashMap.newKeySet())
-                .add(ip);
     }
 
     private String resolveAppName() {
@@ -220,4 +276,7 @@ public class StatsService {
         }
         return candidate;
     }
+
+    private record ViewsKey(Set<Long> eventIds, LocalDateTime start, LocalDateTime end) {
+    }
 }
@@ -2,8 +2,11 @@ package ru.practicum.ewm.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.ewm.dto.CursorPage;
 import ru.practicum.ewm.dto.NewUserRequest;
 import ru.practicum.ewm.dto.UserDto;
 import ru.practicum.ewm.exception.ConflictException;
@@ -11,6 +14,8 @@ import ru.practicum.ewm.exception.NotFoundException;
 import ru.practicum.ewm.mapper.UserMapper;
 import ru.practicum.ewm.model.User;
 import ru.practicum.ewm.repository.UserRepository;
+import ru.practicum.ewm.repository.specification.KeysetSpecifications;
+import ru.practicum.ewm.util.PageCursor;
 import ru.practicum.ewm.util.PaginationUtil;
 
 import java.util.Comparator;
@@ -21,6 +26,9 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class UserService {
 
+    private static final String USERS_BY_ID = "users";
+    private static final Sort BY_ID = Sort.by("id");
+
     private final UserRepository userRepository;
 
     @Transactional
@@ -39,12 +47,23 @@ public class UserService {
                     .map(UserMapper::toDto)
                     .toList();
         }
-        Pageable pageable = PaginationUtil.offsetPageable(from, size);
+        Pageable pageable = PaginationUtil.offsetPageable(from, size, BY_ID);
         return userRepository.findAll(pageable).stream()
                 .map(UserMapper::toDto)
                 .toList();
     }
 
+    public CursorPage<UserDto> getUsers(List<Long> ids, String cursor, int size) {
+        if (ids != null && !ids.isEmpty()) {
+            return new CursorPage<>(getUsers(ids, 0, size), null);
+        }
+        PageCursor after = PageCursor.decode(cursor, USERS_BY_ID);
+        Specification<User> spec = KeysetSpecifications.after(BY_ID, after == null ? null : List.of(after.getLong(0)));
+        List<User> users = userRepository.findBy(spec, query -> query.sortBy(BY_ID).limit(size).all());
+        return new CursorPage<>(users.stream().map(UserMapper::toDto).toList(),
+                PageCursor.next(users, size, user -> PageCursor.of(USERS_BY_ID, user.getId())));
+    }
+
     @Transactional
     public void deleteUser(long userId) {
         boolean exists = userRepository.existsById(userId);
@@ -0,0 +1,83 @@
+package ru.practicum.ewm.util;
+
+import ru.practicum.ewm.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque keyset pagination token holding the sort keys of the last row of a page, ending with its id. The token is
+ * bound to the ordering it was issued for, so it cannot be replayed against another listing.
+ */
+public record PageCursor(String ordering, List<String> keys) {
+
+    private static final String SEPARATOR = ";";
+
+    public static PageCursor of(String ordering, Object... keys) {
+        return new PageCursor(ordering, Arrays.stream(keys).map(String::valueOf).toList());
+    }
+
+    /**
+     * Decodes a token issued for {@code ordering}. A blank token stands for the first page and yields {@code null}.
+     */
+    public static PageCursor decode(String token, String ordering) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw invalid();
+        }
+        String[] parts = decoded.split(SEPARATOR, -1);
+        if (parts.length < 2 || !parts[0].equals(ordering)) {
+            throw invalid();
+        }
+        return new PageCursor(ordering, List.of(parts).subList(1, parts.length));
+    }
+
+    /**
+     * Returns the token of the page after {@code page}, or {@code null} when {@code page} is not full and thus last.
+     */
+    public static <E> String next(List<E> page, int size, Function<E, PageCursor> cursorOf) {
+        return page.size() < size ? null : cursorOf.apply(page.get(page.size() - 1)).encode();
+    }
+
+    public String encode() {
+        String value = ordering + SEPARATOR + String.join(SEPARATOR, keys);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public long getLong(int index) {
+        try {
+            return Long.parseLong(key(index));
+        } catch (NumberFormatException ex) {
+            throw invalid();
+        }
+    }
+
+    public LocalDateTime getDateTime(int index) {
+        try {
+            return LocalDateTime.parse(key(index));
+        } catch (DateTimeParseException ex) {
+            throw invalid();
+        }
+    }
+
+    private String key(int index) {
+        if (index >= keys.size()) {
+            throw invalid();
+        }
+        return keys.get(index);
+    }
+
+    private static ValidationException invalid() {
+        return new ValidationException("Invalid cursor");
+    }
+}
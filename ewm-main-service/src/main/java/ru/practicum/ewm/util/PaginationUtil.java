@@ -20,8 +20,34 @@ public final class PaginationUtil {
         if (size <= 0) {
             throw new IllegalArgumentException("Parameter 'size' must be greater than 0");
         }
-        int page = from / size;
-        return PageRequest.of(page, size, sort == null ? Sort.unsorted() : sort);
+        return new OffsetPageRequest(from, size, sort == null ? Sort.unsorted() : sort);
     }
-}
 
+    /**
+     * Skips exactly {@code from} rows even when it is not a multiple of the page size.
+     */
+    private static final class OffsetPageRequest extends PageRequest {
+
+        private final long offset;
+
+        private OffsetPageRequest(long offset, int size, Sort sort) {
+            super((int) (offset / size), size, sort);
+            this.offset = offset;
+        }
+
+        @Override
+        public long getOffset() {
+            return offset;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof OffsetPageRequest other && offset == other.offset && super.equals(other);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * super.hashCode() + Long.hashCode(offset);
+        }
+    }
+}
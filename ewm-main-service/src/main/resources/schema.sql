@@ -24,7 +24,9 @@ CREATE TABLE IF NOT EXISTS events (
     request_moderation BOOLEAN NOT NULL DEFAULT TRUE,
     state VARCHAR(16) NOT NULL DEFAULT 'PENDING',
     initiator_id BIGINT NOT NULL REFERENCES users(id),
-    category_id BIGINT NOT NULL REFERENCES categories(id)
+    category_id BIGINT NOT NULL REFERENCES categories(id),
+    views BIGINT NOT NULL DEFAULT 0,
+    confirmed_requests INTEGER NOT NULL DEFAULT 0
 );
 
 CREATE INDEX IF NOT EXISTS idx_events_event_date ON events(event_date);
@@ -32,6 +34,19 @@ CREATE INDEX IF NOT EXISTS idx_events_state ON events(state);
 CREATE INDEX IF NOT EXISTS idx_events_category_id ON events(category_id);
 CREATE INDEX IF NOT EXISTS idx_events_initiator_id ON events(initiator_id);
 
+ALTER TABLE events ADD COLUMN IF NOT EXISTS views BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE events ADD COLUMN IF NOT EXISTS confirmed_requests INTEGER NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_events_views ON events(views DESC, event_date);
+DROP INDEX IF EXISTS idx_events_available_event_date;
+CREATE INDEX IF NOT EXISTS idx_events_created_on_id ON events(created_on DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_events_initiator_created_on_id ON events(initiator_id, created_on DESC, id DESC);
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_events_annotation_trgm ON events USING GIN (lower(annotation) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_events_description_trgm ON events USING GIN (lower(description) gin_trgm_ops);
+
 CREATE TABLE IF NOT EXISTS compilations (
     id BIGSERIAL PRIMARY KEY,
     title VARCHAR(50) NOT NULL UNIQUE,
@@ -57,6 +72,11 @@ CREATE INDEX IF NOT EXISTS idx_requests_event_id ON requests(event_id);
 CREATE INDEX IF NOT EXISTS idx_requests_requester_id ON requests(requester_id);
 CREATE INDEX IF NOT EXISTS idx_requests_status ON requests(status);
 
+CREATE TABLE IF NOT EXISTS schema_migrations (
+    name VARCHAR(64) PRIMARY KEY,
+    applied_on TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
 CREATE TABLE IF NOT EXISTS comments (
     id BIGSERIAL PRIMARY KEY,
     text VARCHAR(1000) NOT NULL,
@@ -69,3 +89,4 @@ CREATE TABLE IF NOT EXISTS comments (
 
 CREATE INDEX IF NOT EXISTS idx_comments_event_status ON comments(event_id, status);
 CREATE INDEX IF NOT EXISTS idx_comments_author ON comments(author_id);
+CREATE INDEX IF NOT EXISTS idx_comments_created_on_id ON comments(created_on DESC, id DESC);
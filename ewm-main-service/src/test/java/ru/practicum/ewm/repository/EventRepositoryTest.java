@@ -0,0 +1,101 @@
+package ru.practicum.ewm.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:schema.sql",
+        "spring.jpa.defer-datasource-initialization=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@ContextConfiguration(classes = EventRepositoryTest.App.class)
+class EventRepositoryTest {
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private long eventId;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.update("INSERT INTO users (email, name) VALUES ('owner@mail.ru', 'owner')");
+        jdbc.update("INSERT INTO categories (name) VALUES ('concerts')");
+        jdbc.update("INSERT INTO events (title, annotation, description, event_date, created_on, location_lat, "
+                + "location_lon, state, initiator_id, category_id) "
+                + "VALUES ('Jazz', 'jazz in the park', 'open air jazz', TIMESTAMP '2024-08-01 19:00:00', "
+                + "TIMESTAMP '2024-07-01 10:00:00', 55.75, 37.61, 'PUBLISHED', "
+                + "(SELECT MAX(id) FROM users), (SELECT MAX(id) FROM categories))");
+        eventId = jdbc.queryForObject("SELECT MAX(id) FROM events", Long.class);
+    }
+
+    @Test
+    void reserveParticipantSlot_stopsAtParticipantLimit() {
+        setParticipants(2, 0);
+
+        assertThat(eventRepository.reserveParticipantSlot(eventId)).isEqualTo(1);
+        assertThat(eventRepository.reserveParticipantSlot(eventId)).isEqualTo(1);
+        assertThat(eventRepository.reserveParticipantSlot(eventId)).isZero();
+        assertThat(confirmedRequests()).isEqualTo(2);
+    }
+
+    @Test
+    void reserveParticipantSlot_neverStops_whenLimitIsZero() {
+        setParticipants(0, 0);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(eventRepository.reserveParticipantSlot(eventId)).isEqualTo(1);
+        }
+        assertThat(confirmedRequests()).isEqualTo(5);
+    }
+
+    @Test
+    void releaseParticipantSlot_neverGoesBelowZero() {
+        setParticipants(2, 1);
+
+        assertThat(eventRepository.releaseParticipantSlot(eventId)).isEqualTo(1);
+        assertThat(eventRepository.releaseParticipantSlot(eventId)).isZero();
+        assertThat(confirmedRequests()).isZero();
+    }
+
+    @Test
+    void releaseParticipantSlot_freesSlotForNextReservation() {
+        setParticipants(1, 1);
+
+        assertThat(eventRepository.reserveParticipantSlot(eventId)).isZero();
+        eventRepository.releaseParticipantSlot(eventId);
+
+        assertThat(eventRepository.reserveParticipantSlot(eventId)).isEqualTo(1);
+        assertThat(confirmedRequests()).isEqualTo(1);
+    }
+
+    private void setParticipants(int limit, int confirmed) {
+        jdbc.update("UPDATE events SET participant_limit = ?, confirmed_requests = ? WHERE id = ?",
+                limit, confirmed, eventId);
+    }
+
+    private int confirmedRequests() {
+        return jdbc.queryForObject("SELECT confirmed_requests FROM events WHERE id = ?", Integer.class, eventId);
+    }
+
+    @SpringBootApplication(scanBasePackages = "none")
+    @EntityScan("ru.practicum.ewm.model")
+    @EnableJpaRepositories("ru.practicum.ewm.repository")
+    static class App {
+    }
+}
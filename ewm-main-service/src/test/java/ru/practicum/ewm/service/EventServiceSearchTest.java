@@ -0,0 +1,292 @@
+package ru.practicum.ewm.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import ru.practicum.ewm.dto.CursorPage;
+import ru.practicum.ewm.dto.EventShortDto;
+import ru.practicum.ewm.exception.ValidationException;
+import ru.practicum.ewm.model.Event;
+import ru.practicum.ewm.repository.CategoryRepository;
+import ru.practicum.ewm.repository.EventRepository;
+import ru.practicum.ewm.repository.UserRepository;
+import ru.practicum.ewm.repository.specification.KeysetSpecifications;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Event listings against H2 in PostgreSQL mode. pg_trgm is not available there, so {@code word_similarity} is
+ * stood in for by {@link #wordSimilarity}.
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:schema.sql",
+        "spring.jpa.defer-datasource-initialization=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@ContextConfiguration(classes = EventServiceSearchTest.App.class)
+public class EventServiceSearchTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 7, 20, 10, 0);
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private EventService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute("CREATE ALIAS IF NOT EXISTS word_similarity FOR '"
+                + EventServiceSearchTest.class.getName() + ".wordSimilarity'");
+        jdbc.update("INSERT INTO users (email, name) VALUES ('owner@mail.ru', 'owner')");
+        jdbc.update("INSERT INTO categories (name) VALUES ('concerts')");
+        service = new EventService(eventRepository, categoryRepository, userRepository, mock(StatsService.class),
+                Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+    }
+
+    @Test
+    void findPublicEvents_ordersByRelevanceThenEventDate() {
+        long partial = event("Partial", "jazzy evening", NOW.plusDays(1));
+        long laterWord = event("Later word", "open air jazz", NOW.plusDays(3));
+        long earlierWord = event("Earlier word", "jazz in the park", NOW.plusDays(2));
+        event("Unrelated", "chess club", NOW.plusDays(1));
+
+        List<EventShortDto> events = service.findPublicEvents("Jazz", null, null, null, null, false,
+                "RELEVANCE", 0, 10);
+
+        assertThat(events).extracting(EventShortDto::getId).containsExactly(earlierWord, laterWord, partial);
+    }
+
+    @Test
+    void findPublicEvents_pagesRelevanceByOffset() {
+        event("Partial", "jazzy evening", NOW.plusDays(1));
+        long laterWord = event("Later word", "open air jazz", NOW.plusDays(3));
+        event("Earlier word", "jazz in the park", NOW.plusDays(2));
+
+        List<EventShortDto> events = service.findPublicEvents("jazz", null, null, null, null, false,
+                "RELEVANCE", 1, 1);
+
+        assertThat(events).extracting(EventShortDto::getId).containsExactly(laterWord);
+    }
+
+    @Test
+    void findPublicEvents_fallsBackToEventDate_whenRelevanceHasNoText() {
+        long later = event("Later", "jazz in the park", NOW.plusDays(3));
+        long earlier = event("Earlier", "chess club", NOW.plusDays(1));
+
+        List<EventShortDto> events = service.findPublicEvents(" ", null, null, null, null, false,
+                "RELEVANCE", 0, 10);
+
+        assertThat(events).extracting(EventShortDto::getId).containsExactly(earlier, later);
+    }
+
+    @Test
+    void findPublicEvents_fillsOnlyAvailablePagesWithEventsThatHaveFreeSlots() {
+        long unlimited = event("Unlimited", "jazz in the park", NOW.plusDays(1));
+        long full = event("Full", "jazz in the park", NOW.plusDays(2));
+        long open = event("Open", "jazz in the park", NOW.plusDays(3));
+        long alsoFull = event("Also full", "jazz in the park", NOW.plusDays(4));
+        long last = event("Last", "jazz in the park", NOW.plusDays(5));
+        setParticipants(full, 2, 2);
+        setParticipants(open, 2, 1);
+        setParticipants(alsoFull, 1, 1);
+
+        List<EventShortDto> first = service.findPublicEvents(null, null, null, null, null, true,
+                "EVENT_DATE", 0, 2);
+        List<EventShortDto> second = service.findPublicEvents(null, null, null, null, null, true,
+                "EVENT_DATE", 2, 2);
+
+        assertThat(first).extracting(EventShortDto::getId).containsExactly(unlimited, open);
+        assertThat(second).extracting(EventShortDto::getId).containsExactly(last);
+    }
+
+    @Test
+    void findPublicEvents_includesFullEvents_whenNotOnlyAvailable() {
+        long full = event("Full", "jazz in the park", NOW.plusDays(1));
+        long open = event("Open", "jazz in the park", NOW.plusDays(2));
+        setParticipants(full, 1, 1);
+
+        List<EventShortDto> events = service.findPublicEvents(null, null, null, null, null, false,
+                "EVENT_DATE", 0, 10);
+
+        assertThat(events).extracting(EventShortDto::getId).containsExactly(full, open);
+    }
+
+    @Test
+    void after_seeksPastLastRowWithinTiedLeadingKey() {
+        LocalDateTime date = NOW.plusDays(1);
+        long first = event("First", "jazz in the park", date);
+        long second = event("Second", "jazz in the park", date);
+        long later = event("Later", "jazz in the park", NOW.plusDays(2));
+        Sort sort = Sort.by(Sort.Order.asc("eventDate"), Sort.Order.asc("id"));
+
+        List<Event> events = eventRepository.findBy(KeysetSpecifications.after(sort, List.of(date, first)),
+                query -> query.sortBy(sort).all());
+
+        assertThat(events).extracting(Event::getId).containsExactly(second, later);
+    }
+
+    @Test
+    void after_followsMixedSortDirections() {
+        long popularEarly = event("Popular early", "jazz in the park", NOW.plusDays(1));
+        long popularLate = event("Popular late", "jazz in the park", NOW.plusDays(2));
+        long quietEarly = event("Quiet early", "jazz in the park", NOW.plusDays(1));
+        long quietLate = event("Quiet late", "jazz in the park", NOW.plusDays(3));
+        setViews(popularEarly, 5);
+        setViews(popularLate, 5);
+        setViews(quietEarly, 3);
+        setViews(quietLate, 3);
+        Sort sort = Sort.by(Sort.Order.desc("views"), Sort.Order.asc("eventDate"), Sort.Order.asc("id"));
+
+        List<Event> events = eventRepository.findBy(
+                KeysetSpecifications.after(sort, List.of(5L, NOW.plusDays(2), popularLate)),
+                query -> query.sortBy(sort).all());
+
+        assertThat(events).extracting(Event::getId).containsExactly(quietEarly, quietLate);
+    }
+
+    @Test
+    void findPublicEvents_walksEventDatePagesByCursor() {
+        LocalDateTime tied = NOW.plusDays(2);
+        List<Long> expected = List.of(
+                event("First", "jazz in the park", NOW.plusDays(1)),
+                event("Tied one", "jazz in the park", tied),
+                event("Tied two", "jazz in the park", tied),
+                event("Tied three", "jazz in the park", tied),
+                event("Last", "jazz in the park", NOW.plusDays(3)));
+
+        List<Long> walked = walkPublicPages("EVENT_DATE", 2);
+
+        assertThat(walked).isEqualTo(expected);
+    }
+
+    @Test
+    void findPublicEvents_walksViewsPagesByCursor() {
+        long quiet = event("Quiet", "jazz in the park", NOW.plusDays(1));
+        long popular = event("Popular", "jazz in the park", NOW.plusDays(3));
+        long tiedEarly = event("Tied early", "jazz in the park", NOW.plusDays(1));
+        long tiedLate = event("Tied late", "jazz in the park", NOW.plusDays(2));
+        setViews(popular, 10);
+        setViews(tiedEarly, 4);
+        setViews(tiedLate, 4);
+        setViews(quiet, 1);
+
+        List<Long> walked = walkPublicPages("VIEWS", 1);
+
+        assertThat(walked).containsExactly(popular, tiedEarly, tiedLate, quiet);
+    }
+
+    @Test
+    void findPublicEvents_rejectsCursorForRelevance() {
+        assertThatThrownBy(() -> service.findPublicEvents("jazz", null, null, null, null, false,
+                "RELEVANCE", "", 10)).isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void findPublicEvents_rejectsCursorOfAnotherOrdering() {
+        event("First", "jazz in the park", NOW.plusDays(1));
+        event("Second", "jazz in the park", NOW.plusDays(2));
+        String cursor = service.findPublicEvents(null, null, null, null, null, false, "EVENT_DATE", "", 1)
+                .nextCursor();
+
+        assertThatThrownBy(() -> service.findPublicEvents(null, null, null, null, null, false,
+                "VIEWS", cursor, 1)).isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void getUserEvents_walksNewestFirstPagesByCursor() {
+        long oldest = event("Oldest", "jazz in the park", NOW.plusDays(1));
+        long tiedLow = event("Tied low", "jazz in the park", NOW.plusDays(1));
+        long tiedHigh = event("Tied high", "jazz in the park", NOW.plusDays(1));
+        setCreatedOn(oldest, NOW.minusDays(3));
+        long userId = jdbc.queryForObject("SELECT MAX(id) FROM users", Long.class);
+
+        CursorPage<EventShortDto> first = service.getUserEvents(userId, "", 2);
+        CursorPage<EventShortDto> second = service.getUserEvents(userId, first.nextCursor(), 2);
+
+        assertThat(first.items()).extracting(EventShortDto::getId).containsExactly(tiedHigh, tiedLow);
+        assertThat(second.items()).extracting(EventShortDto::getId).containsExactly(oldest);
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    /**
+     * 1 when {@code term} is a whole word of {@code text}, 0.5 when it is only part of a word, 0 otherwise.
+     */
+    public static double wordSimilarity(String term, String text) {
+        String value = text.toLowerCase(Locale.ROOT);
+        if (Pattern.compile("\\b" + Pattern.quote(term) + "\\b").matcher(value).find()) {
+            return 1;
+        }
+        return value.contains(term) ? 0.5 : 0;
+    }
+
+    private long event(String title, String annotation, LocalDateTime eventDate) {
+        jdbc.update("INSERT INTO events (title, annotation, description, event_date, created_on, published_on, "
+                        + "location_lat, location_lon, state, initiator_id, category_id) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, 55.75, 37.61, 'PUBLISHED', "
+                        + "(SELECT MAX(id) FROM users), (SELECT MAX(id) FROM categories))",
+                title, annotation, "Description of " + title.toLowerCase(Locale.ROOT), eventDate,
+                NOW.minusDays(1), NOW.minusDays(1));
+        return jdbc.queryForObject("SELECT MAX(id) FROM events", Long.class);
+    }
+
+    private List<Long> walkPublicPages(String sort, int size) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = "";
+        while (cursor != null) {
+            CursorPage<EventShortDto> page = service.findPublicEvents(null, null, null, null, null, false,
+                    sort, cursor, size);
+            page.items().forEach(event -> ids.add(event.getId()));
+            cursor = page.nextCursor();
+        }
+        return ids;
+    }
+
+    private void setViews(long eventId, long views) {
+        jdbc.update("UPDATE events SET views = ? WHERE id = ?", views, eventId);
+    }
+
+    private void setCreatedOn(long eventId, LocalDateTime createdOn) {
+        jdbc.update("UPDATE events SET created_on = ? WHERE id = ?", createdOn, eventId);
+    }
+
+    private void setParticipants(long eventId, int limit, int confirmed) {
+        jdbc.update("UPDATE events SET participant_limit = ?, confirmed_requests = ? WHERE id = ?",
+                limit, confirmed, eventId);
+    }
+
+    @SpringBootApplication(scanBasePackages = "none")
+    @EntityScan("ru.practicum.ewm.model")
+    @EnableJpaRepositories("ru.practicum.ewm.repository")
+    static class App {
+    }
+}
@@ -0,0 +1,113 @@
+package ru.practicum.ewm.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.ewm.MutableClock;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class EventViewsFallbackStoreTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-07-20T10:00:00Z"));
+
+    @Test
+    void countsDistinctIpsExactlyWhileSmall() {
+        EventViewsFallbackStore store = new EventViewsFallbackStore(clock, DataSize.ofMegabytes(1), Duration.ofHours(1));
+
+        store.recordView(1L, "10.0.0.1");
+        store.recordView(1L, "10.0.0.1");
+        store.recordView(1L, "2001:db8::1");
+        store.recordView(1L, "2001:DB8::1");
+
+        assertThat(store.localViews(1L)).isEqualTo(2);
+    }
+
+    @Test
+    void estimatesLargeCardinalitiesWithinBoundedMemory() {
+        EventViewsFallbackStore store = new EventViewsFallbackStore(clock, DataSize.ofMegabytes(1), Duration.ofHours(1));
+
+        for (int i = 0; i < 100_000; i++) {
+            store.recordView(1L, "10.%d.%d.%d".formatted(i >>> 16, (i >>> 8) & 0xff, i & 0xff));
+        }
+
+        assertThat((double) store.localViews(1L)).isCloseTo(100_000, within(10_000.0));
+        assertThat(store.usedBytes()).isLessThan(2_048);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEventsBeyondBudget() {
+        EventViewsFallbackStore store = new EventViewsFallbackStore(clock, DataSize.ofBytes(1_000), Duration.ofHours(1));
+
+        for (long eventId = 1; eventId <= 20; eventId++) {
+            store.recordView(eventId, "10.0.0.1");
+            store.localViews(1L);
+        }
+
+        assertThat(store.usedBytes()).isLessThanOrEqualTo(1_000);
+        assertThat(store.localViews(1L)).isEqualTo(1);
+        assertThat(store.localViews(2L)).isZero();
+    }
+
+    @Test
+    void expiresEntriesAfterTtl() {
+        EventViewsFallbackStore store = new EventViewsFallbackStore(clock, DataSize.ofMegabytes(1), Duration.ofHours(1));
+        store.rememberViews(Map.of(1L, 42L));
+        store.recordView(2L, "10.0.0.1");
+
+        clock.advance(Duration.ofMinutes(61));
+        store.recordView(3L, "10.0.0.1");
+
+        assertThat(store.getViews(List.of(1L, 2L, 3L))).containsEntry(1L, 0L).containsEntry(2L, 0L)
+                .containsEntry(3L, 1L);
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void readsKeepEntriesAliveAndExpiryIgnoresAccessOrder() {
+        EventViewsFallbackStore store = new EventViewsFallbackStore(clock, DataSize.ofMegabytes(1), Duration.ofHours(1));
+        store.rememberViews(Map.of(1L, 5L));
+        clock.advance(Duration.ofMinutes(10));
+        store.rememberViews(Map.of(2L, 7L));
+        clock.advance(Duration.ofMinutes(40));
+        store.getViews(List.of(1L));
+
+        clock.advance(Duration.ofMinutes(25));
+        store.recordView(3L, "10.0.0.1");
+
+        assertThat(store.getViews(List.of(1L, 2L))).containsEntry(1L, 5L).containsEntry(2L, 0L);
+        assertThat(store.size()).isEqualTo(2);
+    }
+
+    @Test
+    void keepsAccountingConsistentUnderConcurrentViews() throws InterruptedException {
+        EventViewsFallbackStore store = new EventViewsFallbackStore(clock, DataSize.ofBytes(4_000), Duration.ofHours(1));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int thread = 0; thread < 4; thread++) {
+            int offset = thread;
+            executor.execute(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    store.recordView((long) (i % 50), "10.0.%d.%d".formatted(offset, i % 200));
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        store.rememberViews(Map.of());
+        assertThat(store.usedBytes()).isLessThanOrEqualTo(4_000);
+        long expected = 0;
+        for (long eventId = 0; eventId < 50; eventId++) {
+            expected += store.localViews(eventId) > 0 ? 1 : 0;
+        }
+        assertThat(store.size()).isEqualTo((int) expected);
+    }
+}
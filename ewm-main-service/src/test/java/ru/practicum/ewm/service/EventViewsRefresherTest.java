@@ -0,0 +1,152 @@
+package ru.practicum.ewm.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.ewm.MutableClock;
+import ru.practicum.ewm.repository.EventRepository;
+import ru.practicum.ewm.repository.projection.EventViewsSnapshot;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventViewsRefresherTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-07-20T10:15:30Z"));
+    private final LocalDateTime now = LocalDateTime.now(clock);
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private StatsService statsService;
+
+    @Mock
+    private ClusterLock clusterLock;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(clusterLock.runExclusively(anyLong(), any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return true;
+        });
+    }
+
+    @Test
+    void refresh_walksPublishedEventsInBatchesAndRaisesStaleCounts() {
+        when(eventRepository.findPublishedViewsAfter(0L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(snapshot(1L, 5L), snapshot(2L, 0L)));
+        when(eventRepository.findPublishedViewsAfter(2L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(snapshot(3L, 7L)));
+        when(statsService.getEventViews(List.of(1L, 2L), now.minusDays(2), now)).thenReturn(Map.of(1L, 5L, 2L, 3L));
+        when(statsService.getEventViews(List.of(3L), now.minusDays(3), now)).thenReturn(Map.of(3L, 9L));
+
+        refresher(2).refresh();
+
+        verify(eventRepository).raiseViews(2L, 3L);
+        verify(eventRepository).raiseViews(3L, 9L);
+        verify(eventRepository, never()).raiseViews(eq(1L), anyLong());
+    }
+
+    @Test
+    void refresh_neverLowersStoredCounts() {
+        when(eventRepository.findPublishedViewsAfter(0L, PageRequest.of(0, 10)))
+                .thenReturn(List.of(snapshot(1L, 5L)));
+        when(statsService.getEventViews(List.of(1L), now.minusDays(1), now)).thenReturn(Map.of(1L, 0L));
+
+        refresher(10).refresh();
+
+        verify(eventRepository, never()).raiseViews(anyLong(), anyLong());
+    }
+
+    @Test
+    void refresh_refreshesOnlyViewedEventsBetweenFullWalks() {
+        EventViewsRefresher refresher = refresher(10);
+        refresher.refresh();
+        clock.advance(Duration.ofMinutes(1));
+        LocalDateTime later = LocalDateTime.now(clock);
+        when(statsService.findViewedEventIds(now.minusMinutes(1), later)).thenReturn(Optional.of(Set.of(3L, 1L)));
+        when(eventRepository.findPublishedViewsByIdIn(List.of(1L, 3L))).thenReturn(List.of(snapshot(3L, 7L)));
+        when(statsService.getEventViews(List.of(3L), now.minusDays(3), later)).thenReturn(Map.of(3L, 8L));
+
+        refresher.refresh();
+
+        verify(eventRepository).raiseViews(3L, 8L);
+        verify(eventRepository, times(1)).findPublishedViewsAfter(anyLong(), any());
+    }
+
+    @Test
+    void refresh_asksForSameWindowAgain_whenViewedEventsAreUnknown() {
+        EventViewsRefresher refresher = refresher(10);
+        refresher.refresh();
+        clock.advance(Duration.ofMinutes(1));
+        when(statsService.findViewedEventIds(eq(now.minusMinutes(1)), any())).thenReturn(Optional.empty());
+        refresher.refresh();
+        clock.advance(Duration.ofMinutes(1));
+
+        refresher.refresh();
+
+        verify(statsService).findViewedEventIds(now.minusMinutes(1), now.plusMinutes(2));
+        verify(eventRepository, never()).findPublishedViewsByIdIn(any());
+    }
+
+    @Test
+    void refresh_walksAllEventsAgain_afterFullRefreshInterval() {
+        EventViewsRefresher refresher = refresher(10);
+        refresher.refresh();
+        clock.advance(Duration.ofHours(1));
+
+        refresher.refresh();
+
+        verify(eventRepository, times(2)).findPublishedViewsAfter(0L, PageRequest.of(0, 10));
+        verify(statsService, never()).findViewedEventIds(any(), any());
+    }
+
+    @Test
+    void refresh_skipsRun_whenAnotherInstanceHoldsTheLock() {
+        doReturn(false).when(clusterLock).runExclusively(anyLong(), any());
+
+        refresher(10).refresh();
+
+        verifyNoInteractions(eventRepository, statsService);
+    }
+
+    private EventViewsRefresher refresher(int batchSize) {
+        return new EventViewsRefresher(eventRepository, statsService, clusterLock, clock, batchSize,
+                Duration.ofHours(1));
+    }
+
+    private EventViewsSnapshot snapshot(long id, long views) {
+        LocalDateTime createdOn = now.minusDays(id);
+        return new EventViewsSnapshot() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getCreatedOn() {
+                return createdOn;
+            }
+
+            @Override
+            public Long getViews() {
+                return views;
+            }
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.ewm.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.stats.client.StatsClient;
+import ru.practicum.stats.client.StatsClientException;
+import ru.practicum.stats.dto.EndpointHitDto;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class HitSpoolReplayerTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private StatsClient statsClient;
+
+    private HitSpool hitSpool;
+
+    @BeforeEach
+    void setUp() {
+        hitSpool = new HitSpool(true, directory.resolve("hits.spool"), DataSize.ofMegabytes(1), false);
+        hitSpool.append(List.of(hit("/events/1")));
+        hitSpool.append(List.of(hit("/events/2")));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        hitSpool.close();
+    }
+
+    @Test
+    void replay_keepsHitsSpooledWhileServerIsUnavailable() {
+        doThrow(new StatsClientException("down", new ResourceAccessException("refused")))
+                .when(statsClient).hitBatch(anyList());
+
+        new HitSpoolReplayer(hitSpool, statsClient, 1).replay();
+
+        verify(statsClient, times(1)).hitBatch(anyList());
+        assertThat(hitSpool.pendingHits()).isEqualTo(2);
+    }
+
+    @Test
+    void replay_dropsRejectedChunkAndContinues() {
+        doThrow(new StatsClientException("bad", new HttpClientErrorException(HttpStatus.BAD_REQUEST)))
+                .doNothing()
+                .when(statsClient).hitBatch(anyList());
+
+        new HitSpoolReplayer(hitSpool, statsClient, 1).replay();
+
+        verify(statsClient, times(2)).hitBatch(anyList());
+        assertThat(hitSpool.pendingHits()).isZero();
+    }
+
+    @Test
+    void replay_retriesThrottledChunk() {
+        doThrow(new StatsClientException("slow down", new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS)))
+                .when(statsClient).hitBatch(anyList());
+
+        new HitSpoolReplayer(hitSpool, statsClient, 1).replay();
+
+        assertThat(hitSpool.pendingHits()).isEqualTo(2);
+    }
+
+    private EndpointHitDto hit(String uri) {
+        return EndpointHitDto.builder()
+                .app("ewm-main-service")
+                .uri(uri)
+                .ip("10.0.0.1")
+                .timestamp(LocalDateTime.of(2024, 7, 20, 10, 0))
+                .build();
+    }
+}
@@ -0,0 +1,146 @@
+package ru.practicum.ewm.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.stats.dto.EndpointHitDto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HitSpoolTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysAppendedBatchesInOrderAndTruncatesWhenDrained() throws IOException {
+        HitSpool spool = spool(DataSize.ofMegabytes(1));
+        spool.append(List.of(hit("/events/1"), hit("/events/2")));
+        spool.append(List.of(hit("/events/3")));
+
+        HitSpool.Chunk first = spool.read(2);
+        spool.acknowledge(first);
+        HitSpool.Chunk second = spool.read(2);
+        spool.acknowledge(second);
+
+        assertThat(first.hits()).extracting(EndpointHitDto::getUri).containsExactly("/events/1", "/events/2");
+        assertThat(second.hits()).extracting(EndpointHitDto::getUri).containsExactly("/events/3");
+        assertThat(spool.read(2)).isNull();
+        assertThat(spool.pendingHits()).isZero();
+        assertThat(Files.size(directory.resolve("hits.spool"))).isZero();
+        spool.close();
+    }
+
+    @Test
+    void keepsUnacknowledgedHitsAcrossRestart() throws IOException {
+        HitSpool spool = spool(DataSize.ofMegabytes(1));
+        spool.append(List.of(hit("/events/1")));
+        spool.append(List.of(hit("/events/2")));
+        spool.acknowledge(spool.read(1));
+        spool.read(1);
+        spool.close();
+
+        HitSpool reopened = spool(DataSize.ofMegabytes(1));
+
+        assertThat(reopened.pendingHits()).isEqualTo(1);
+        assertThat(reopened.read(10).hits()).extracting(EndpointHitDto::getUri).containsExactly("/events/2");
+        reopened.close();
+    }
+
+    @Test
+    void dropsTornTailOnStartup() throws IOException {
+        HitSpool spool = spool(DataSize.ofMegabytes(1));
+        spool.append(List.of(hit("/events/1")));
+        spool.close();
+        long intact = Files.size(directory.resolve("hits.spool"));
+        try (FileChannel channel = FileChannel.open(directory.resolve("hits.spool"), StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 42, 0, 0}));
+        }
+
+        HitSpool reopened = spool(DataSize.ofMegabytes(1));
+
+        assertThat(Files.size(directory.resolve("hits.spool"))).isEqualTo(intact);
+        assertThat(reopened.read(10).hits()).hasSize(1);
+        reopened.close();
+    }
+
+    @Test
+    void rejectsBatchesBeyondMaxSize() throws IOException {
+        HitSpool spool = spool(DataSize.ofBytes(120));
+
+        boolean first = spool.append(List.of(hit("/events/1")));
+        boolean second = spool.append(List.of(hit("/events/2"), hit("/events/3"), hit("/events/4")));
+
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(spool.rejectedHits()).isEqualTo(3);
+        spool.close();
+    }
+
+    @Test
+    void limitsPendingBytesAndCompactsReplayedPrefix() throws IOException {
+        long record = recordSize();
+        HitSpool spool = spool(DataSize.ofBytes(record * 5 / 2));
+        spool.append(List.of(hit("/events/1")));
+        spool.append(List.of(hit("/events/2")));
+        spool.acknowledge(spool.read(1));
+
+        boolean third = spool.append(List.of(hit("/events/3")));
+        spool.acknowledge(spool.read(1));
+
+        assertThat(third).isTrue();
+        assertThat(Files.size(directory.resolve("hits.spool"))).isEqualTo(record);
+        assertThat(Files.readString(directory.resolve("hits.spool.offset"))).isEqualTo("0");
+        assertThat(spool.read(10).hits()).extracting(EndpointHitDto::getUri).containsExactly("/events/3");
+        spool.close();
+
+        HitSpool reopened = spool(DataSize.ofBytes(record * 5 / 2));
+        assertThat(reopened.pendingHits()).isEqualTo(1);
+        reopened.close();
+    }
+
+    @Test
+    void replaysFromStart_whenOffsetFileIsCorrupt() throws IOException {
+        HitSpool spool = spool(DataSize.ofMegabytes(1));
+        spool.append(List.of(hit("/events/1")));
+        spool.append(List.of(hit("/events/2")));
+        spool.acknowledge(spool.read(1));
+        spool.close();
+        Files.writeString(directory.resolve("hits.spool.offset"), "12ab");
+
+        HitSpool reopened = spool(DataSize.ofMegabytes(1));
+
+        assertThat(reopened.pendingHits()).isEqualTo(2);
+        reopened.close();
+    }
+
+    private long recordSize() throws IOException {
+        Path scratch = directory.resolve("scratch.spool");
+        HitSpool spool = new HitSpool(true, scratch, DataSize.ofMegabytes(1), false);
+        spool.append(List.of(hit("/events/0")));
+        spool.close();
+        return Files.size(scratch);
+    }
+
+    private HitSpool spool(DataSize maxSize) {
+        return new HitSpool(true, directory.resolve("hits.spool"), maxSize, false);
+    }
+
+    private EndpointHitDto hit(String uri) {
+        return EndpointHitDto.builder()
+                .app("ewm-main-service")
+                .uri(uri)
+                .ip("10.0.0.1")
+                .timestamp(LocalDateTime.of(2024, 7, 20, 10, 0))
+                .build();
+    }
+}
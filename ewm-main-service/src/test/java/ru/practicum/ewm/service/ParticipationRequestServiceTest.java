@@ -0,0 +1,110 @@
+package ru.practicum.ewm.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.ewm.dto.EventRequestStatusUpdateRequest;
+import ru.practicum.ewm.dto.EventRequestStatusUpdateResult;
+import ru.practicum.ewm.dto.ParticipationRequestDto;
+import ru.practicum.ewm.exception.ConflictException;
+import ru.practicum.ewm.model.*;
+import ru.practicum.ewm.repository.EventRepository;
+import ru.practicum.ewm.repository.ParticipationRequestRepository;
+import ru.practicum.ewm.repository.UserRepository;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ParticipationRequestServiceTest {
+
+    private final Clock clock = Clock.fixed(Instant.parse("2024-07-20T10:15:30Z"), ZoneOffset.UTC);
+
+    @Mock
+    private ParticipationRequestRepository requestRepository;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private ParticipationRequestService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ParticipationRequestService(requestRepository, eventRepository, userRepository, clock);
+    }
+
+    @Test
+    void addRequest_rejectsAutoConfirmedRequestWhenSlotIsTakenConcurrently() {
+        Event event = event(2, false, 1);
+        when(userRepository.existsById(2L)).thenReturn(true);
+        when(eventRepository.findById(10L)).thenReturn(Optional.of(event));
+        when(requestRepository.findByEventIdAndRequesterId(10L, 2L)).thenReturn(Optional.empty());
+        when(eventRepository.reserveParticipantSlot(10L)).thenReturn(0);
+
+        assertThatThrownBy(() -> service.addRequest(2L, 10L)).isInstanceOf(ConflictException.class);
+        verify(requestRepository, never()).save(any());
+    }
+
+    @Test
+    void cancelRequest_releasesSlotOfConfirmedRequest() {
+        ParticipationRequest request = request(5L, event(2, false, 1), RequestStatus.CONFIRMED);
+        when(requestRepository.findByIdAndRequesterId(5L, 2L)).thenReturn(Optional.of(request));
+        when(requestRepository.save(request)).thenReturn(request);
+
+        ParticipationRequestDto dto = service.cancelRequest(2L, 5L);
+
+        assertThat(dto.getStatus()).isEqualTo(RequestStatus.CANCELED);
+        verify(eventRepository).releaseParticipantSlot(10L);
+    }
+
+    @Test
+    void updateEventRequests_confirmsUntilLimitThenRejects() {
+        Event event = event(2, true, 0);
+        ParticipationRequest first = request(5L, event, RequestStatus.PENDING);
+        ParticipationRequest second = request(6L, event, RequestStatus.PENDING);
+        when(eventRepository.findById(10L)).thenReturn(Optional.of(event));
+        when(requestRepository.findAllByIdIn(List.of(5L, 6L))).thenReturn(List.of(first, second));
+        when(eventRepository.reserveParticipantSlot(10L)).thenReturn(1, 0);
+
+        EventRequestStatusUpdateResult result = service.updateEventRequests(1L, 10L,
+                new EventRequestStatusUpdateRequest(List.of(5L, 6L), RequestUpdateStatus.CONFIRMED));
+
+        assertThat(result.getConfirmedRequests()).extracting(ParticipationRequestDto::getId).containsExactly(5L);
+        assertThat(result.getRejectedRequests()).extracting(ParticipationRequestDto::getId).containsExactly(6L);
+    }
+
+    private Event event(int participantLimit, boolean moderation, int confirmed) {
+        return Event.builder()
+                .id(10L)
+                .initiator(User.builder().id(1L).build())
+                .state(EventState.PUBLISHED)
+                .participantLimit(participantLimit)
+                .requestModeration(moderation)
+                .confirmedRequests(confirmed)
+                .build();
+    }
+
+    private ParticipationRequest request(long id, Event event, RequestStatus status) {
+        return ParticipationRequest.builder()
+                .id(id)
+                .event(event)
+                .requester(User.builder().id(2L).build())
+                .created(LocalDateTime.now(clock))
+                .status(status)
+                .build();
+    }
+}
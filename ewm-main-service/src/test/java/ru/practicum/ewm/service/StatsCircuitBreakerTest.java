@@ -0,0 +1,69 @@
+package ru.practicum.ewm.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.ewm.MutableClock;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatsCircuitBreakerTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-07-20T10:00:00Z"));
+    private final StatsCircuitBreaker breaker = new StatsCircuitBreaker(clock, 2, Duration.ofSeconds(30), 1);
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void halfOpenAllowsSingleProbeAndClosesOnSuccess() {
+        breaker.onFailure();
+        breaker.onFailure();
+        clock.advance(Duration.ofSeconds(30));
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+        breaker.onSuccess();
+
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void failedProbeReopensCircuit() {
+        breaker.onFailure();
+        breaker.onFailure();
+        clock.advance(Duration.ofSeconds(31));
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.OPEN);
+        clock.advance(Duration.ofSeconds(29));
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void failuresWhileOpenDoNotExtendOpenPeriod() {
+        breaker.onFailure();
+        breaker.onFailure();
+        clock.advance(Duration.ofSeconds(20));
+
+        breaker.onFailure();
+        clock.advance(Duration.ofSeconds(10));
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.HALF_OPEN);
+    }
+}
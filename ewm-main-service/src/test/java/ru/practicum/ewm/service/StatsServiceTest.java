@@ -8,19 +8,30 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.ewm.MutableClock;
 import ru.practicum.stats.client.StatsClient;
 import ru.practicum.stats.client.StatsClientException;
 import ru.practicum.stats.dto.EndpointHitDto;
 import ru.practicum.stats.dto.ViewStatsDto;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -35,11 +46,16 @@ class StatsServiceTest {
     @Mock
     private HttpServletRequest request;
 
+    @Mock
+    private HitSpool hitSpool;
+
     private StatsService statsService;
 
     @BeforeEach
     void setUp() {
-        statsService = new StatsService(statsClient, clock, "ewm-main-service");
+        statsService = new StatsService(statsClient, clock, "ewm-main-service",
+                new StatsCircuitBreaker(clock, 2, Duration.ofSeconds(30), 1), new EventViewsFallbackStore(clock, DataSize.ofMegabytes(1), Duration.ofHours(1)),
+                hitSpool);
     }
 
     @Test
@@ -68,9 +84,8 @@ class StatsServiceTest {
     @Test
     @DisplayName("getEventViews returns map of hits keyed by event id")
     void getEventViewsReturnsHits() {
-        when(statsClient.getStats(any(), any(), anyList(), eq(true))).thenReturn(List.of(
-                ViewStatsDto.builder().app("ewm-main-service").uri("/events/1").hits(5).build()
-        ));
+        when(statsClient.getViews(anyCollection(), eq("/events/{id}"), any(), any(), eq(true)))
+                .thenReturn(Map.of(1L, 5L, 2L, 0L));
 
         Map<Long, Long> result = statsService.getEventViews(List.of(1L, 2L),
                 LocalDateTime.now(clock).minusDays(1),
@@ -84,7 +99,7 @@ class StatsServiceTest {
     @DisplayName("getEventViews returns zeros when client fails")
     void getEventViewsHandlesException() {
         doThrow(new StatsClientException("fail", new RuntimeException()))
-                .when(statsClient).getStats(any(), any(), anyList(), eq(true));
+                .when(statsClient).getViews(anyCollection(), anyString(), any(), any(), eq(true));
 
         Map<Long, Long> result = statsService.getEventViews(List.of(1L, 2L),
                 LocalDateTime.now(clock).minusDays(1),
@@ -93,4 +108,143 @@ class StatsServiceTest {
         assertThat(result).containsEntry(1L, 0L);
         assertThat(result).containsEntry(2L, 0L);
     }
+
+    @Test
+    @DisplayName("getEventViews serves fallback store without calling client while circuit is open")
+    void getEventViewsUsesFallbackWhenCircuitOpen() {
+        when(statsClient.getViews(anyCollection(), anyString(), any(), any(), eq(true)))
+                .thenReturn(Map.of(1L, 7L))
+                .thenThrow(new StatsClientException("timeout", new RuntimeException()));
+        LocalDateTime start = LocalDateTime.now(clock).minusDays(1);
+        LocalDateTime end = LocalDateTime.now(clock);
+
+        statsService.getEventViews(List.of(1L), start, end);
+        statsService.getEventViews(List.of(1L), start, end);
+        statsService.getEventViews(List.of(1L), start, end);
+        Map<Long, Long> result = statsService.getEventViews(List.of(1L, 2L), start, end);
+
+        assertThat(result).containsEntry(1L, 7L).containsEntry(2L, 0L);
+        verify(statsClient, times(3)).getViews(anyCollection(), anyString(), any(), any(), eq(true));
+    }
+
+    @Test
+    @DisplayName("unexpected client errors count as failures and release the half-open probe")
+    void getEventViewsRecordsFailureForUnexpectedException() {
+        MutableClock mutableClock = new MutableClock(clock.instant());
+        StatsCircuitBreaker breaker = new StatsCircuitBreaker(mutableClock, 2, Duration.ofSeconds(30), 1);
+        StatsService service = new StatsService(statsClient, mutableClock, "ewm-main-service", breaker,
+                new EventViewsFallbackStore(mutableClock, DataSize.ofMegabytes(1), Duration.ofHours(1)), hitSpool);
+        when(statsClient.getViews(anyCollection(), anyString(), any(), any(), eq(true)))
+                .thenThrow(new IllegalStateException("broken response"))
+                .thenThrow(new IllegalStateException("broken response"))
+                .thenThrow(new IllegalStateException("broken response"))
+                .thenReturn(Map.of(1L, 3L));
+        LocalDateTime start = LocalDateTime.now(clock).minusDays(1);
+        LocalDateTime end = LocalDateTime.now(clock);
+
+        assertThatThrownBy(() -> service.getEventViews(List.of(1L), start, end))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> service.getEventViews(List.of(1L), start, end))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.OPEN);
+        mutableClock.advance(Duration.ofSeconds(30));
+        assertThatThrownBy(() -> service.getEventViews(List.of(1L), start, end))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.OPEN);
+        mutableClock.advance(Duration.ofSeconds(30));
+
+        assertThat(service.getEventViews(List.of(1L), start, end)).containsEntry(1L, 3L);
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("unexpected errors while finding viewed events count as failures")
+    void findViewedEventIdsRecordsFailureForUnexpectedException() {
+        LocalDateTime start = LocalDateTime.of(2024, 7, 20, 10, 0);
+        when(statsClient.getStats(any(), any(), anyList(), anyBoolean()))
+                .thenThrow(new IllegalStateException("broken response"));
+
+        assertThatThrownBy(() -> statsService.findViewedEventIds(start, start.plusMinutes(1)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> statsService.findViewedEventIds(start, start.plusMinutes(1)))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(statsService.findViewedEventIds(start, start.plusMinutes(1))).isEmpty();
+        verify(statsClient, times(2)).getStats(any(), any(), anyList(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("concurrent getEventViews calls for the same key share one stats request")
+    void getEventViewsCoalescesConcurrentCalls() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(statsClient.getViews(anyCollection(), anyString(), any(), any(), eq(true))).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Map.of(1L, 3L);
+        });
+        LocalDateTime start = LocalDateTime.now(clock).minusDays(1);
+        LocalDateTime end = LocalDateTime.now(clock);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<Map<Long, Long>> leader = executor.submit(() -> statsService.getEventViews(List.of(1L), start, end));
+            assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+            List<Thread> waiting = new CopyOnWriteArrayList<>();
+            List<Future<Map<Long, Long>>> followers = List.of(
+                    executor.submit(() -> {
+                        waiting.add(Thread.currentThread());
+                        return statsService.getEventViews(List.of(1L), start, end.plusNanos(1000));
+                    }),
+                    executor.submit(() -> {
+                        waiting.add(Thread.currentThread());
+                        return statsService.getEventViews(Set.of(1L), start, end);
+                    })
+            );
+            awaitParked(waiting, 2);
+            release.countDown();
+
+            assertThat(leader.get(5, TimeUnit.SECONDS)).containsEntry(1L, 3L);
+            for (Future<Map<Long, Long>> follower : followers) {
+                assertThat(follower.get(5, TimeUnit.SECONDS)).containsEntry(1L, 3L);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(statsClient, times(1)).getViews(anyCollection(), anyString(), any(), any(), eq(true));
+    }
+
+    @Test
+    @DisplayName("viewed event ids are read from event page stats")
+    void findViewedEventIdsParsesEventUris() {
+        LocalDateTime start = LocalDateTime.of(2024, 7, 20, 10, 0);
+        LocalDateTime end = start.plusMinutes(1);
+        when(statsClient.getStats(start, end, List.of("/events/*"), false)).thenReturn(List.of(
+                new ViewStatsDto("ewm-main-service", "/events/7", 2),
+                new ViewStatsDto("ewm-main-service", "/events/12", 1),
+                new ViewStatsDto("ewm-main-service", "/events/abc", 1)));
+
+        assertThat(statsService.findViewedEventIds(start, end)).contains(Set.of(7L, 12L));
+    }
+
+    @Test
+    @DisplayName("viewed event ids are unknown while stats are unavailable")
+    void findViewedEventIdsIsEmptyWhenStatsFail() {
+        LocalDateTime start = LocalDateTime.of(2024, 7, 20, 10, 0);
+        when(statsClient.getStats(any(), any(), anyList(), anyBoolean()))
+                .thenThrow(new StatsClientException("down", null));
+
+        assertThat(statsService.findViewedEventIds(start, start.plusMinutes(1))).isEmpty();
+    }
+
+    private static void awaitParked(List<Thread> threads, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            if (threads.size() == expected
+                    && threads.stream().allMatch(thread -> thread.getState() == Thread.State.WAITING)) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("Followers did not join the in-flight call");
+    }
 }
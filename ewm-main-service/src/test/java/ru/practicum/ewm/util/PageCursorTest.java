@@ -0,0 +1,61 @@
+package ru.practicum.ewm.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.ewm.exception.ValidationException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageCursorTest {
+
+    @Test
+    @DisplayName("cursor round-trips its sort keys")
+    void cursorRoundTrips() {
+        LocalDateTime createdOn = LocalDateTime.of(2024, 5, 1, 12, 0, 0, 123_000_000);
+        String token = PageCursor.of("events.created", createdOn, 42L).encode();
+
+        PageCursor cursor = PageCursor.decode(token, "events.created");
+
+        assertEquals(createdOn, cursor.getDateTime(0));
+        assertEquals(42L, cursor.getLong(1));
+    }
+
+    @Test
+    @DisplayName("blank cursor stands for the first page")
+    void blankCursorIsFirstPage() {
+        assertNull(PageCursor.decode("", "users"));
+        assertNull(PageCursor.decode(null, "users"));
+    }
+
+    @Test
+    @DisplayName("cursor issued for another ordering is rejected")
+    void cursorForOtherOrderingIsRejected() {
+        String token = PageCursor.of("users", 7L).encode();
+
+        assertThrows(ValidationException.class, () -> PageCursor.decode(token, "comments"));
+    }
+
+    @Test
+    @DisplayName("malformed cursor is rejected")
+    void malformedCursorIsRejected() {
+        assertThrows(ValidationException.class, () -> PageCursor.decode("not base64!", "users"));
+        String token = PageCursor.of("users", "abc").encode();
+        assertThrows(ValidationException.class, () -> PageCursor.decode(token, "users").getLong(0));
+        assertThrows(ValidationException.class, () -> PageCursor.decode(token, "users").getLong(1));
+    }
+
+    @Test
+    @DisplayName("next cursor is issued only for full pages")
+    void nextCursorOnlyForFullPages() {
+        assertNull(PageCursor.next(List.of(1L), 2, id -> PageCursor.of("users", id)));
+
+        String next = PageCursor.next(List.of(1L, 2L), 2, id -> PageCursor.of("users", id));
+
+        assertEquals(2L, PageCursor.decode(next, "users").getLong(0));
+    }
+}
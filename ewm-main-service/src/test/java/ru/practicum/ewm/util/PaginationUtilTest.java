@@ -17,6 +17,14 @@ class PaginationUtilTest {
         assertEquals(10, pageable.getPageSize());
     }
 
+    @Test
+    @DisplayName("offsetPageable keeps offsets that are not a multiple of size")
+    void offsetPageableKeepsExactOffset() {
+        Pageable pageable = PaginationUtil.offsetPageable(15, 10);
+        assertEquals(15, pageable.getOffset());
+        assertEquals(10, pageable.getPageSize());
+    }
+
     @Test
     @DisplayName("offsetPageable rejects negative from")
     void offsetPageableRejectsNegativeFrom() {
@@ -24,7 +24,9 @@ CREATE TABLE IF NOT EXISTS events (
     request_moderation BOOLEAN NOT NULL DEFAULT TRUE,
     state VARCHAR(16) NOT NULL DEFAULT 'PENDING',
     initiator_id BIGINT NOT NULL REFERENCES users(id),
-    category_id BIGINT NOT NULL REFERENCES categories(id)
+    category_id BIGINT NOT NULL REFERENCES categories(id),
+    views BIGINT NOT NULL DEFAULT 0,
+    confirmed_requests INTEGER NOT NULL DEFAULT 0
 );
 
 CREATE INDEX IF NOT EXISTS idx_events_event_date ON events(event_date);
@@ -32,6 +34,10 @@ CREATE INDEX IF NOT EXISTS idx_events_state ON events(state);
 CREATE INDEX IF NOT EXISTS idx_events_category_id ON events(category_id);
 CREATE INDEX IF NOT EXISTS idx_events_initiator_id ON events(initiator_id);
 
+CREATE INDEX IF NOT EXISTS idx_events_views ON events(views DESC, event_date);
+CREATE INDEX IF NOT EXISTS idx_events_created_on_id ON events(created_on DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_events_initiator_created_on_id ON events(initiator_id, created_on DESC, id DESC);
+
 CREATE TABLE IF NOT EXISTS compilations (
     id BIGSERIAL PRIMARY KEY,
     title VARCHAR(128) NOT NULL UNIQUE,
@@ -56,3 +62,8 @@ CREATE TABLE IF NOT EXISTS requests (
 CREATE INDEX IF NOT EXISTS idx_requests_event_id ON requests(event_id);
 CREATE INDEX IF NOT EXISTS idx_requests_requester_id ON requests(requester_id);
 CREATE INDEX IF NOT EXISTS idx_requests_status ON requests(status);
+
+CREATE TABLE IF NOT EXISTS schema_migrations (
+    name VARCHAR(64) PRIMARY KEY,
+    applied_on TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
@@ -0,0 +1,189 @@
+package ru.practicum.stats.client;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.stats.dto.EndpointHitDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+@Slf4j
+public class BufferedHitSender implements AutoCloseable {
+
+    private final Consumer<List<EndpointHitDto>> batchSink;
+    private final HitBufferSettings settings;
+    private final FailedHitHandler failedHitHandler;
+    private final BlockingQueue<EndpointHitDto> queue;
+    private final Thread flusher;
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final ReadWriteLock lifecycle = new ReentrantReadWriteLock();
+    private volatile boolean closed;
+
+    public BufferedHitSender(Consumer<List<EndpointHitDto>> batchSink, HitBufferSettings settings) {
+        this(batchSink, settings, FailedHitHandler.NONE);
+    }
+
+    public BufferedHitSender(Consumer<List<EndpointHitDto>> batchSink,
+                             HitBufferSettings settings,
+                             FailedHitHandler failedHitHandler) {
+        this.failedHitHandler = Objects.requireNonNull(failedHitHandler, "failedHitHandler must not be null");
+        this.batchSink = Objects.requireNonNull(batchSink, "batchSink must not be null");
+        this.settings = Objects.requireNonNull(settings, "settings must not be null");
+        if (settings.getCapacity() <= 0 || settings.getFlushSize() <= 0) {
+            throw new IllegalArgumentException("Buffer capacity and flush size must be positive");
+        }
+        if (settings.getFlushInterval().isNegative() || settings.getFlushInterval().isZero()) {
+            throw new IllegalArgumentException("Flush interval must be positive");
+        }
+        this.queue = new ArrayBlockingQueue<>(settings.getCapacity());
+        this.flusher = new Thread(this::runFlushLoop, "stats-hit-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Queues the hit for the flusher. Enqueueing happens under the read side of {@link #lifecycle}, so once
+     * {@link #close()} has taken the write side no hit can slip into the queue after the final drain.
+     */
+    public boolean submit(EndpointHitDto hit) {
+        Objects.requireNonNull(hit, "hit must not be null");
+        boolean accepted = false;
+        lifecycle.readLock().lock();
+        try {
+            if (!closed) {
+                accepted = enqueue(hit);
+            }
+        } finally {
+            lifecycle.readLock().unlock();
+        }
+        return accepted || handOffOrDrop(hit);
+    }
+
+    public HitSenderMetrics metrics() {
+        return new HitSenderMetrics(sent.get(), dropped.get(), failed.get(), queue.size());
+    }
+
+    /**
+     * Stops accepting hits and sends what is still queued once the flusher has exited. If the flusher is still busy
+     * after the shutdown timeout, the queued hits are handed to the {@link FailedHitHandler} instead of being sent
+     * concurrently with it.
+     */
+    @Override
+    public void close() {
+        lifecycle.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            lifecycle.writeLock().unlock();
+        }
+        flusher.interrupt();
+        try {
+            flusher.join(settings.getShutdownTimeout().toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        List<EndpointHitDto> batch = new ArrayList<>(settings.getFlushSize());
+        if (flusher.isAlive()) {
+            queue.drainTo(batch);
+            log.warn("Hit flusher did not stop in time, handing off {} queued endpoint hits", batch.size());
+            if (!batch.isEmpty() && !handOff(List.copyOf(batch))) {
+                dropped.addAndGet(batch.size());
+            }
+            return;
+        }
+        while (queue.drainTo(batch, settings.getFlushSize()) > 0) {
+            send(batch);
+        }
+    }
+
+    private boolean enqueue(EndpointHitDto hit) {
+        if (settings.getOverflowPolicy() != OverflowPolicy.BLOCK) {
+            return queue.offer(hit);
+        }
+        try {
+            return queue.offer(hit, settings.getBlockTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void runFlushLoop() {
+        List<EndpointHitDto> batch = new ArrayList<>(settings.getFlushSize());
+        long intervalNanos = settings.getFlushInterval().toNanos();
+        while (!closed) {
+            try {
+                EndpointHitDto first = queue.poll(intervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch, System.nanoTime() + intervalNanos);
+            } catch (InterruptedException ex) {
+                log.debug("Hit flusher interrupted, {} hits in the current batch", batch.size());
+            }
+            send(batch);
+        }
+    }
+
+    private void fillBatch(List<EndpointHitDto> batch, long deadline) throws InterruptedException {
+        int flushSize = settings.getFlushSize();
+        while (batch.size() < flushSize && !closed) {
+            queue.drainTo(batch, flushSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= flushSize || remaining <= 0) {
+                return;
+            }
+            EndpointHitDto next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private boolean handOffOrDrop(EndpointHitDto hit) {
+        if (handOff(List.of(hit))) {
+            return true;
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    private boolean handOff(List<EndpointHitDto> hits) {
+        try {
+            return failedHitHandler.handle(hits);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to hand off {} undelivered endpoint hits: {}", hits.size(), ex.getMessage());
+            return false;
+        }
+    }
+
+    private void send(List<EndpointHitDto> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            batchSink.accept(List.copyOf(batch));
+            sent.addAndGet(batch.size());
+        } catch (RuntimeException ex) {
+            failed.addAndGet(batch.size());
+            log.warn("Failed to send batch of {} endpoint hits: {}", batch.size(), ex.getMessage());
+            handOff(List.copyOf(batch));
+        } finally {
+            batch.clear();
+        }
+    }
+}
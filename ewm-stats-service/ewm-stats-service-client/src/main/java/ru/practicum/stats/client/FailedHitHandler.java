@@ -0,0 +1,17 @@
+package ru.practicum.stats.client;
+
+import ru.practicum.stats.dto.EndpointHitDto;
+
+import java.util.List;
+
+/**
+ * Receives hits the client could not deliver: batches rejected by the stats server and hits that did not fit
+ * into the send buffer. Returns {@code false} when the hits could not be kept either.
+ */
+@FunctionalInterface
+public interface FailedHitHandler {
+
+    FailedHitHandler NONE = hits -> false;
+
+    boolean handle(List<EndpointHitDto> hits);
+}
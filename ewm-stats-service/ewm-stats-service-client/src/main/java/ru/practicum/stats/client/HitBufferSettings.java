@@ -0,0 +1,24 @@
+package ru.practicum.stats.client;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+@Value
+@Builder
+public class HitBufferSettings {
+
+    @Builder.Default
+    int capacity = 10_000;
+    @Builder.Default
+    int flushSize = 200;
+    @Builder.Default
+    Duration flushInterval = Duration.ofSeconds(1);
+    @Builder.Default
+    OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+    @Builder.Default
+    Duration blockTimeout = Duration.ofMillis(100);
+    @Builder.Default
+    Duration shutdownTimeout = Duration.ofSeconds(5);
+}
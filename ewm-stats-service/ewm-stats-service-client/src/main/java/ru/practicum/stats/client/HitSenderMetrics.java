@@ -0,0 +1,14 @@
+package ru.practicum.stats.client;
+
+import lombok.Value;
+
+@Value
+public class HitSenderMetrics {
+
+    public static final HitSenderMetrics EMPTY = new HitSenderMetrics(0, 0, 0, 0);
+
+    long sent;
+    long dropped;
+    long failed;
+    int queued;
+}
@@ -0,0 +1,7 @@
+package ru.practicum.stats.client;
+
+public enum HttpTransport {
+    SIMPLE,
+    HTTP1_POOLED,
+    HTTP2
+}
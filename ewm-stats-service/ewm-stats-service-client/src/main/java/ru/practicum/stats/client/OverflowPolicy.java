@@ -0,0 +1,6 @@
+package ru.practicum.stats.client;
+
+public enum OverflowPolicy {
+    DROP,
+    BLOCK
+}
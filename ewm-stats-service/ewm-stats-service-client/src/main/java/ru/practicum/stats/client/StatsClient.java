@@ -1,41 +1,90 @@
 package ru.practicum.stats.client;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 import ru.practicum.stats.dto.EndpointHitDto;
+import ru.practicum.stats.dto.StatsBinaryCodec;
 import ru.practicum.stats.dto.StatsConstants;
 import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.dto.ViewsRequestDto;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
-public class StatsClient {
+public class StatsClient implements AutoCloseable {
 
     private static final DateTimeFormatter FORMATTER =
             DateTimeFormatter.ofPattern(StatsConstants.DATE_TIME_FORMAT);
+    private static final MediaType BINARY = MediaType.parseMediaType(StatsBinaryCodec.MEDIA_TYPE);
+    private static final MediaType JSON_FALLBACK = new MediaType(MediaType.APPLICATION_JSON, Map.of("q", "0.1"));
+    private static final ParameterizedTypeReference<Map<Long, Long>> VIEWS_TYPE = new ParameterizedTypeReference<>() {
+    };
 
     private final RestTemplate restTemplate;
     private final String baseUrl;
+    private final BufferedHitSender hitSender;
+    private final WireFormat wireFormat;
 
     public StatsClient(@Value("${stats-service.url:http://localhost:9090}") String baseUrl) {
         this(new RestTemplate(), baseUrl);
     }
 
     public StatsClient(RestTemplate restTemplate, String baseUrl) {
+        this(restTemplate, baseUrl, null);
+    }
+
+    public StatsClient(RestTemplate restTemplate, String baseUrl, HitBufferSettings hitBufferSettings) {
+        this(restTemplate, baseUrl, hitBufferSettings, WireFormat.JSON);
+    }
+
+    public StatsClient(RestTemplate restTemplate,
+                       String baseUrl,
+                       HitBufferSettings hitBufferSettings,
+                       WireFormat wireFormat) {
+        this(restTemplate, baseUrl, hitBufferSettings, wireFormat, FailedHitHandler.NONE);
+    }
+
+    public StatsClient(RestTemplate restTemplate,
+                       String baseUrl,
+                       HitBufferSettings hitBufferSettings,
+                       WireFormat wireFormat,
+                       FailedHitHandler failedHitHandler) {
+        this.wireFormat = Objects.requireNonNull(wireFormat, "wireFormat must not be null");
         this.restTemplate = Objects.requireNonNull(restTemplate, "restTemplate must not be null");
         this.baseUrl = normalizeBaseUrl(baseUrl);
+        this.hitSender = hitBufferSettings == null
+                ? null
+                : new BufferedHitSender(this::hitBatch, hitBufferSettings, failedHitHandler);
     }
 
     public void hit(EndpointHitDto endpointHitDto) {
         Objects.requireNonNull(endpointHitDto, "endpointHitDto must not be null");
 
+        if (hitSender != null) {
+            hitSender.submit(endpointHitDto);
+            return;
+        }
         try {
             restTemplate.postForEntity(baseUrl + "/hit", endpointHitDto, Void.class);
         } catch (RestClientException ex) {
@@ -43,6 +92,41 @@ public class StatsClient {
         }
     }
 
+    public void hitBatch(List<EndpointHitDto> endpointHitDtos) {
+        Objects.requireNonNull(endpointHitDtos, "endpointHitDtos must not be null");
+        if (endpointHitDtos.isEmpty()) {
+            return;
+        }
+
+        try {
+            if (wireFormat == WireFormat.BINARY) {
+                HttpHeaders headers = new HttpHeaders();
+                headers.setContentType(BINARY);
+                restTemplate.postForEntity(baseUrl + "/hit/batch",
+                        new HttpEntity<>(StatsBinaryCodec.encodeHits(endpointHitDtos), headers), Void.class);
+                return;
+            }
+            restTemplate.postForEntity(baseUrl + "/hit/batch", endpointHitDtos, Void.class);
+        } catch (RestClientException ex) {
+            throw new StatsClientException("Failed to register batch of endpoint hits", ex);
+        }
+    }
+
+    public boolean isBuffered() {
+        return hitSender != null;
+    }
+
+    public HitSenderMetrics getHitSenderMetrics() {
+        return hitSender == null ? HitSenderMetrics.EMPTY : hitSender.metrics();
+    }
+
+    @Override
+    public void close() {
+        if (hitSender != null) {
+            hitSender.close();
+        }
+    }
+
     public List<ViewStatsDto> getStats(LocalDateTime start,
                                        LocalDateTime end,
                                        List<String> uris,
@@ -66,6 +150,9 @@ public class StatsClient {
         String uri = uriBuilder.encode().toUriString();
 
         try {
+            if (wireFormat == WireFormat.BINARY) {
+                return getBinaryStats(uri);
+            }
             ResponseEntity<ViewStatsDto[]> response = restTemplate.getForEntity(uri, ViewStatsDto[].class);
             ViewStatsDto[] body = response.getBody();
             if (body == null) {
@@ -77,6 +164,104 @@ public class StatsClient {
         }
     }
 
+    public Map<Long, Long> getViews(Collection<Long> ids,
+                                    String uriTemplate,
+                                    LocalDateTime start,
+                                    LocalDateTime end,
+                                    boolean unique) {
+        Objects.requireNonNull(ids, "ids must not be null");
+        Objects.requireNonNull(uriTemplate, "uriTemplate must not be null");
+        Objects.requireNonNull(start, "start must not be null");
+        Objects.requireNonNull(end, "end must not be null");
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("End must not be before start");
+        }
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        List<Long> idList = List.copyOf(ids);
+        Map<Long, Long> views = new HashMap<>();
+        for (int from = 0; from < idList.size(); from += ViewsRequestDto.MAX_IDS) {
+            ViewsRequestDto request = ViewsRequestDto.builder()
+                    .start(start)
+                    .end(end)
+                    .uriTemplate(uriTemplate)
+                    .ids(idList.subList(from, Math.min(idList.size(), from + ViewsRequestDto.MAX_IDS)))
+                    .unique(unique)
+                    .build();
+            try {
+                ResponseEntity<Map<Long, Long>> response = restTemplate.exchange(baseUrl + "/stats/views",
+                        HttpMethod.POST, new HttpEntity<>(request), VIEWS_TYPE);
+                if (response.getBody() != null) {
+                    views.putAll(response.getBody());
+                }
+            } catch (RestClientException ex) {
+                throw new StatsClientException("Failed to retrieve views", ex);
+            }
+        }
+        return views;
+    }
+
+    private List<ViewStatsDto> getBinaryStats(String uri) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(BINARY, JSON_FALLBACK));
+        ResponseEntity<byte[]> response = restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<>(headers),
+                byte[].class);
+        MediaType contentType = response.getHeaders().getContentType();
+        byte[] body = response.getBody();
+        if (contentType != null && MediaType.APPLICATION_JSON.isCompatibleWith(contentType)) {
+            return readJsonStats(body, contentType);
+        }
+        if (contentType == null || !BINARY.isCompatibleWith(contentType)) {
+            throw new StatsClientException("Unexpected statistics content type: " + contentType, null);
+        }
+        if (body == null) {
+            return Collections.emptyList();
+        }
+        try {
+            return StatsBinaryCodec.decodeStats(body);
+        } catch (IllegalArgumentException ex) {
+            throw new StatsClientException("Malformed statistics payload", ex);
+        }
+    }
+
+    /**
+     * Decodes a JSON answer to a binary request (a server that does not speak the binary format picks the JSON
+     * fallback) with the converters of the RestTemplate.
+     */
+    @SuppressWarnings("unchecked")
+    private List<ViewStatsDto> readJsonStats(byte[] body, MediaType contentType) {
+        if (body == null || body.length == 0) {
+            return Collections.emptyList();
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        HttpInputMessage message = new HttpInputMessage() {
+            @Override
+            public InputStream getBody() {
+                return new ByteArrayInputStream(body);
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+        for (HttpMessageConverter<?> converter : restTemplate.getMessageConverters()) {
+            if (converter.canRead(ViewStatsDto[].class, contentType)) {
+                try {
+                    ViewStatsDto[] stats = ((HttpMessageConverter<ViewStatsDto[]>) converter)
+                            .read(ViewStatsDto[].class, message);
+                    return stats == null ? Collections.emptyList() : Arrays.stream(stats).toList();
+                } catch (IOException | HttpMessageNotReadableException ex) {
+                    throw new StatsClientException("Malformed statistics payload", ex);
+                }
+            }
+        }
+        throw new StatsClientException("No converter for statistics content type: " + contentType, null);
+    }
+
     private String normalizeBaseUrl(String url) {
         Objects.requireNonNull(url, "baseUrl must not be null");
         return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
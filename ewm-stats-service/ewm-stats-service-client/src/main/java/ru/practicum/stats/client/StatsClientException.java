@@ -1,8 +1,21 @@
 package ru.practicum.stats.client;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
 public class StatsClientException extends RuntimeException {
 
     public StatsClientException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    /**
+     * Returns {@code true} when the stats server answered with a 4xx status other than 408 or 429, so sending the
+     * same request again cannot succeed.
+     */
+    public boolean isRejected() {
+        return getCause() instanceof HttpClientErrorException ex
+                && ex.getStatusCode().value() != HttpStatus.REQUEST_TIMEOUT.value()
+                && ex.getStatusCode().value() != HttpStatus.TOO_MANY_REQUESTS.value();
+    }
 }
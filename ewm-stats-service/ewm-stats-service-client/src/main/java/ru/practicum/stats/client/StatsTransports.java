@@ -0,0 +1,163 @@
+package ru.practicum.stats.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the {@link ClientHttpRequestFactory} behind the {@code RestTemplate} used by {@link StatsClient}.
+ * Pooled transports reuse keep-alive connections of a shared {@link HttpClient} and cap the number of
+ * in-flight requests at {@link TransportSettings#getMaxConnections()}.
+ */
+public final class StatsTransports {
+
+    private StatsTransports() {
+    }
+
+    public static ClientHttpRequestFactory requestFactory(TransportSettings settings) {
+        Objects.requireNonNull(settings, "settings must not be null");
+        if (settings.getMaxConnections() <= 0) {
+            throw new IllegalArgumentException("Max connections must be positive");
+        }
+        if (settings.getTransport() == HttpTransport.SIMPLE) {
+            SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+            factory.setConnectTimeout(settings.getConnectTimeout());
+            factory.setReadTimeout(settings.getReadTimeout());
+            return factory;
+        }
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(settings.getTransport() == HttpTransport.HTTP2
+                        ? HttpClient.Version.HTTP_2
+                        : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(settings.getConnectTimeout())
+                .build();
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(settings.getReadTimeout());
+        return new LimitingRequestFactory(factory, settings.getMaxConnections(), settings.getAcquireTimeout());
+    }
+
+    static final class LimitingRequestFactory extends AbstractClientHttpRequestFactoryWrapper {
+
+        private final Semaphore permits;
+        private final long acquireTimeoutNanos;
+
+        LimitingRequestFactory(ClientHttpRequestFactory delegate, int maxConcurrent, Duration acquireTimeout) {
+            super(delegate);
+            this.permits = new Semaphore(maxConcurrent, true);
+            this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        }
+
+        int availablePermits() {
+            return permits.availablePermits();
+        }
+
+        @Override
+        protected ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod,
+                                                  ClientHttpRequestFactory requestFactory) throws IOException {
+            ClientHttpRequest request = requestFactory.createRequest(uri, httpMethod);
+            return new LimitedRequest(request);
+        }
+
+        private final class LimitedRequest extends AbstractClientHttpRequest {
+
+            private final ClientHttpRequest delegate;
+
+            private LimitedRequest(ClientHttpRequest delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public HttpMethod getMethod() {
+                return delegate.getMethod();
+            }
+
+            @Override
+            public URI getURI() {
+                return delegate.getURI();
+            }
+
+            @Override
+            protected OutputStream getBodyInternal(HttpHeaders headers)
+                    throws IOException {
+                return delegate.getBody();
+            }
+
+            @Override
+            protected ClientHttpResponse executeInternal(HttpHeaders headers)
+                    throws IOException {
+                delegate.getHeaders().putAll(headers);
+                acquire();
+                try {
+                    return new ReleasingResponse(delegate.execute());
+                } catch (IOException | RuntimeException ex) {
+                    permits.release();
+                    throw ex;
+                }
+            }
+
+            private void acquire() throws IOException {
+                try {
+                    if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                        throw new IOException("Stats client connection limit reached");
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for a stats client connection", ex);
+                }
+            }
+        }
+
+        private final class ReleasingResponse implements ClientHttpResponse {
+
+            private final ClientHttpResponse delegate;
+            private boolean released;
+
+            private ReleasingResponse(ClientHttpResponse delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public HttpStatusCode getStatusCode() throws IOException {
+                return delegate.getStatusCode();
+            }
+
+            @Override
+            public String getStatusText() throws IOException {
+                return delegate.getStatusText();
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return delegate.getHeaders();
+            }
+
+            @Override
+            public InputStream getBody() throws IOException {
+                return delegate.getBody();
+            }
+
+            @Override
+            public void close() {
+                try {
+                    delegate.close();
+                } finally {
+                    if (!released) {
+                        released = true;
+                        permits.release();
+                    }
+                }
+            }
+        }
+    }
+}
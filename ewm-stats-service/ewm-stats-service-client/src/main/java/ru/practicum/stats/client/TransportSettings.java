@@ -0,0 +1,22 @@
+package ru.practicum.stats.client;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+@Value
+@Builder
+public class TransportSettings {
+
+    @Builder.Default
+    HttpTransport transport = HttpTransport.HTTP1_POOLED;
+    @Builder.Default
+    Duration connectTimeout = Duration.ofSeconds(1);
+    @Builder.Default
+    Duration readTimeout = Duration.ofSeconds(2);
+    @Builder.Default
+    int maxConnections = 50;
+    @Builder.Default
+    Duration acquireTimeout = Duration.ofMillis(500);
+}
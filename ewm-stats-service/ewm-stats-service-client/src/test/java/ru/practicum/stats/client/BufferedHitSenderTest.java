@@ -0,0 +1,159 @@
+package ru.practicum.stats.client;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.stats.dto.EndpointHitDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BufferedHitSenderTest {
+
+    @Test
+    void submit_sendsHitsInBatches() throws InterruptedException {
+        List<List<EndpointHitDto>> batches = new CopyOnWriteArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(5);
+        HitBufferSettings settings = HitBufferSettings.builder()
+                .flushSize(2)
+                .flushInterval(Duration.ofMillis(50))
+                .build();
+
+        BufferedHitSender sender = new BufferedHitSender(batch -> {
+            batches.add(batch);
+            batch.forEach(hit -> delivered.countDown());
+        }, settings);
+        for (int i = 0; i < 5; i++) {
+            assertThat(sender.submit(hit("/events/" + i))).isTrue();
+        }
+        assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue();
+        sender.close();
+
+        assertThat(sender.metrics().getSent()).isEqualTo(5);
+        assertThat(batches).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(2));
+        assertThat(batches.stream().mapToInt(List::size).sum()).isEqualTo(5);
+    }
+
+    @Test
+    void close_handsFailedBatchesToHandler() {
+        List<EndpointHitDto> handedOff = new CopyOnWriteArrayList<>();
+        HitBufferSettings settings = HitBufferSettings.builder()
+                .flushSize(10)
+                .flushInterval(Duration.ofMillis(10))
+                .build();
+        BufferedHitSender sender = new BufferedHitSender(batch -> {
+            throw new StatsClientException("unavailable", null);
+        }, settings, handedOff::addAll);
+
+        sender.submit(hit("/events/1"));
+        sender.submit(hit("/events/2"));
+        sender.close();
+
+        assertThat(handedOff).extracting(EndpointHitDto::getUri).containsExactlyInAnyOrder("/events/1", "/events/2");
+        assertThat(sender.metrics().getDropped()).isZero();
+    }
+
+    @Test
+    void submit_dropsHitsWhenBufferIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        HitBufferSettings settings = HitBufferSettings.builder()
+                .capacity(1)
+                .flushSize(1)
+                .flushInterval(Duration.ofMillis(10))
+                .overflowPolicy(OverflowPolicy.DROP)
+                .build();
+        BufferedHitSender sender = new BufferedHitSender(batch -> awaitQuietly(release), settings);
+
+        for (int i = 0; i < 5; i++) {
+            sender.submit(hit("/events/" + i));
+        }
+        release.countDown();
+        sender.close();
+
+        HitSenderMetrics metrics = sender.metrics();
+        assertThat(metrics.getDropped()).isPositive();
+        assertThat(metrics.getSent() + metrics.getDropped()).isEqualTo(5);
+        assertThat(metrics.getQueued()).isZero();
+    }
+
+    @Test
+    void close_countsFailedBatches() {
+        HitBufferSettings settings = HitBufferSettings.builder()
+                .flushInterval(Duration.ofSeconds(10))
+                .build();
+        BufferedHitSender sender = new BufferedHitSender(batch -> {
+            throw new StatsClientException("unavailable", null);
+        }, settings);
+
+        sender.submit(hit("/events/1"));
+        sender.close();
+
+        assertThat(sender.metrics().getFailed()).isEqualTo(1);
+        assertThat(sender.submit(hit("/events/2"))).isFalse();
+    }
+
+    @Test
+    void close_handsOffQueuedHits_whenFlusherDoesNotStopInTime() throws InterruptedException {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<EndpointHitDto> sentHits = new CopyOnWriteArrayList<>();
+        List<EndpointHitDto> handedOff = new CopyOnWriteArrayList<>();
+        HitBufferSettings settings = HitBufferSettings.builder()
+                .flushSize(1)
+                .flushInterval(Duration.ofMillis(10))
+                .shutdownTimeout(Duration.ofMillis(50))
+                .build();
+        BufferedHitSender sender = new BufferedHitSender(batch -> {
+            sending.countDown();
+            awaitUninterruptibly(release);
+            sentHits.addAll(batch);
+        }, settings, handedOff::addAll);
+
+        sender.submit(hit("/events/1"));
+        assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+        sender.submit(hit("/events/2"));
+        sender.submit(hit("/events/3"));
+        sender.close();
+        release.countDown();
+
+        assertThat(handedOff).extracting(EndpointHitDto::getUri).containsExactly("/events/2", "/events/3");
+        assertThat(sender.submit(hit("/events/4"))).isTrue();
+        assertThat(handedOff).extracting(EndpointHitDto::getUri).endsWith("/events/4");
+        assertThat(sentHits).extracting(EndpointHitDto::getUri).doesNotContain("/events/2", "/events/3");
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (latch.getCount() > 0) {
+            try {
+                latch.await();
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static EndpointHitDto hit(String uri) {
+        return EndpointHitDto.builder()
+                .app("app")
+                .uri(uri)
+                .ip("127.0.0.1")
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
@@ -3,17 +3,28 @@ package ru.practicum.stats.client;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.client.RestTemplate;
 import ru.practicum.stats.dto.EndpointHitDto;
+import ru.practicum.stats.dto.StatsBinaryCodec;
 import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.dto.ViewsRequestDto;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -46,6 +57,20 @@ class StatsClientTest {
         assertThat(uriCaptor.getValue()).isEqualTo("http://localhost:9090/hit");
     }
 
+    @Test
+    void hitBatch_postsToBatchEndpoint() {
+        List<EndpointHitDto> hits = List.of(EndpointHitDto.builder()
+                .app("app")
+                .uri("/uri")
+                .ip("127.0.0.1")
+                .timestamp(LocalDateTime.now())
+                .build());
+
+        statsClient.hitBatch(hits);
+
+        verify(restTemplate).postForEntity(eq("http://localhost:9090/hit/batch"), eq(hits), eq(Void.class));
+    }
+
     @Test
     void getStats_buildsRequestAndReturnsBody() {
         LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
@@ -81,4 +106,85 @@ class StatsClientTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("End must not be before start");
     }
+
+    @Test
+    void hitBatch_encodesBinaryPayload_whenBinaryWireFormat() {
+        StatsClient binaryClient = new StatsClient(restTemplate, "http://localhost:9090", null, WireFormat.BINARY);
+        List<EndpointHitDto> hits = List.of(EndpointHitDto.builder()
+                .app("app")
+                .uri("/uri")
+                .ip("127.0.0.1")
+                .timestamp(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .build());
+
+        binaryClient.hitBatch(hits);
+
+        ArgumentCaptor<HttpEntity<byte[]>> captor = ArgumentCaptor.captor();
+        verify(restTemplate).postForEntity(eq("http://localhost:9090/hit/batch"), captor.capture(), eq(Void.class));
+        assertThat(captor.getValue().getHeaders().getContentType())
+                .isEqualTo(MediaType.parseMediaType(StatsBinaryCodec.MEDIA_TYPE));
+        assertThat(StatsBinaryCodec.decodeHits(captor.getValue().getBody())).isEqualTo(hits);
+    }
+
+    @Test
+    void getStats_decodesBinaryResponse_whenBinaryWireFormat() {
+        StatsClient binaryClient = new StatsClient(restTemplate, "http://localhost:9090", null, WireFormat.BINARY);
+        List<ViewStatsDto> stats = List.of(ViewStatsDto.builder().app("app").uri("/uri").hits(7).build());
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(StatsBinaryCodec.MEDIA_TYPE));
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(byte[].class)))
+                .thenReturn(new ResponseEntity<>(StatsBinaryCodec.encodeStats(stats), headers, HttpStatus.OK));
+
+        List<ViewStatsDto> result = binaryClient.getStats(LocalDateTime.of(2024, 1, 1, 0, 0),
+                LocalDateTime.of(2024, 1, 2, 0, 0), null, false);
+
+        assertThat(result).isEqualTo(stats);
+    }
+
+    @Test
+    void getStats_decodesJsonResponse_whenServerPicksJsonForBinaryRequest() {
+        StatsClient binaryClient = new StatsClient(restTemplate, "http://localhost:9090", null, WireFormat.BINARY);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        byte[] body = "[{\"app\":\"app\",\"uri\":\"/uri\",\"hits\":7}]".getBytes(StandardCharsets.UTF_8);
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(byte[].class)))
+                .thenReturn(new ResponseEntity<>(body, headers, HttpStatus.OK));
+        when(restTemplate.getMessageConverters()).thenReturn(List.of(new MappingJackson2HttpMessageConverter()));
+
+        List<ViewStatsDto> result = binaryClient.getStats(LocalDateTime.of(2024, 1, 1, 0, 0),
+                LocalDateTime.of(2024, 1, 2, 0, 0), null, false);
+
+        assertThat(result).containsExactly(ViewStatsDto.builder().app("app").uri("/uri").hits(7).build());
+    }
+
+    @Test
+    void getStats_rejectsUnexpectedContentType_whenBinaryWireFormat() {
+        StatsClient binaryClient = new StatsClient(restTemplate, "http://localhost:9090", null, WireFormat.BINARY);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_HTML);
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(byte[].class)))
+                .thenReturn(new ResponseEntity<>(new byte[0], headers, HttpStatus.OK));
+
+        assertThat(catchThrowable(() -> binaryClient.getStats(LocalDateTime.of(2024, 1, 1, 0, 0),
+                LocalDateTime.of(2024, 1, 2, 0, 0), null, false)))
+                .isInstanceOf(StatsClientException.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getViews_postsIdsWithTemplate() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        when(restTemplate.exchange(eq("http://localhost:9090/stats/views"), eq(HttpMethod.POST), any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)))
+                .thenReturn(new ResponseEntity<>(Map.of(1L, 3L, 2L, 0L), HttpStatus.OK));
+
+        Map<Long, Long> views = statsClient.getViews(List.of(1L, 2L), "/events/{id}", start, start.plusDays(1), true);
+
+        assertThat(views).containsEntry(1L, 3L).containsEntry(2L, 0L);
+        ArgumentCaptor<HttpEntity<ViewsRequestDto>> captor = ArgumentCaptor.captor();
+        verify(restTemplate).exchange(anyString(), eq(HttpMethod.POST), captor.capture(),
+                any(ParameterizedTypeReference.class));
+        assertThat(captor.getValue().getBody().getIds()).containsExactly(1L, 2L);
+        assertThat(captor.getValue().getBody().getUriTemplate()).isEqualTo("/events/{id}");
+    }
 }
@@ -0,0 +1,56 @@
+package ru.practicum.stats.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class StatsTransportsTest {
+
+    private static final URI STATS = URI.create("http://localhost:9090/stats");
+
+    @Test
+    void requestFactory_selectsTransport() {
+        assertThat(StatsTransports.requestFactory(TransportSettings.builder().transport(HttpTransport.SIMPLE).build()))
+                .isInstanceOf(SimpleClientHttpRequestFactory.class);
+        assertThat(StatsTransports.requestFactory(TransportSettings.builder().transport(HttpTransport.HTTP2).build()))
+                .isInstanceOf(StatsTransports.LimitingRequestFactory.class);
+    }
+
+    @Test
+    void limitingFactory_rejectsRequestsBeyondLimitUntilResponseClosed() throws IOException {
+        ClientHttpRequestFactory delegate = (uri, method) -> {
+            MockClientHttpRequest request = new MockClientHttpRequest(method, uri);
+            request.setResponse(new MockClientHttpResponse(new byte[0], 200));
+            return request;
+        };
+        StatsTransports.LimitingRequestFactory factory =
+                new StatsTransports.LimitingRequestFactory(delegate, 1, Duration.ofMillis(10));
+
+        ClientHttpResponse first = execute(factory);
+        Throwable thrown = catchThrowable(() -> execute(factory));
+        first.close();
+        ClientHttpResponse second = execute(factory);
+        second.close();
+        second.close();
+
+        assertThat(thrown).isInstanceOf(IOException.class).hasMessageContaining("connection limit");
+        assertThat(factory.availablePermits()).isEqualTo(1);
+    }
+
+    private ClientHttpResponse execute(ClientHttpRequestFactory factory) throws IOException {
+        ClientHttpRequest request = factory.createRequest(STATS, HttpMethod.GET);
+        return request.execute();
+    }
+}
@@ -0,0 +1,255 @@
+package ru.practicum.stats.dto;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Compact encoding for hit batches and stats lists exchanged between the main service and the stats server.
+ * A message is a header, a dictionary of every distinct app, uri and ip string, and then varint-coded records
+ * referencing the dictionary. Hit timestamps are stored as zigzag deltas of epoch seconds plus nanos.
+ */
+public final class StatsBinaryCodec {
+
+    public static final String MEDIA_TYPE = "application/x-ewm-stats";
+
+    private static final int MAGIC = 0x4553;
+    private static final int VERSION = 1;
+    private static final int KIND_HITS = 1;
+    private static final int KIND_STATS = 2;
+    private static final int MAX_STRING_BYTES = 1 << 20;
+
+    private StatsBinaryCodec() {
+    }
+
+    public static byte[] encodeHits(Collection<EndpointHitDto> hits) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 + hits.size() * 8);
+        writeHits(hits, buffer);
+        return buffer.toByteArray();
+    }
+
+    public static void writeHits(Collection<EndpointHitDto> hits, OutputStream outputStream) {
+        Dictionary dictionary = new Dictionary();
+        hits.forEach(hit -> {
+            dictionary.add(hit.getApp());
+            dictionary.add(hit.getUri());
+            dictionary.add(hit.getIp());
+        });
+        try {
+            DataOutputStream out = header(outputStream, KIND_HITS, dictionary, hits.size());
+            long previousSecond = 0;
+            for (EndpointHitDto hit : hits) {
+                writeVarLong(out, dictionary.indexOf(hit.getApp()));
+                writeVarLong(out, dictionary.indexOf(hit.getUri()));
+                writeVarLong(out, dictionary.indexOf(hit.getIp()));
+                writeVarLong(out, hit.getId() == null ? 0 : zigzag(hit.getId()) + 1);
+                if (hit.getTimestamp() == null) {
+                    writeVarLong(out, 0);
+                    continue;
+                }
+                long second = hit.getTimestamp().toEpochSecond(ZoneOffset.UTC);
+                writeVarLong(out, zigzag(second - previousSecond) + 1);
+                writeVarLong(out, hit.getTimestamp().getNano());
+                previousSecond = second;
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static List<EndpointHitDto> decodeHits(byte[] bytes) {
+        return readHits(new ByteArrayInputStream(bytes));
+    }
+
+    public static List<EndpointHitDto> readHits(InputStream inputStream) {
+        return read(inputStream, KIND_HITS, new Function<>() {
+            private long previousSecond;
+
+            @Override
+            public EndpointHitDto apply(Reader reader) {
+                EndpointHitDto hit = EndpointHitDto.builder()
+                        .app(reader.string())
+                        .uri(reader.string())
+                        .ip(reader.string())
+                        .build();
+                long id = reader.varLong();
+                hit.setId(id == 0 ? null : unzigzag(id - 1));
+                long delta = reader.varLong();
+                if (delta != 0) {
+                    previousSecond += unzigzag(delta - 1);
+                    hit.setTimestamp(LocalDateTime.ofEpochSecond(previousSecond, (int) reader.varLong(), ZoneOffset.UTC));
+                }
+                return hit;
+            }
+        });
+    }
+
+    public static byte[] encodeStats(Collection<ViewStatsDto> stats) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 + stats.size() * 4);
+        writeStats(stats, buffer);
+        return buffer.toByteArray();
+    }
+
+    public static void writeStats(Collection<ViewStatsDto> stats, OutputStream outputStream) {
+        Dictionary dictionary = new Dictionary();
+        stats.forEach(dto -> {
+            dictionary.add(dto.getApp());
+            dictionary.add(dto.getUri());
+        });
+        try {
+            DataOutputStream out = header(outputStream, KIND_STATS, dictionary, stats.size());
+            for (ViewStatsDto dto : stats) {
+                writeVarLong(out, dictionary.indexOf(dto.getApp()));
+                writeVarLong(out, dictionary.indexOf(dto.getUri()));
+                writeVarLong(out, zigzag(dto.getHits()));
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static List<ViewStatsDto> decodeStats(byte[] bytes) {
+        return readStats(new ByteArrayInputStream(bytes));
+    }
+
+    public static List<ViewStatsDto> readStats(InputStream inputStream) {
+        return read(inputStream, KIND_STATS, reader -> ViewStatsDto.builder()
+                .app(reader.string())
+                .uri(reader.string())
+                .hits(unzigzag(reader.varLong()))
+                .build());
+    }
+
+    private static DataOutputStream header(OutputStream outputStream, int kind, Dictionary dictionary, int records)
+            throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+        out.writeShort(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(kind);
+        writeVarLong(out, dictionary.values.size());
+        for (String value : dictionary.values) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(out, utf8.length);
+            out.write(utf8);
+        }
+        writeVarLong(out, records);
+        return out;
+    }
+
+    private static <T> List<T> read(InputStream inputStream, int kind, Function<Reader, T> recordReader) {
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+            if (in.readUnsignedShort() != MAGIC || in.readUnsignedByte() != VERSION || in.readUnsignedByte() != kind) {
+                throw new IllegalArgumentException("Unsupported stats payload header");
+            }
+            Reader reader = new Reader(in);
+            int dictionarySize = reader.count();
+            List<String> dictionary = new ArrayList<>(dictionarySize);
+            for (int i = 0; i < dictionarySize; i++) {
+                int length = reader.count();
+                if (length > MAX_STRING_BYTES) {
+                    throw new IllegalArgumentException("Dictionary string too long: " + length);
+                }
+                byte[] utf8 = new byte[length];
+                in.readFully(utf8);
+                dictionary.add(new String(utf8, StandardCharsets.UTF_8));
+            }
+            reader.dictionary = dictionary;
+            int records = reader.count();
+            List<T> result = new ArrayList<>(Math.min(records, 1 << 16));
+            for (int i = 0; i < records; i++) {
+                result.add(recordReader.apply(reader));
+            }
+            return result;
+        } catch (EOFException e) {
+            throw new IllegalArgumentException("Truncated stats payload", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Dictionary {
+
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        private void add(String value) {
+            if (value != null && !indexes.containsKey(value)) {
+                indexes.put(value, values.size());
+                values.add(value);
+            }
+        }
+
+        private long indexOf(String value) {
+            return value == null ? 0 : indexes.get(value) + 1;
+        }
+    }
+
+    private static final class Reader {
+
+        private final DataInputStream in;
+        private List<String> dictionary;
+
+        private Reader(DataInputStream in) {
+            this.in = in;
+        }
+
+        private String string() {
+            long index = varLong();
+            if (index == 0) {
+                return null;
+            }
+            if (index > dictionary.size()) {
+                throw new IllegalArgumentException("Dictionary index out of range: " + index);
+            }
+            return dictionary.get((int) index - 1);
+        }
+
+        private int count() {
+            long value = varLong();
+            if (value < 0 || value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid length: " + value);
+            }
+            return (int) value;
+        }
+
+        private long varLong() {
+            try {
+                long result = 0;
+                for (int shift = 0; shift < 64; shift += 7) {
+                    int b = in.readUnsignedByte();
+                    result |= (long) (b & 0x7F) << shift;
+                    if ((b & 0x80) == 0) {
+                        return result;
+                    }
+                }
+                throw new IllegalArgumentException("Malformed varint");
+            } catch (EOFException e) {
+                throw new IllegalArgumentException("Truncated stats payload", e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
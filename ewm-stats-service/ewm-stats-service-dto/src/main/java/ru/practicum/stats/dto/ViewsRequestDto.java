@@ -0,0 +1,42 @@
+package ru.practicum.stats.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ViewsRequestDto {
+
+    public static final String ID_PLACEHOLDER = "{id}";
+    public static final int MAX_IDS = 10_000;
+
+    @NotNull
+    @JsonFormat(pattern = StatsConstants.DATE_TIME_FORMAT)
+    private LocalDateTime start;
+
+    @NotNull
+    @JsonFormat(pattern = StatsConstants.DATE_TIME_FORMAT)
+    private LocalDateTime end;
+
+    @NotNull
+    @Pattern(regexp = "[^*]*\\{id}[^*]*", message = "must contain {id} and no wildcards")
+    private String uriTemplate;
+
+    @NotEmpty
+    @Size(max = MAX_IDS)
+    private List<@NotNull Long> ids;
+
+    private boolean unique;
+}
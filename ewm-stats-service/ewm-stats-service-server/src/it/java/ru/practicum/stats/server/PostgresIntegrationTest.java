@@ -0,0 +1,37 @@
+package ru.practicum.stats.server;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Base for tests that need a real PostgreSQL. One container is shared by all tests and the public schema is
+ * recreated before each test.
+ */
+public abstract class PostgresIntegrationTest {
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16.1");
+
+    static {
+        POSTGRES.start();
+    }
+
+    protected final DriverManagerDataSource dataSource =
+            new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+    protected final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    protected final DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+    @BeforeEach
+    void resetSchema() {
+        jdbcTemplate.execute("DROP SCHEMA public CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA public");
+    }
+
+    protected void applySchema() {
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.stats.server.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.stats.server.PostgresIntegrationTest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HitDictionaryIT extends PostgresIntegrationTest {
+
+    private SingleConnectionDataSource singleConnection;
+    private HitDictionary dictionary;
+    private TransactionTemplate transaction;
+
+    @BeforeEach
+    void setUp() {
+        applySchema();
+        singleConnection = new SingleConnectionDataSource(dataSource.getUrl(), dataSource.getUsername(),
+                dataSource.getPassword(), true);
+        dictionary = new HitDictionary(new JdbcTemplate(singleConnection), 100);
+        transaction = new TransactionTemplate(new DataSourceTransactionManager(singleConnection));
+    }
+
+    @AfterEach
+    void tearDown() {
+        singleConnection.destroy();
+    }
+
+    @Test
+    void resolve_insertsMissingNamesWithoutSecondConnection() {
+        jdbcTemplate.update("INSERT INTO uris (uri) VALUES ('/events/1')");
+
+        Map<String, Integer> ids = transaction.execute(status -> dictionary.uriIds(List.of("/events/1", "/events/2")));
+
+        assertThat(ids).containsOnlyKeys("/events/1", "/events/2");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM uris", Long.class)).isEqualTo(2);
+    }
+
+    @Test
+    void resolve_doesNotCacheIdsOfRolledBackInserts() {
+        transaction.executeWithoutResult(status -> {
+            dictionary.appIds(List.of("ewm-main-service"));
+            status.setRollbackOnly();
+        });
+
+        Map<String, Integer> ids = transaction.execute(status -> dictionary.appIds(List.of("ewm-main-service")));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT id FROM apps WHERE app = 'ewm-main-service'", Integer.class))
+                .isEqualTo(ids.get("ewm-main-service"));
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.stats.server.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.stats.server.PostgresIntegrationTest;
+import ru.practicum.stats.server.mapper.IpAddresses;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JdbcHitPartitionRepositoryIT extends PostgresIntegrationTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private static final LocalDateTime UNTIL = LocalDateTime.of(2030, 1, 2, 0, 0);
+
+    private JdbcHitPartitionRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        applySchema();
+        repository = new JdbcHitPartitionRepository(jdbcTemplate);
+        repository.createDefaultPartition();
+        jdbcTemplate.update("INSERT INTO apps (app) VALUES ('ewm-main-service')");
+        jdbcTemplate.update("INSERT INTO uris (uri) VALUES ('/events/1')");
+    }
+
+    @Test
+    void createPartition_movesStrandedHitsOutOfDefaultPartition() {
+        insertHit("2030-01-01 10:00:00");
+        insertHit("2030-01-05 10:00:00");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                repository.createPartition(new HitPartition("endpoint_hits_p20300101", FROM, UNTIL)));
+
+        assertThat(count("endpoint_hits_p20300101")).isEqualTo(1);
+        assertThat(count("endpoint_hits_default")).isEqualTo(1);
+        assertThat(count("endpoint_hits")).isEqualTo(2);
+        assertThat(repository.findPartitions())
+                .containsExactly(new HitPartition("endpoint_hits_p20300101", FROM, UNTIL));
+        insertHit("2031-01-01 10:00:00");
+        assertThat(count("endpoint_hits_default")).isEqualTo(2);
+    }
+
+    @Test
+    void deleteHitsBefore_removesExpiredHitsFromDefaultAndSpanningPartitions() {
+        repository.createPartition(new HitPartition("endpoint_hits_p20300101", FROM, UNTIL));
+        insertHit("2022-09-06 11:00:23");
+        insertHit("2030-01-01 09:59:59");
+        insertHit("2030-01-01 10:00:00");
+        insertHit("2030-01-05 10:00:00");
+
+        int deleted = repository.deleteHitsBefore(FROM.plusHours(10));
+
+        assertThat(deleted).isEqualTo(2);
+        assertThat(count("endpoint_hits_p20300101")).isEqualTo(1);
+        assertThat(count("endpoint_hits_default")).isEqualTo(1);
+    }
+
+    private void insertHit(String timestamp) {
+        jdbcTemplate.update("INSERT INTO endpoint_hits (app_id, uri_id, ip, hit_timestamp) "
+                + "VALUES (1, 1, ?, ?::timestamp)", IpAddresses.parse("10.0.0.1"), timestamp);
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.stats.server.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.stats.server.PostgresIntegrationTest;
+import ru.practicum.stats.server.mapper.IpAddresses;
+import ru.practicum.stats.server.model.EndpointHit;
+import ru.practicum.stats.server.repository.*;
+import ru.practicum.stats.server.sketch.HyperLogLog;
+import ru.practicum.stats.server.sketch.SketchKey;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HitPartitionMaintainerIT extends PostgresIntegrationTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2030-01-10T12:30:00Z"), ZoneOffset.UTC);
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2030, 1, 5, 12, 0);
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 5, 0, 0);
+
+    private JdbcHitRollupRepository rollupRepository;
+    private JdbcHitSketchRepository sketchRepository;
+    private HitPartitionMaintainer maintainer;
+
+    @BeforeEach
+    void setUp() {
+        applySchema();
+        JdbcHitPartitionRepository partitionRepository = new JdbcHitPartitionRepository(jdbcTemplate);
+        partitionRepository.createDefaultPartition();
+        rollupRepository = new JdbcHitRollupRepository(jdbcTemplate);
+        sketchRepository = new JdbcHitSketchRepository(jdbcTemplate);
+        HitTableMigration migration = new HitTableMigration(new JdbcHitMigrationRepository(jdbcTemplate),
+                transactionManager, 100);
+        maintainer = new HitPartitionMaintainer(partitionRepository, rollupRepository, sketchRepository, migration,
+                false, CLOCK, PartitionInterval.DAY, 1, 5);
+        jdbcTemplate.update("INSERT INTO apps (app) VALUES ('ewm-main-service')");
+        jdbcTemplate.update("INSERT INTO uris (uri) VALUES ('/events/1')");
+        recordHit("10.0.0.1", LocalDateTime.of(2030, 1, 5, 11, 30));
+        recordHit("10.0.0.2", LocalDateTime.of(2030, 1, 5, 12, 10));
+    }
+
+    @Test
+    void maintain_leavesRangeBeforeCutoffEmptyInEverySource() {
+        maintainer.maintain();
+
+        assertThat(rollupRepository.findStats(RollupGranularity.MINUTE, DAY, CUTOFF, UriFilter.NONE)).isEmpty();
+        assertThat(rollupRepository.findStats(RollupGranularity.HOUR, DAY, CUTOFF, UriFilter.NONE)).isEmpty();
+        assertThat(sketchRepository.findSketches(DAY, CUTOFF, UriFilter.NONE)).isEmpty();
+        assertThat(sketchRepository.findRawSketches(DAY, CUTOFF, UriFilter.NONE)).isEmpty();
+    }
+
+    @Test
+    void maintain_keepsOnlyHitsAfterCutoff_forRangeSpanningIt() {
+        maintainer.maintain();
+
+        LocalDateTime until = DAY.plusDays(1);
+        assertThat(rollupRepository.findStats(RollupGranularity.MINUTE, DAY, until, UriFilter.NONE))
+                .singleElement().satisfies(stats -> assertThat(stats.getHits()).isEqualTo(1));
+        assertThat(rollupRepository.findStats(RollupGranularity.HOUR, DAY, until, UriFilter.NONE))
+                .singleElement().satisfies(stats -> assertThat(stats.getHits()).isEqualTo(1));
+        assertThat(sketchRepository.findSketches(DAY, until, UriFilter.NONE))
+                .singleElement().satisfies(sketch -> assertThat(sketch.sketch().estimate()).isEqualTo(1));
+        assertThat(sketchRepository.findRawSketches(DAY, until, UriFilter.NONE))
+                .singleElement().satisfies(sketch -> assertThat(sketch.sketch().estimate()).isEqualTo(1));
+    }
+
+    private void recordHit(String ip, LocalDateTime timestamp) {
+        byte[] address = IpAddresses.parse(ip);
+        jdbcTemplate.update("INSERT INTO endpoint_hits (app_id, uri_id, ip, hit_timestamp) VALUES (1, 1, ?, ?)",
+                address, timestamp);
+        rollupRepository.increment(List.of(EndpointHit.builder()
+                .app("ewm-main-service")
+                .uri("/events/1")
+                .ip(address)
+                .timestamp(timestamp)
+                .build()));
+        HyperLogLog sketch = new HyperLogLog();
+        sketch.add(address);
+        sketchRepository.mergeAll(Map.of(new SketchKey("ewm-main-service", "/events/1",
+                timestamp.withMinute(0)), sketch));
+    }
+}
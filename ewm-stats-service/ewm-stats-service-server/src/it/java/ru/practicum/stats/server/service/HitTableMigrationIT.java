@@ -0,0 +1,146 @@
+package ru.practicum.stats.server.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.stats.server.PostgresIntegrationTest;
+import ru.practicum.stats.server.mapper.IpAddresses;
+import ru.practicum.stats.server.repository.JdbcHitMigrationRepository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HitTableMigrationIT extends PostgresIntegrationTest {
+
+    private JdbcHitMigrationRepository repository;
+    private HitTableMigration migration;
+
+    @BeforeEach
+    void createLegacyTable() {
+        jdbcTemplate.execute("""
+                CREATE TABLE endpoint_hits (
+                    id           BIGSERIAL PRIMARY KEY,
+                    app          VARCHAR(255)    NOT NULL,
+                    uri          VARCHAR(512)    NOT NULL,
+                    ip           VARCHAR(45)     NOT NULL,
+                    hit_timestamp TIMESTAMP WITHOUT TIME ZONE NOT NULL
+                )
+                """);
+        insertHit("ewm-main-service", "/events/1", "192.168.0.1", "2022-09-06 11:00:23");
+        insertHit("ewm-main-service", "/events/1", "192.168.0.2", "2022-09-06 11:00:40");
+        insertHit("ewm-main-service", "/events/2", "192.168.0.1", "2022-09-06 11:05:00");
+        insertHit("ewm-main-service", "/events", "10.0.0.1", "2022-09-06 12:15:00");
+        insertHit("other-app", "/events/1", "unknown", "2022-09-07 08:00:00");
+        applySchema();
+        repository = new JdbcHitMigrationRepository(jdbcTemplate);
+        migration = new HitTableMigration(repository, transactionManager, 2);
+    }
+
+    @Test
+    void run_movesNamesIntoDictionaryAndKeepsEveryHit() {
+        assertThat(migration.isPending()).isTrue();
+
+        migration.run();
+
+        assertThat(migration.isPending()).isFalse();
+        assertThat(hits()).containsExactly(
+                "ewm-main-service /events/1",
+                "ewm-main-service /events/1",
+                "ewm-main-service /events/2",
+                "ewm-main-service /events",
+                "other-app /events/1");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM hit_migrations", Long.class)).isZero();
+        assertThatThrownBy(() -> jdbcTemplate.queryForList("SELECT app FROM endpoint_hits"))
+                .hasMessageContaining("app");
+        assertThat(jdbcTemplate.queryForList("SELECT ip FROM endpoint_hits ORDER BY id", byte[].class))
+                .containsExactly(
+                        IpAddresses.parse("192.168.0.1"),
+                        IpAddresses.parse("192.168.0.2"),
+                        IpAddresses.parse("192.168.0.1"),
+                        IpAddresses.parse("10.0.0.1"),
+                        IpAddresses.parse("unknown"));
+    }
+
+    @Test
+    void run_resumesIpConversion_afterInterruptedBatch() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            repository.prepareDictionaryEncoding();
+            repository.encodeDictionaryBatch(0, 5);
+            repository.finishDictionaryEncoding();
+            repository.prepareIpConversion();
+            repository.convertIpBatch(0, 2);
+        });
+        assertThatThrownBy(repository::finishIpConversion).isInstanceOf(IllegalStateException.class);
+
+        migration.run();
+
+        assertThat(repository.isIpBinary()).isTrue();
+        assertThat(jdbcTemplate.queryForObject("SELECT ip FROM endpoint_hits WHERE id = 5", byte[].class))
+                .isEqualTo(IpAddresses.parse("unknown"));
+    }
+
+    @Test
+    void run_backfillsEmptyRollupsOnce_whenResumedAfterInterruption() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            repository.prepareDictionaryEncoding();
+            repository.encodeDictionaryBatch(0, 3);
+        });
+
+        migration.run();
+
+        assertThat(rollup("hit_rollup_hour")).containsExactlyInAnyOrderEntriesOf(Map.of(
+                "ewm-main-service /events/1 2022-09-06 11:00:00", 2L,
+                "ewm-main-service /events/2 2022-09-06 11:00:00", 1L,
+                "ewm-main-service /events 2022-09-06 12:00:00", 1L,
+                "other-app /events/1 2022-09-07 08:00:00", 1L));
+        assertThat(rollup("hit_rollup_minute")).containsEntry("ewm-main-service /events/1 2022-09-06 11:00:00", 2L)
+                .hasSize(4);
+    }
+
+    @Test
+    void run_keepsExistingRollups() {
+        jdbcTemplate.update("INSERT INTO hit_rollup_hour (app, uri, bucket, hits) "
+                + "VALUES ('ewm-main-service', '/events/1', '2022-09-06 11:00:00', 2)");
+
+        migration.run();
+
+        assertThat(rollup("hit_rollup_hour")).hasSize(1);
+        assertThat(rollup("hit_rollup_minute")).hasSize(4);
+    }
+
+    @Test
+    void finish_refusesToDropColumns_whileRowsLackIds() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                repository.prepareDictionaryEncoding());
+
+        assertThatThrownBy(repository::finishDictionaryEncoding).isInstanceOf(IllegalStateException.class);
+        assertThat(repository.isDictionaryEncoded()).isFalse();
+    }
+
+    private void insertHit(String app, String uri, String ip, String timestamp) {
+        jdbcTemplate.update("INSERT INTO endpoint_hits (app, uri, ip, hit_timestamp) VALUES (?, ?, ?, ?::timestamp)",
+                app, uri, ip, timestamp);
+    }
+
+    private List<String> hits() {
+        return jdbcTemplate.queryForList("""
+                SELECT a.app || ' ' || u.uri
+                FROM endpoint_hits h JOIN apps a ON a.id = h.app_id JOIN uris u ON u.id = h.uri_id
+                ORDER BY h.id
+                """, String.class);
+    }
+
+    private Map<String, Long> rollup(String table) {
+        Map<String, Long> rows = new HashMap<>();
+        jdbcTemplate.query("SELECT app, uri, to_char(date_trunc('hour', bucket), 'YYYY-MM-DD HH24:MI:SS') AS hour, "
+                        + "SUM(hits) AS hits FROM " + table + " GROUP BY 1, 2, 3",
+                (RowCallbackHandler) rs -> rows.merge(rs.getString("app") + " " + rs.getString("uri") + " " + rs.getString("hour"),
+                        rs.getLong("hits"), Long::sum));
+        return rows;
+    }
+}
@@ -1,18 +1,31 @@
 package ru.practicum.stats.server.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.stats.dto.EndpointHitDto;
 import ru.practicum.stats.dto.StatsConstants;
 import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.dto.ViewsRequestDto;
+import ru.practicum.stats.server.service.HitIngestPipeline;
 import ru.practicum.stats.server.service.StatsService;
+import ru.practicum.stats.server.service.StatsStream;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
@@ -23,23 +36,77 @@ public class StatsController {
             DateTimeFormatter.ofPattern(StatsConstants.DATE_TIME_FORMAT);
 
     private final StatsService statsService;
+    private final HitIngestPipeline hitIngestPipeline;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/hit")
     @ResponseStatus(HttpStatus.CREATED)
-    public void hit(@Valid @RequestBody EndpointHitDto endpointHitDto) {
+    public CompletableFuture<Void> hit(@Valid @RequestBody EndpointHitDto endpointHitDto) {
         log.debug("Saving endpoint hit: {}", endpointHitDto);
-        statsService.saveHit(endpointHitDto);
+        return hitIngestPipeline.submit(endpointHitDto);
+    }
+
+    @PostMapping("/hit/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public void hitBatch(@RequestBody List<@Valid EndpointHitDto> endpointHitDtos) {
+        log.debug("Saving batch of {} endpoint hits", endpointHitDtos.size());
+        statsService.saveHits(endpointHitDtos);
     }
 
     @GetMapping("/stats")
     public List<ViewStatsDto> getStats(@RequestParam(required = true) String start,
                                        @RequestParam(required = true) String end,
                                        @RequestParam(required = false) List<String> uris,
-                                       @RequestParam(defaultValue = "false") boolean unique) {
+                                       @RequestParam(defaultValue = "false") boolean unique,
+                                       @RequestParam(defaultValue = "false") boolean approximate) {
+        LocalDateTime startDate = LocalDateTime.parse(start, FORMATTER);
+        LocalDateTime endDate = LocalDateTime.parse(end, FORMATTER);
+
+        log.debug("Requesting stats: start={}, end={}, uris={}, unique={}, approximate={}",
+                start, end, uris, unique, approximate);
+        return statsService.getStats(startDate, endDate, uris, unique, approximate);
+    }
+
+    @PostMapping("/stats/views")
+    public Map<Long, Long> getViews(@Valid @RequestBody ViewsRequestDto viewsRequest) {
+        log.debug("Requesting views for {} ids by template {}", viewsRequest.getIds().size(),
+                viewsRequest.getUriTemplate());
+        return statsService.getViews(viewsRequest);
+    }
+
+    @GetMapping("/stats/top")
+    public List<ViewStatsDto> getTopUris(@RequestParam(defaultValue = "60") int minutes,
+                                         @RequestParam(required = false) String prefix,
+                                         @RequestParam(defaultValue = "10") @Positive int limit) {
+        log.debug("Requesting top {} uris for the last {} minutes, prefix={}", limit, minutes, prefix);
+        return statsService.getTopUris(minutes, prefix, limit);
+    }
+
+    @GetMapping(value = "/stats", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamStats(@RequestParam(required = true) String start,
+                                                             @RequestParam(required = true) String end,
+                                                             @RequestParam(required = false) List<String> uris,
+                                                             @RequestParam(defaultValue = "false") boolean unique) {
         LocalDateTime startDate = LocalDateTime.parse(start, FORMATTER);
         LocalDateTime endDate = LocalDateTime.parse(end, FORMATTER);
 
-        log.debug("Requesting stats: start={}, end={}, uris={}, unique={}", start, end, uris, unique);
-        return statsService.getStats(startDate, endDate, uris, unique);
+        log.debug("Streaming stats: start={}, end={}, uris={}, unique={}", start, end, uris, unique);
+        StatsStream stats = statsService.streamStats(startDate, endDate, uris, unique);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                stats.forEach(dto -> {
+                    try {
+                        generator.writeObject(dto);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 }
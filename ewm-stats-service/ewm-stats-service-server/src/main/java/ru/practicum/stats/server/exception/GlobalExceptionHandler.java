@@ -10,9 +10,11 @@ import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @RestControllerAdvice
@@ -22,7 +24,8 @@ public class GlobalExceptionHandler {
         return String.format("Field '%s': %s", fieldError.getField(), fieldError.getDefaultMessage());
     }
 
-    @ExceptionHandler({MethodArgumentNotValidException.class, ConstraintViolationException.class})
+    @ExceptionHandler({MethodArgumentNotValidException.class, ConstraintViolationException.class,
+            HandlerMethodValidationException.class})
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleValidation(Exception ex) {
         String message;
@@ -43,7 +46,8 @@ public class GlobalExceptionHandler {
                 .build();
     }
 
-    @ExceptionHandler({InvalidDateRangeException.class, MissingRequiredParameterException.class, DateTimeParseException.class,
+    @ExceptionHandler({InvalidDateRangeException.class, InvalidIpAddressException.class,
+            InvalidParameterCombinationException.class, MissingRequiredParameterException.class, DateTimeParseException.class,
             MethodArgumentTypeMismatchException.class, HttpMessageNotReadableException.class, MissingServletRequestParameterException.class})
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleBadRequest(RuntimeException ex) {
@@ -55,6 +59,17 @@ public class GlobalExceptionHandler {
                 .build();
     }
 
+    @ExceptionHandler({IngestOverloadedException.class, TimeoutException.class})
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleOverloaded(Exception ex) {
+        log.warn("Hit ingest unavailable: {}", ex.getMessage());
+        return ErrorResponse.builder()
+                .status(HttpStatus.SERVICE_UNAVAILABLE.name())
+                .reason("Service is temporarily overloaded.")
+                .message(ex.getMessage() == null ? "Hit was not committed in time" : ex.getMessage())
+                .build();
+    }
+
     @ExceptionHandler(Throwable.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleUnexpected(Throwable ex) {
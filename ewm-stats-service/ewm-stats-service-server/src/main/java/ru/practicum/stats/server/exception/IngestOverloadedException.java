@@ -0,0 +1,8 @@
+package ru.practicum.stats.server.exception;
+
+public class IngestOverloadedException extends RuntimeException {
+
+    public IngestOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.stats.server.exception;
+
+public class InvalidIpAddressException extends RuntimeException {
+
+    public InvalidIpAddressException(String message) {
+        super(message);
+    }
+}
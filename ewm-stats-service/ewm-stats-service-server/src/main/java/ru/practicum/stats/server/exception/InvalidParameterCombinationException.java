@@ -0,0 +1,8 @@
+package ru.practicum.stats.server.exception;
+
+public class InvalidParameterCombinationException extends RuntimeException {
+
+    public InvalidParameterCombinationException(String message) {
+        super(message);
+    }
+}
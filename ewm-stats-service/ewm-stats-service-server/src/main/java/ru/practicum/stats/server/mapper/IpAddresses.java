@@ -0,0 +1,190 @@
+package ru.practicum.stats.server.mapper;
+
+import ru.practicum.stats.server.exception.InvalidIpAddressException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Parses IPv4 and IPv6 literals into the 16-byte form stored in {@code endpoint_hits.ip}. IPv4 addresses are stored
+ * as IPv4-mapped IPv6 addresses, so every value has the same width. Parsing never falls back to name resolution.
+ */
+public final class IpAddresses {
+
+    public static final int LENGTH = 16;
+
+    private static final int GROUPS = 8;
+
+    private IpAddresses() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Returns the 16-byte form of {@code value} as {@link #encode(String)} does.
+     *
+     * @throws InvalidIpAddressException when the value is blank
+     */
+    public static byte[] parse(String value) {
+        if (value == null || value.isBlank()) {
+            throw new InvalidIpAddressException("Invalid IP address: " + value);
+        }
+        return encode(value);
+    }
+
+    /**
+     * Returns the 16-byte form of {@code value}. Values that are not IP literals, such as {@code unknown} or
+     * {@code _hidden} sent by proxies, are stored as the MD5 digest of the text, so unique counting stays stable
+     * for them.
+     */
+    public static byte[] encode(String value) {
+        byte[] bytes = tryParse(value.trim());
+        return bytes != null ? bytes : digest(value);
+    }
+
+    /**
+     * Returns the 16-byte form of {@code value} or {@code null} when it is not an IP literal.
+     */
+    public static byte[] tryParse(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        byte[] bytes = new byte[LENGTH];
+        if (value.indexOf(':') < 0) {
+            if (!parseIpv4(value, 0, value.length(), bytes, 12)) {
+                return null;
+            }
+            bytes[10] = (byte) 0xff;
+            bytes[11] = (byte) 0xff;
+            return bytes;
+        }
+        return parseIpv6(value, bytes) ? bytes : null;
+    }
+
+    private static byte[] digest(String value) {
+        try {
+            return MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("MD5 is not available", ex);
+        }
+    }
+
+    private static boolean parseIpv6(String value, byte[] bytes) {
+        int gap = value.indexOf("::");
+        int[] head = new int[GROUPS];
+        int[] tail = new int[GROUPS];
+        int headCount;
+        int tailCount = 0;
+        if (gap < 0) {
+            headCount = parseGroups(value, 0, value.length(), head, true);
+            if (headCount != GROUPS) {
+                return false;
+            }
+        } else {
+            if (value.indexOf("::", gap + 1) >= 0) {
+                return false;
+            }
+            headCount = gap == 0 ? 0 : parseGroups(value, 0, gap, head, false);
+            tailCount = gap + 2 == value.length() ? 0 : parseGroups(value, gap + 2, value.length(), tail, true);
+            if (headCount < 0 || tailCount < 0 || headCount + tailCount > GROUPS - 1) {
+                return false;
+            }
+        }
+        for (int i = 0; i < headCount; i++) {
+            putGroup(bytes, i, head[i]);
+        }
+        for (int i = 0; i < tailCount; i++) {
+            putGroup(bytes, GROUPS - tailCount + i, tail[i]);
+        }
+        return true;
+    }
+
+    /**
+     * Parses colon-separated hex groups of {@code value[from, to)} into {@code groups}. A trailing dotted IPv4 part
+     * counts as two groups when allowed. Returns the number of groups or -1.
+     */
+    private static int parseGroups(String value, int from, int to, int[] groups, boolean ipv4Tail) {
+        int count = 0;
+        int start = from;
+        while (true) {
+            int end = value.indexOf(':', start);
+            if (end < 0 || end > to) {
+                end = to;
+            }
+            if (end == to && ipv4Tail && value.lastIndexOf('.', to - 1) >= start) {
+                byte[] ipv4 = new byte[4];
+                if (count > GROUPS - 2 || !parseIpv4(value, start, to, ipv4, 0)) {
+                    return -1;
+                }
+                groups[count++] = ((ipv4[0] & 0xff) << 8) | (ipv4[1] & 0xff);
+                groups[count++] = ((ipv4[2] & 0xff) << 8) | (ipv4[3] & 0xff);
+                return count;
+            }
+            int length = end - start;
+            if (count == GROUPS || length < 1 || length > 4) {
+                return -1;
+            }
+            int group = 0;
+            for (int i = start; i < end; i++) {
+                int digit = hexDigit(value.charAt(i));
+                if (digit < 0) {
+                    return -1;
+                }
+                group = (group << 4) | digit;
+            }
+            groups[count++] = group;
+            if (end == to) {
+                return count;
+            }
+            start = end + 1;
+        }
+    }
+
+    private static boolean parseIpv4(String value, int from, int to, byte[] target, int offset) {
+        int part = 0;
+        int digits = 0;
+        int octet = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c == '.') {
+                if (digits == 0 || part == 3) {
+                    return false;
+                }
+                target[offset + part++] = (byte) octet;
+                digits = 0;
+                octet = 0;
+            } else if (c >= '0' && c <= '9' && digits < 3) {
+                octet = octet * 10 + (c - '0');
+                digits++;
+                if (octet > 255) {
+                    return false;
+                }
+            } else {
+                return false;
+            }
+        }
+        if (digits == 0 || part != 3) {
+            return false;
+        }
+        target[offset + part] = (byte) octet;
+        return true;
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static void putGroup(byte[] bytes, int index, int group) {
+        bytes[index * 2] = (byte) (group >>> 8);
+        bytes[index * 2 + 1] = (byte) group;
+    }
+}
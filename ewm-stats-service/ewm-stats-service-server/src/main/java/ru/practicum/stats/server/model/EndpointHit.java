@@ -2,6 +2,7 @@ package ru.practicum.stats.server.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import ru.practicum.stats.server.mapper.IpAddresses;
 
 import java.time.LocalDateTime;
 
@@ -18,14 +19,20 @@ public class EndpointHit {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, length = 255)
+    @Column(name = "app_id", nullable = false)
+    private Integer appId;
+
+    @Column(name = "uri_id", nullable = false)
+    private Integer uriId;
+
+    @Transient
     private String app;
 
-    @Column(nullable = false, length = 512)
+    @Transient
     private String uri;
 
-    @Column(nullable = false, length = 45)
-    private String ip;
+    @Column(nullable = false, length = IpAddresses.LENGTH)
+    private byte[] ip;
 
     @Column(name = "hit_timestamp", nullable = false)
     private LocalDateTime timestamp;
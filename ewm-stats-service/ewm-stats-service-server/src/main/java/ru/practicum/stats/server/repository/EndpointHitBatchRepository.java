@@ -0,0 +1,10 @@
+package ru.practicum.stats.server.repository;
+
+import ru.practicum.stats.server.model.EndpointHit;
+
+import java.util.Collection;
+
+public interface EndpointHitBatchRepository {
+
+    int insertAll(Collection<EndpointHit> hits);
+}
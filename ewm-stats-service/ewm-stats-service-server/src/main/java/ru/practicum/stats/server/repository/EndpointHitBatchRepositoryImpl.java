@@ -0,0 +1,51 @@
+package ru.practicum.stats.server.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.stats.server.model.EndpointHit;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+public class EndpointHitBatchRepositoryImpl implements EndpointHitBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO endpoint_hits (app_id, uri_id, ip, hit_timestamp) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HitDictionary hitDictionary;
+    private final int batchSize;
+
+    public EndpointHitBatchRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                          HitDictionary hitDictionary,
+                                          @Value("${stats.ingest.jdbc-batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.hitDictionary = hitDictionary;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public int insertAll(Collection<EndpointHit> hits) {
+        if (hits == null || hits.isEmpty()) {
+            return 0;
+        }
+        Map<String, Integer> appIds = hitDictionary.appIds(hits.stream().map(EndpointHit::getApp).toList());
+        Map<String, Integer> uriIds = hitDictionary.uriIds(hits.stream().map(EndpointHit::getUri).toList());
+        for (EndpointHit hit : hits) {
+            hit.setAppId(appIds.get(hit.getApp()));
+            hit.setUriId(uriIds.get(hit.getUri()));
+        }
+        int[][] results = jdbcTemplate.batchUpdate(INSERT_SQL, hits, batchSize, (ps, hit) -> {
+            ps.setInt(1, hit.getAppId());
+            ps.setInt(2, hit.getUriId());
+            ps.setBytes(3, hit.getIp());
+            ps.setTimestamp(4, Timestamp.valueOf(hit.getTimestamp()));
+        });
+        return Arrays.stream(results)
+                .flatMapToInt(Arrays::stream)
+                .map(count -> count < 0 ? 1 : count)
+                .sum();
+    }
+}
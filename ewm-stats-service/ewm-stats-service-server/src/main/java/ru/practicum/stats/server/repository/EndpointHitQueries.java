@@ -0,0 +1,35 @@
+package ru.practicum.stats.server.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+final class EndpointHitQueries {
+
+    private EndpointHitQueries() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Builds a query returning {@code app, uri, hits} for hits in {@code [from, until)}. Grouping runs on the integer
+     * ids; names are joined in only for the grouped rows.
+     */
+    static String groupedHits(String hitsExpression,
+                              LocalDateTime from,
+                              LocalDateTime until,
+                              UriFilter uriFilter,
+                              List<Object> args) {
+        args.add(Timestamp.valueOf(from));
+        args.add(Timestamp.valueOf(until));
+        return """
+                SELECT a.app AS app, u.uri AS uri, s.hits AS hits
+                FROM (
+                    SELECT app_id, uri_id, %s AS hits
+                    FROM endpoint_hits
+                    WHERE hit_timestamp >= ? AND hit_timestamp < ? AND %s
+                    GROUP BY app_id, uri_id
+                ) s
+                JOIN apps a ON a.id = s.app_id
+                JOIN uris u ON u.id = s.uri_id""".formatted(hitsExpression, uriFilter.toIdSql("uri_id", args));
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.stats.server.repository;
+
+import ru.practicum.stats.dto.ViewStatsDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EndpointHitStatsRepository {
+
+    List<ViewStatsDto> findStats(LocalDateTime from, LocalDateTime until, UriFilter uriFilter, boolean unique);
+}
@@ -0,0 +1,27 @@
+package ru.practicum.stats.server.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.stats.dto.ViewStatsDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class EndpointHitStatsRepositoryImpl implements EndpointHitStatsRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<ViewStatsDto> findStats(LocalDateTime from, LocalDateTime until, UriFilter uriFilter, boolean unique) {
+        List<Object> args = new ArrayList<>();
+        String hits = unique ? "COUNT(DISTINCT ip)" : "COUNT(*)";
+        String sql = EndpointHitQueries.groupedHits(hits, from, until, uriFilter, args) + "\nORDER BY hits DESC";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> ViewStatsDto.builder()
+                .app(rs.getString("app"))
+                .uri(rs.getString("uri"))
+                .hits(rs.getLong("hits"))
+                .build(), args.toArray());
+    }
+}
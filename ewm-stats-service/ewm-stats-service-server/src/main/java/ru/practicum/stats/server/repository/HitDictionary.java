@@ -0,0 +1,131 @@
+package ru.practicum.stats.server.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.util.*;
+
+/**
+ * Maps app names and uris to the integer ids stored in {@code endpoint_hits}. Missing entries are inserted on the
+ * caller's connection and cached only after its transaction commits, so a cached id never refers to a rolled back
+ * row and a batch never needs a second pooled connection. Each table keeps at most
+ * {@code stats.dictionary.max-cached-entries} names, evicting the least recently used.
+ */
+@Component
+public class HitDictionary {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Table apps;
+    private final Table uris;
+
+    public HitDictionary(JdbcTemplate jdbcTemplate,
+                         @Value("${stats.dictionary.max-cached-entries:100000}") int maxCachedEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.apps = new Table("apps", "app", maxCachedEntries);
+        this.uris = new Table("uris", "uri", maxCachedEntries);
+    }
+
+    public Map<String, Integer> appIds(Collection<String> names) {
+        return apps.resolve(names);
+    }
+
+    public Map<String, Integer> uriIds(Collection<String> names) {
+        return uris.resolve(names);
+    }
+
+    private final class Table {
+
+        private final String selectSql;
+        private final String insertSql;
+        private final Map<String, Integer> cache;
+
+        private Table(String table, String column, int maxCachedEntries) {
+            this.selectSql = "SELECT id, %2$s FROM %1$s WHERE %2$s = ANY (?)".formatted(table, column);
+            this.insertSql = """
+                    INSERT INTO %1$s (%2$s)
+                    SELECT name FROM unnest(?::varchar[]) AS name ORDER BY name
+                    ON CONFLICT (%2$s) DO NOTHING
+                    RETURNING id, %2$s
+                    """.formatted(table, column);
+            int capacity = Math.max(1, maxCachedEntries);
+            this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        Map<String, Integer> resolve(Collection<String> names) {
+            Map<String, Integer> ids = new HashMap<>();
+            Set<String> missing = new TreeSet<>();
+            synchronized (cache) {
+                for (String name : names) {
+                    Integer id = cache.get(name);
+                    if (id != null) {
+                        ids.put(name, id);
+                    } else {
+                        missing.add(name);
+                    }
+                }
+            }
+            if (missing.isEmpty()) {
+                return ids;
+            }
+            Map<String, Integer> loaded = load(missing);
+            ids.putAll(loaded);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        remember(loaded);
+                    }
+                });
+            } else {
+                remember(loaded);
+            }
+            return ids;
+        }
+
+        private void remember(Map<String, Integer> loaded) {
+            synchronized (cache) {
+                cache.putAll(loaded);
+            }
+        }
+
+        private Map<String, Integer> load(Set<String> names) {
+            Map<String, Integer> loaded = select(names);
+            if (loaded.size() < names.size()) {
+                Set<String> absent = new TreeSet<>(names);
+                absent.removeAll(loaded.keySet());
+                Map<String, Integer> inserted = query(insertSql, absent);
+                loaded.putAll(inserted);
+                if (inserted.size() < absent.size()) {
+                    // inserted concurrently by another transaction, which ON CONFLICT waited for
+                    absent.removeAll(inserted.keySet());
+                    loaded.putAll(select(absent));
+                }
+            }
+            return loaded;
+        }
+
+        private Map<String, Integer> select(Set<String> names) {
+            return query(selectSql, names);
+        }
+
+        private Map<String, Integer> query(String sql, Set<String> names) {
+            Map<String, Integer> found = new HashMap<>();
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql);
+                ps.setArray(1, con.createArrayOf("varchar", names.toArray()));
+                return ps;
+            }, (RowCallbackHandler) rs -> found.put(rs.getString(2), rs.getInt(1)));
+            return found;
+        }
+    }
+}
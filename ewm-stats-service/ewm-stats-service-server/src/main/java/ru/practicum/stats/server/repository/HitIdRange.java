@@ -0,0 +1,4 @@
+package ru.practicum.stats.server.repository;
+
+public record HitIdRange(long first, long last) {
+}
@@ -0,0 +1,26 @@
+package ru.practicum.stats.server.repository;
+
+/**
+ * Steps of the {@code endpoint_hits} layout migration. Batch steps work on an id range and may be repeated after an
+ * interrupted run.
+ */
+public interface HitMigrationRepository {
+
+    boolean isDictionaryEncoded();
+
+    HitIdRange findIdRange();
+
+    void prepareDictionaryEncoding();
+
+    int encodeDictionaryBatch(long afterId, long untilId);
+
+    void finishDictionaryEncoding();
+
+    boolean isIpBinary();
+
+    void prepareIpConversion();
+
+    int convertIpBatch(long afterId, long untilId);
+
+    void finishIpConversion();
+}
@@ -0,0 +1,12 @@
+package ru.practicum.stats.server.repository;
+
+import java.time.LocalDateTime;
+
+public record HitPartition(String name, LocalDateTime from, LocalDateTime until) {
+
+    public boolean overlaps(LocalDateTime otherFrom, LocalDateTime otherUntil) {
+        boolean startsBeforeOtherEnds = from == null || from.isBefore(otherUntil);
+        boolean endsAfterOtherStarts = until == null || until.isAfter(otherFrom);
+        return startsBeforeOtherEnds && endsAfterOtherStarts;
+    }
+}
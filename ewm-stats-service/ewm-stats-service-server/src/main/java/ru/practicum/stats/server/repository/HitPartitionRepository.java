@@ -0,0 +1,28 @@
+package ru.practicum.stats.server.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface HitPartitionRepository {
+
+    void createUriIndex();
+
+    boolean isPartitioned();
+
+    LocalDateTime findLatestHitTimestamp();
+
+    void convertToPartitioned(LocalDateTime legacyUntil);
+
+    void createDefaultPartition();
+
+    List<HitPartition> findPartitions();
+
+    void createPartition(HitPartition partition);
+
+    /**
+     * Deletes hits older than {@code cutoff} from whichever partitions still hold them, including the default one.
+     */
+    int deleteHitsBefore(LocalDateTime cutoff);
+
+    void dropPartition(String name);
+}
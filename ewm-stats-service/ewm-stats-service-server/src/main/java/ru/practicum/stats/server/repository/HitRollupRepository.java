@@ -0,0 +1,23 @@
+package ru.practicum.stats.server.repository;
+
+import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.model.EndpointHit;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface HitRollupRepository {
+
+    void increment(Collection<EndpointHit> hits);
+
+    List<ViewStatsDto> findStats(RollupGranularity granularity,
+                                 LocalDateTime from,
+                                 LocalDateTime until,
+                                 UriFilter uriFilter);
+
+    /**
+     * Deletes buckets of every granularity that start before {@code cutoff}.
+     */
+    int deleteBucketsBefore(LocalDateTime cutoff);
+}
@@ -0,0 +1,30 @@
+package ru.practicum.stats.server.repository;
+
+import ru.practicum.stats.server.sketch.HyperLogLog;
+import ru.practicum.stats.server.sketch.SketchKey;
+import ru.practicum.stats.server.sketch.UriSketch;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public interface HitSketchRepository {
+
+    void mergeAll(Map<SketchKey, HyperLogLog> sketches);
+
+    List<UriSketch> findSketches(LocalDateTime from, LocalDateTime until, UriFilter uriFilter);
+
+    List<UriSketch> findRawSketches(LocalDateTime from, LocalDateTime until, UriFilter uriFilter);
+
+    boolean isEmpty();
+
+    void backfillFromHits();
+
+    /**
+     * Rebuilds the sketches of hits at or after {@code from} and merges them into the stored ones. Sketch merges are
+     * idempotent, so visitors that are already counted are not counted twice.
+     */
+    void backfillFromHits(LocalDateTime from);
+
+    int deleteBucketsBefore(LocalDateTime cutoff);
+}
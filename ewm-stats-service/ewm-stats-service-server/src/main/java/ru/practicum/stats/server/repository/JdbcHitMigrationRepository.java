@@ -0,0 +1,174 @@
+package ru.practicum.stats.server.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.stats.server.mapper.IpAddresses;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class JdbcHitMigrationRepository implements HitMigrationRepository {
+
+    private static final String ROLLUP_BACKFILL_STEP = "backfill_";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean isDictionaryEncoded() {
+        return !hasColumn("uri");
+    }
+
+    @Override
+    public HitIdRange findIdRange() {
+        return jdbcTemplate.queryForObject("SELECT MIN(id), MAX(id) FROM endpoint_hits", (rs, rowNum) -> {
+            long first = rs.getLong(1);
+            return rs.wasNull() ? null : new HitIdRange(first, rs.getLong(2));
+        });
+    }
+
+    /**
+     * Adds the nullable id columns. Rollup tables that are still empty at this point predate the rollups and are
+     * marked for backfill, so the decision survives an interrupted run.
+     */
+    @Override
+    public void prepareDictionaryEncoding() {
+        if (hasColumn("uri_id")) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE endpoint_hits ADD COLUMN app_id INTEGER, ADD COLUMN uri_id INTEGER");
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            jdbcTemplate.update("""
+                    INSERT INTO hit_migrations (step)
+                    SELECT ? WHERE NOT EXISTS (SELECT 1 FROM %s)
+                    ON CONFLICT (step) DO NOTHING
+                    """.formatted(granularity.getTable()), ROLLUP_BACKFILL_STEP + granularity.getTable());
+        }
+    }
+
+    /**
+     * Encodes the hits with ids in {@code (afterId, untilId]} that still have no ids. Rollups are backfilled from
+     * the same rows in the same transaction, so every hit is counted once however often a batch is repeated.
+     */
+    @Override
+    public int encodeDictionaryBatch(long afterId, long untilId) {
+        List<String> steps = jdbcTemplate.queryForList("SELECT step FROM hit_migrations", String.class);
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            if (steps.contains(ROLLUP_BACKFILL_STEP + granularity.getTable())) {
+                jdbcTemplate.update("""
+                        INSERT INTO %1$s (app, uri, bucket, hits)
+                        SELECT app, uri, date_trunc('%2$s', hit_timestamp), COUNT(*)
+                        FROM endpoint_hits
+                        WHERE id > ? AND id <= ? AND app_id IS NULL
+                        GROUP BY app, uri, date_trunc('%2$s', hit_timestamp)
+                        ON CONFLICT (app, uri, bucket) DO UPDATE SET hits = %1$s.hits + EXCLUDED.hits
+                        """.formatted(granularity.getTable(), granularity.name().toLowerCase()), afterId, untilId);
+            }
+        }
+        jdbcTemplate.update("""
+                INSERT INTO apps (app)
+                SELECT DISTINCT app FROM endpoint_hits WHERE id > ? AND id <= ? AND app_id IS NULL
+                ON CONFLICT (app) DO NOTHING
+                """, afterId, untilId);
+        jdbcTemplate.update("""
+                INSERT INTO uris (uri)
+                SELECT DISTINCT uri FROM endpoint_hits WHERE id > ? AND id <= ? AND app_id IS NULL
+                ON CONFLICT (uri) DO NOTHING
+                """, afterId, untilId);
+        return jdbcTemplate.update("""
+                UPDATE endpoint_hits h SET app_id = a.id, uri_id = u.id
+                FROM apps a, uris u
+                WHERE h.id > ? AND h.id <= ? AND h.app_id IS NULL AND a.app = h.app AND u.uri = h.uri
+                """, afterId, untilId);
+    }
+
+    /**
+     * Makes the ids mandatory and drops the string columns. Refuses to drop anything while a hit is left without
+     * ids, e.g. one written by an older server during the migration.
+     */
+    @Override
+    public void finishDictionaryEncoding() {
+        Boolean incomplete = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM endpoint_hits WHERE app_id IS NULL OR uri_id IS NULL)", Boolean.class);
+        if (Boolean.TRUE.equals(incomplete)) {
+            throw new IllegalStateException("endpoint_hits still has rows without dictionary ids");
+        }
+        jdbcTemplate.execute("""
+                ALTER TABLE endpoint_hits
+                    ALTER COLUMN app_id SET NOT NULL,
+                    ALTER COLUMN uri_id SET NOT NULL,
+                    DROP COLUMN app,
+                    DROP COLUMN uri,
+                    ADD FOREIGN KEY (app_id) REFERENCES apps(id),
+                    ADD FOREIGN KEY (uri_id) REFERENCES uris(id)
+                """);
+        jdbcTemplate.update("DELETE FROM hit_migrations WHERE step LIKE ?", ROLLUP_BACKFILL_STEP + "%");
+    }
+
+    @Override
+    public boolean isIpBinary() {
+        Boolean binary = jdbcTemplate.queryForObject("""
+                SELECT EXISTS (
+                    SELECT 1 FROM pg_attribute
+                    WHERE attrelid = to_regclass('endpoint_hits') AND attname = 'ip'
+                      AND atttypid = 'bytea'::regtype AND NOT attisdropped
+                )
+                """, Boolean.class);
+        return Boolean.TRUE.equals(binary);
+    }
+
+    @Override
+    public void prepareIpConversion() {
+        jdbcTemplate.execute("ALTER TABLE endpoint_hits ADD COLUMN IF NOT EXISTS ip_bytes BYTEA");
+    }
+
+    /**
+     * Fills {@code ip_bytes} for the hits with ids in {@code (afterId, untilId]}. Distinct values are encoded by
+     * {@link IpAddresses#encode(String)}, the same way new hits are stored.
+     */
+    @Override
+    public int convertIpBatch(long afterId, long untilId) {
+        List<String> ips = jdbcTemplate.queryForList(
+                "SELECT DISTINCT ip FROM endpoint_hits WHERE id > ? AND id <= ? AND ip_bytes IS NULL",
+                String.class, afterId, untilId);
+        List<Object[]> rows = new ArrayList<>(ips.size());
+        for (String ip : ips) {
+            rows.add(new Object[]{IpAddresses.encode(ip), afterId, untilId, ip});
+        }
+        int converted = 0;
+        for (int count : jdbcTemplate.batchUpdate("""
+                UPDATE endpoint_hits SET ip_bytes = ?
+                WHERE id > ? AND id <= ? AND ip = ? AND ip_bytes IS NULL
+                """, rows)) {
+            converted += count;
+        }
+        return converted;
+    }
+
+    /**
+     * Replaces the text column with the binary one. Refuses while a hit is left without {@code ip_bytes}.
+     */
+    @Override
+    public void finishIpConversion() {
+        Boolean incomplete = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM endpoint_hits WHERE ip_bytes IS NULL)", Boolean.class);
+        if (Boolean.TRUE.equals(incomplete)) {
+            throw new IllegalStateException("endpoint_hits still has rows without binary ips");
+        }
+        jdbcTemplate.execute("ALTER TABLE endpoint_hits DROP COLUMN ip");
+        jdbcTemplate.execute("ALTER TABLE endpoint_hits RENAME COLUMN ip_bytes TO ip");
+        jdbcTemplate.execute("ALTER TABLE endpoint_hits ALTER COLUMN ip SET NOT NULL");
+    }
+
+    private boolean hasColumn(String column) {
+        Boolean exists = jdbcTemplate.queryForObject("""
+                SELECT EXISTS (
+                    SELECT 1 FROM pg_attribute
+                    WHERE attrelid = to_regclass('endpoint_hits') AND attname = ? AND NOT attisdropped
+                )
+                """, Boolean.class, column);
+        return Boolean.TRUE.equals(exists);
+    }
+}
@@ -0,0 +1,170 @@
+package ru.practicum.stats.server.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Repository
+@RequiredArgsConstructor
+public class JdbcHitPartitionRepository implements HitPartitionRepository {
+
+    private static final String LEGACY_PARTITION = "endpoint_hits_legacy";
+    private static final String DEFAULT_PARTITION = "endpoint_hits_default";
+
+    private static final Pattern RANGE_BOUND = Pattern.compile(
+            "FROM \\((MINVALUE|'[^']*')\\) TO \\((MAXVALUE|'[^']*')\\)");
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final Pattern PARTITION_NAME = Pattern.compile("[a-z0-9_]+");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void createUriIndex() {
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_endpoint_hits_uri_id_timestamp "
+                + "ON endpoint_hits(uri_id, hit_timestamp)");
+    }
+
+    @Override
+    public boolean isPartitioned() {
+        Boolean partitioned = jdbcTemplate.queryForObject("""
+                SELECT EXISTS (
+                    SELECT 1 FROM pg_partitioned_table pt
+                    JOIN pg_class c ON c.oid = pt.partrelid
+                    WHERE c.oid = to_regclass('endpoint_hits')
+                )
+                """, Boolean.class);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    @Override
+    public LocalDateTime findLatestHitTimestamp() {
+        Timestamp latest = jdbcTemplate.queryForObject("SELECT MAX(hit_timestamp) FROM endpoint_hits", Timestamp.class);
+        return latest == null ? null : latest.toLocalDateTime();
+    }
+
+    @Override
+    @Transactional
+    public void convertToPartitioned(LocalDateTime legacyUntil) {
+        jdbcTemplate.execute("ALTER TABLE endpoint_hits RENAME TO " + LEGACY_PARTITION);
+        jdbcTemplate.execute("ALTER INDEX IF EXISTS idx_endpoint_hits_timestamp "
+                + "RENAME TO idx_endpoint_hits_legacy_timestamp");
+        jdbcTemplate.execute("ALTER INDEX IF EXISTS idx_endpoint_hits_uri_id_timestamp "
+                + "RENAME TO idx_endpoint_hits_legacy_uri_id_timestamp");
+        jdbcTemplate.execute("""
+                CREATE TABLE endpoint_hits (
+                    id            BIGINT       NOT NULL DEFAULT nextval('endpoint_hits_id_seq'),
+                    app_id        INTEGER      NOT NULL REFERENCES apps(id),
+                    uri_id        INTEGER      NOT NULL REFERENCES uris(id),
+                    ip            BYTEA        NOT NULL,
+                    hit_timestamp TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+                    PRIMARY KEY (id, hit_timestamp)
+                ) PARTITION BY RANGE (hit_timestamp)
+                """);
+        jdbcTemplate.execute("ALTER SEQUENCE endpoint_hits_id_seq OWNED BY endpoint_hits.id");
+        jdbcTemplate.execute("CREATE INDEX idx_endpoint_hits_timestamp ON endpoint_hits(hit_timestamp)");
+        createUriIndex();
+        jdbcTemplate.execute("ALTER TABLE endpoint_hits ATTACH PARTITION " + LEGACY_PARTITION
+                + " FOR VALUES FROM (MINVALUE) TO ('" + legacyUntil.format(BOUND_FORMAT) + "')");
+    }
+
+    @Override
+    public void createDefaultPartition() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + DEFAULT_PARTITION + " PARTITION OF endpoint_hits DEFAULT");
+    }
+
+    @Override
+    public List<HitPartition> findPartitions() {
+        return jdbcTemplate.query("""
+                SELECT c.relname AS name, pg_get_expr(c.relpartbound, c.oid) AS bound
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = to_regclass('endpoint_hits')
+                ORDER BY c.relname
+                """, (rs, rowNum) -> parsePartition(rs.getString("name"), rs.getString("bound")))
+                .stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Creates the partition. Hits already routed to the default partition for that range would make the plain
+     * {@code CREATE} fail, so in that case the default partition is detached, the new partition created, the hits
+     * moved into it and the default partition attached again, all in one transaction.
+     */
+    @Override
+    @Transactional
+    public void createPartition(HitPartition partition) {
+        Timestamp from = Timestamp.valueOf(partition.from());
+        Timestamp until = Timestamp.valueOf(partition.until());
+        boolean stranded = hasDefaultPartition() && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION
+                        + " WHERE hit_timestamp >= ? AND hit_timestamp < ?)", Boolean.class, from, until));
+        if (stranded) {
+            jdbcTemplate.execute("ALTER TABLE endpoint_hits DETACH PARTITION " + DEFAULT_PARTITION);
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + checkName(partition.name())
+                + " PARTITION OF endpoint_hits FOR VALUES FROM ('" + partition.from().format(BOUND_FORMAT)
+                + "') TO ('" + partition.until().format(BOUND_FORMAT) + "')");
+        if (stranded) {
+            jdbcTemplate.update("""
+                    WITH moved AS (
+                        DELETE FROM %s WHERE hit_timestamp >= ? AND hit_timestamp < ?
+                        RETURNING id, app_id, uri_id, ip, hit_timestamp
+                    )
+                    INSERT INTO endpoint_hits (id, app_id, uri_id, ip, hit_timestamp)
+                    SELECT id, app_id, uri_id, ip, hit_timestamp FROM moved
+                    """.formatted(DEFAULT_PARTITION), from, until);
+            jdbcTemplate.execute("ALTER TABLE endpoint_hits ATTACH PARTITION " + DEFAULT_PARTITION + " DEFAULT");
+        }
+    }
+
+    @Override
+    public int deleteHitsBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM endpoint_hits WHERE hit_timestamp < ?", Timestamp.valueOf(cutoff));
+    }
+
+    @Override
+    public void dropPartition(String name) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + checkName(name));
+    }
+
+    private boolean hasDefaultPartition() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, DEFAULT_PARTITION));
+    }
+
+    static HitPartition parsePartition(String name, String bound) {
+        if (bound == null) {
+            return null;
+        }
+        Matcher matcher = RANGE_BOUND.matcher(bound);
+        if (!matcher.find()) {
+            return null;
+        }
+        return new HitPartition(name, parseBound(matcher.group(1)), parseBound(matcher.group(2)));
+    }
+
+    private static LocalDateTime parseBound(String value) {
+        if (value.startsWith("'")) {
+            String literal = value.substring(1, value.length() - 1);
+            return LocalDateTime.parse(literal.length() > 19 ? literal.substring(0, 19) : literal, BOUND_FORMAT);
+        }
+        return null;
+    }
+
+    private static String checkName(String name) {
+        if (!PARTITION_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Illegal partition name: " + name);
+        }
+        return name;
+    }
+}
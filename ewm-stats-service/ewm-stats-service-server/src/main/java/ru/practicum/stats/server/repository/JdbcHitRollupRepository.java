@@ -0,0 +1,81 @@
+package ru.practicum.stats.server.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.model.EndpointHit;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Repository
+@RequiredArgsConstructor
+public class JdbcHitRollupRepository implements HitRollupRepository {
+
+    private static final Comparator<BucketKey> KEY_ORDER = Comparator.comparing(BucketKey::app)
+            .thenComparing(BucketKey::uri)
+            .thenComparing(BucketKey::bucket);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void increment(Collection<EndpointHit> hits) {
+        if (hits == null || hits.isEmpty()) {
+            return;
+        }
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            Map<BucketKey, Long> counts = new TreeMap<>(KEY_ORDER);
+            for (EndpointHit hit : hits) {
+                BucketKey key = new BucketKey(hit.getApp(), hit.getUri(),
+                        hit.getTimestamp().truncatedTo(granularity.getUnit()));
+                counts.merge(key, 1L, Long::sum);
+            }
+            String sql = """
+                    INSERT INTO %s (app, uri, bucket, hits) VALUES (?, ?, ?, ?)
+                    ON CONFLICT (app, uri, bucket) DO UPDATE SET hits = %s.hits + EXCLUDED.hits
+                    """.formatted(granularity.getTable(), granularity.getTable());
+            jdbcTemplate.batchUpdate(sql, counts.entrySet(), counts.size(), (ps, entry) -> {
+                ps.setString(1, entry.getKey().app());
+                ps.setString(2, entry.getKey().uri());
+                ps.setTimestamp(3, Timestamp.valueOf(entry.getKey().bucket()));
+                ps.setLong(4, entry.getValue());
+            });
+        }
+    }
+
+    @Override
+    public List<ViewStatsDto> findStats(RollupGranularity granularity,
+                                        LocalDateTime from,
+                                        LocalDateTime until,
+                                        UriFilter uriFilter) {
+        List<Object> args = new ArrayList<>();
+        args.add(Timestamp.valueOf(from));
+        args.add(Timestamp.valueOf(until));
+        String sql = """
+                SELECT app, uri, SUM(hits) AS hits
+                FROM %s
+                WHERE bucket >= ? AND bucket < ? AND %s
+                GROUP BY app, uri
+                """.formatted(granularity.getTable(), uriFilter.toSql("uri", args));
+        return jdbcTemplate.query(sql, (rs, rowNum) -> ViewStatsDto.builder()
+                .app(rs.getString("app"))
+                .uri(rs.getString("uri"))
+                .hits(rs.getLong("hits"))
+                .build(), args.toArray());
+    }
+
+    @Override
+    public int deleteBucketsBefore(LocalDateTime cutoff) {
+        int deleted = 0;
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            deleted += jdbcTemplate.update("DELETE FROM " + granularity.getTable() + " WHERE bucket < ?",
+                    Timestamp.valueOf(cutoff));
+        }
+        return deleted;
+    }
+
+    private record BucketKey(String app, String uri, LocalDateTime bucket) {
+    }
+}
@@ -0,0 +1,166 @@
+package ru.practicum.stats.server.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.stats.server.sketch.HyperLogLog;
+import ru.practicum.stats.server.sketch.SketchKey;
+import ru.practicum.stats.server.sketch.UriSketch;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Repository
+@RequiredArgsConstructor
+public class JdbcHitSketchRepository implements HitSketchRepository {
+
+    private static final Comparator<SketchKey> KEY_ORDER = Comparator.comparing(SketchKey::app)
+            .thenComparing(SketchKey::uri)
+            .thenComparing(SketchKey::bucket);
+    private static final int BACKFILL_FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void mergeAll(Map<SketchKey, HyperLogLog> sketches) {
+        List<SketchKey> keys = new ArrayList<>(sketches.keySet());
+        keys.sort(KEY_ORDER);
+        for (SketchKey key : keys) {
+            merge(key, sketches.get(key));
+        }
+    }
+
+    @Override
+    public List<UriSketch> findSketches(LocalDateTime from, LocalDateTime until, UriFilter uriFilter) {
+        List<Object> args = new ArrayList<>();
+        args.add(Timestamp.valueOf(from));
+        args.add(Timestamp.valueOf(until));
+        String sql = """
+                SELECT app, uri, sketch
+                FROM hit_sketch_hour
+                WHERE bucket >= ? AND bucket < ? AND %s
+                """.formatted(uriFilter.toSql("uri", args));
+        Map<List<String>, UriSketch> merged = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            String app = rs.getString("app");
+            String uri = rs.getString("uri");
+            HyperLogLog sketch = HyperLogLog.fromBytes(rs.getBytes("sketch"));
+            merged.merge(List.of(app, uri), new UriSketch(app, uri, sketch), (left, right) -> {
+                left.sketch().merge(right.sketch());
+                return left;
+            });
+        }, args.toArray());
+        return new ArrayList<>(merged.values());
+    }
+
+    @Override
+    public boolean isEmpty() {
+        Boolean exists = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM hit_sketch_hour)", Boolean.class);
+        return !Boolean.TRUE.equals(exists);
+    }
+
+    @Override
+    public List<UriSketch> findRawSketches(LocalDateTime from, LocalDateTime until, UriFilter uriFilter) {
+        List<Object> args = new ArrayList<>();
+        args.add(Timestamp.valueOf(from));
+        args.add(Timestamp.valueOf(until));
+        String sql = """
+                SELECT a.app AS app, u.uri AS uri, s.ip AS ip
+                FROM (
+                    SELECT DISTINCT app_id, uri_id, ip
+                    FROM endpoint_hits
+                    WHERE hit_timestamp >= ? AND hit_timestamp < ? AND %s
+                ) s
+                JOIN apps a ON a.id = s.app_id
+                JOIN uris u ON u.id = s.uri_id
+                """.formatted(uriFilter.toIdSql("uri_id", args));
+        Map<List<String>, UriSketch> sketches = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            String app = rs.getString("app");
+            String uri = rs.getString("uri");
+            sketches.computeIfAbsent(List.of(app, uri), key -> new UriSketch(app, uri, new HyperLogLog()))
+                    .sketch()
+                    .add(rs.getBytes("ip"));
+        }, args.toArray());
+        return new ArrayList<>(sketches.values());
+    }
+
+    @Override
+    @Transactional
+    public void backfillFromHits() {
+        backfill("TRUE");
+    }
+
+    @Override
+    @Transactional
+    public void backfillFromHits(LocalDateTime from) {
+        backfill("h.hit_timestamp >= ?", Timestamp.valueOf(from));
+    }
+
+    @Override
+    public int deleteBucketsBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM hit_sketch_hour WHERE bucket < ?", Timestamp.valueOf(cutoff));
+    }
+
+    private void backfill(String condition, Object... args) {
+        JdbcTemplate streaming = new JdbcTemplate(Objects.requireNonNull(jdbcTemplate.getDataSource()));
+        streaming.setFetchSize(BACKFILL_FETCH_SIZE);
+        BackfillHandler handler = new BackfillHandler();
+        streaming.query("""
+                SELECT a.app AS app, u.uri AS uri, date_trunc('hour', h.hit_timestamp) AS bucket, h.ip AS ip
+                FROM endpoint_hits h
+                JOIN apps a ON a.id = h.app_id
+                JOIN uris u ON u.id = h.uri_id
+                WHERE %s
+                ORDER BY h.app_id, h.uri_id, bucket
+                """.formatted(condition), handler, args);
+        handler.flush();
+    }
+
+    private void merge(SketchKey key, HyperLogLog sketch) {
+        Timestamp bucket = Timestamp.valueOf(key.bucket());
+        int inserted = jdbcTemplate.update("""
+                INSERT INTO hit_sketch_hour (app, uri, bucket, sketch) VALUES (?, ?, ?, ?)
+                ON CONFLICT (app, uri, bucket) DO NOTHING
+                """, key.app(), key.uri(), bucket, sketch.toBytes());
+        if (inserted > 0) {
+            return;
+        }
+        byte[] stored = jdbcTemplate.queryForObject("""
+                SELECT sketch FROM hit_sketch_hour WHERE app = ? AND uri = ? AND bucket = ? FOR UPDATE
+                """, byte[].class, key.app(), key.uri(), bucket);
+        HyperLogLog merged = HyperLogLog.fromBytes(stored).merge(sketch);
+        jdbcTemplate.update("UPDATE hit_sketch_hour SET sketch = ? WHERE app = ? AND uri = ? AND bucket = ?",
+                merged.toBytes(), key.app(), key.uri(), bucket);
+    }
+
+    private class BackfillHandler implements RowCallbackHandler {
+
+        private SketchKey currentKey;
+        private HyperLogLog currentSketch;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            SketchKey key = new SketchKey(rs.getString("app"), rs.getString("uri"),
+                    rs.getTimestamp("bucket").toLocalDateTime());
+            if (!key.equals(currentKey)) {
+                flush();
+                currentKey = key;
+                currentSketch = new HyperLogLog();
+            }
+            currentSketch.add(rs.getBytes("ip"));
+        }
+
+        void flush() {
+            if (currentKey != null) {
+                merge(currentKey, currentSketch);
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.stats.server.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.stats.dto.ViewStatsDto;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+@Repository
+public class JdbcStatsStreamRepository implements StatsStreamRepository {
+
+    private final JdbcTemplate streaming;
+
+    public JdbcStatsStreamRepository(JdbcTemplate jdbcTemplate,
+                                     @Value("${stats.streaming.fetch-size:1000}") int fetchSize) {
+        this.streaming = new JdbcTemplate(Objects.requireNonNull(jdbcTemplate.getDataSource()));
+        this.streaming.setFetchSize(fetchSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamStats(List<StatsSource> sources, UriFilter uriFilter, Consumer<ViewStatsDto> action) {
+        if (sources.isEmpty()) {
+            return;
+        }
+        List<Object> args = new ArrayList<>();
+        List<String> selects = new ArrayList<>();
+        for (StatsSource source : sources) {
+            if (source.isRaw()) {
+                selects.add(EndpointHitQueries.groupedHits("COUNT(*)", source.from(), source.until(), uriFilter, args));
+            } else {
+                args.add(Timestamp.valueOf(source.from()));
+                args.add(Timestamp.valueOf(source.until()));
+                selects.add("""
+                        SELECT app, uri, hits FROM %s
+                        WHERE bucket >= ? AND bucket < ? AND %s""".formatted(source.granularity().getTable(),
+                        uriFilter.toSql("uri", args)));
+            }
+        }
+        String sql = """
+                SELECT app, uri, SUM(hits) AS hits
+                FROM (%s) sources
+                GROUP BY app, uri
+                ORDER BY hits DESC
+                """.formatted(String.join("\nUNION ALL\n", selects));
+        streaming.query(sql, rowHandler(action), args.toArray());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamUniqueStats(LocalDateTime from,
+                                  LocalDateTime until,
+                                  UriFilter uriFilter,
+                                  Consumer<ViewStatsDto> action) {
+        List<Object> args = new ArrayList<>();
+        String sql = EndpointHitQueries.groupedHits("COUNT(DISTINCT ip)", from, until, uriFilter, args)
+                + "\nORDER BY hits DESC";
+        streaming.query(sql, rowHandler(action), args.toArray());
+    }
+
+    private static RowCallbackHandler rowHandler(Consumer<ViewStatsDto> action) {
+        return rs -> action.accept(ViewStatsDto.builder()
+                .app(rs.getString("app"))
+                .uri(rs.getString("uri"))
+                .hits(rs.getLong("hits"))
+                .build());
+    }
+}
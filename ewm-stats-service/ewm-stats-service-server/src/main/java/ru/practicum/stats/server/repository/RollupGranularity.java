@@ -0,0 +1,16 @@
+package ru.practicum.stats.server.repository;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.temporal.ChronoUnit;
+
+@Getter
+@RequiredArgsConstructor
+public enum RollupGranularity {
+    HOUR("hit_rollup_hour", ChronoUnit.HOURS),
+    MINUTE("hit_rollup_minute", ChronoUnit.MINUTES);
+
+    private final String table;
+    private final ChronoUnit unit;
+}
@@ -0,0 +1,18 @@
+package ru.practicum.stats.server.repository;
+
+import java.time.LocalDateTime;
+
+public record StatsSource(RollupGranularity granularity, LocalDateTime from, LocalDateTime until) {
+
+    public static StatsSource raw(LocalDateTime from, LocalDateTime until) {
+        return new StatsSource(null, from, until);
+    }
+
+    public static StatsSource rollup(RollupGranularity granularity, LocalDateTime from, LocalDateTime until) {
+        return new StatsSource(granularity, from, until);
+    }
+
+    public boolean isRaw() {
+        return granularity == null;
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.stats.server.repository;
+
+import ru.practicum.stats.dto.ViewStatsDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface StatsStreamRepository {
+
+    void streamStats(List<StatsSource> sources, UriFilter uriFilter, Consumer<ViewStatsDto> action);
+
+    void streamUniqueStats(LocalDateTime from, LocalDateTime until, UriFilter uriFilter, Consumer<ViewStatsDto> action);
+}
@@ -0,0 +1,124 @@
+package ru.practicum.stats.server.repository;
+
+import java.util.*;
+
+/**
+ * The {@code uris} selection of a stats query. A URI ending in {@code *} selects every URI with that prefix and a
+ * lone {@code *} selects all; to select a URI that really ends in {@code *}, escape it as {@code \*}. Anything else
+ * is matched exactly.
+ */
+public final class UriFilter {
+
+    public static final UriFilter NONE = new UriFilter(Set.of(), List.of());
+
+    private static final String PREFIX_WILDCARD = "*";
+    private static final String ESCAPED_WILDCARD = "\\*";
+
+    private final Set<String> exact;
+    private final List<String> prefixes;
+
+    private UriFilter(Set<String> exact, List<String> prefixes) {
+        this.exact = exact;
+        this.prefixes = prefixes;
+    }
+
+    public static UriFilter of(Collection<String> uris) {
+        if (uris == null || uris.isEmpty()) {
+            return NONE;
+        }
+        Set<String> exact = new LinkedHashSet<>();
+        List<String> prefixes = new ArrayList<>();
+        for (String uri : uris) {
+            if (uri == null || uri.isBlank()) {
+                continue;
+            }
+            if (uri.endsWith(ESCAPED_WILDCARD)) {
+                exact.add(uri.substring(0, uri.length() - ESCAPED_WILDCARD.length()) + PREFIX_WILDCARD);
+            } else if (uri.endsWith(PREFIX_WILDCARD)) {
+                String prefix = uri.substring(0, uri.length() - PREFIX_WILDCARD.length());
+                if (prefix.isEmpty()) {
+                    return NONE;
+                }
+                prefixes.add(prefix);
+            } else {
+                exact.add(uri);
+            }
+        }
+        if (exact.isEmpty() && prefixes.isEmpty()) {
+            return NONE;
+        }
+        return new UriFilter(Collections.unmodifiableSet(exact), List.copyOf(prefixes));
+    }
+
+    public boolean isEmpty() {
+        return exact.isEmpty() && prefixes.isEmpty();
+    }
+
+    public boolean matches(String uri) {
+        if (isEmpty()) {
+            return true;
+        }
+        if (uri == null) {
+            return false;
+        }
+        if (exact.contains(uri)) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (uri.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    String toSql(String column, List<Object> args) {
+        if (isEmpty()) {
+            return "TRUE";
+        }
+        StringJoiner clauses = new StringJoiner(" OR ", "(", ")");
+        if (!exact.isEmpty()) {
+            clauses.add(column + " IN (" + String.join(", ", Collections.nCopies(exact.size(), "?")) + ")");
+            args.addAll(exact);
+        }
+        for (String prefix : prefixes) {
+            clauses.add(column + " LIKE ? ESCAPE '\\'");
+            args.add(escapeLike(prefix) + "%");
+        }
+        return clauses.toString();
+    }
+
+    String toIdSql(String idColumn, List<Object> args) {
+        if (isEmpty()) {
+            return "TRUE";
+        }
+        return idColumn + " IN (SELECT id FROM uris WHERE " + toSql("uri", args) + ")";
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UriFilter other)) {
+            return false;
+        }
+        return exact.equals(other.exact) && prefixes.equals(other.prefixes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(exact, prefixes);
+    }
+
+    @Override
+    public String toString() {
+        return "UriFilter{exact=" + exact + ", prefixes=" + prefixes + "}";
+    }
+}
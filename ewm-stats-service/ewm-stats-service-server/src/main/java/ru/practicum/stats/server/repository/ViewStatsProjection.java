@@ -1,10 +0,0 @@
-package ru.practicum.stats.server.repository;
-
-public interface ViewStatsProjection {
-
-    String getApp();
-
-    String getUri();
-
-    Long getHits();
-}
@@ -0,0 +1,215 @@
+package ru.practicum.stats.server.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.stereotype.Component;
+import ru.practicum.stats.dto.EndpointHitDto;
+import ru.practicum.stats.server.exception.IngestOverloadedException;
+import ru.practicum.stats.server.exception.InvalidIpAddressException;
+import ru.practicum.stats.server.mapper.EndpointHitMapper;
+import ru.practicum.stats.server.model.EndpointHit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Accepts single hits into a bounded ring buffer and persists them from one writer thread, committing everything
+ * that accumulated while the previous batch was being written in a single transaction. A failed batch is retried
+ * with exponential backoff; when the database rejects its data, the batch is split in halves until the offending
+ * hits are isolated, so one bad row does not take already acknowledged hits down with it.
+ */
+@Slf4j
+@Component
+public class HitIngestPipeline {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final StatsService statsService;
+    private final IngestAckMode ackMode;
+    private final int maxBatchSize;
+    private final Duration commitTimeout;
+    private final int retryAttempts;
+    private final Duration retryBackoff;
+    private final HitRingBuffer<PendingHit> buffer;
+    private final Thread writer;
+    private final Counter committed;
+    private final Counter rejected;
+    private final Counter failed;
+    private volatile boolean running = true;
+    private volatile boolean writerParked;
+
+    public HitIngestPipeline(StatsService statsService,
+                             MeterRegistry meterRegistry,
+                             @Value("${stats.ingest.ack:ENQUEUE}") IngestAckMode ackMode,
+                             @Value("${stats.ingest.buffer-capacity:65536}") int bufferCapacity,
+                             @Value("${stats.ingest.max-batch-size:1000}") int maxBatchSize,
+                             @Value("${stats.ingest.commit-timeout:5s}") Duration commitTimeout,
+                             @Value("${stats.ingest.retry-attempts:3}") int retryAttempts,
+                             @Value("${stats.ingest.retry-backoff:200ms}") Duration retryBackoff) {
+        this.statsService = statsService;
+        this.ackMode = ackMode;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.commitTimeout = commitTimeout;
+        this.retryAttempts = Math.max(0, retryAttempts);
+        this.retryBackoff = retryBackoff;
+        this.buffer = new HitRingBuffer<>(bufferCapacity);
+        this.committed = Counter.builder("stats.ingest.hits").tag("result", "committed").register(meterRegistry);
+        this.rejected = Counter.builder("stats.ingest.hits").tag("result", "rejected").register(meterRegistry);
+        this.failed = Counter.builder("stats.ingest.hits").tag("result", "failed").register(meterRegistry);
+        Gauge.builder("stats.ingest.buffer.size", buffer, HitRingBuffer::size).register(meterRegistry);
+        this.writer = new Thread(this::runWriteLoop, "stats-hit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Enqueues the hit. The returned future completes immediately in {@link IngestAckMode#ENQUEUE} mode and once the
+     * hit is committed in {@link IngestAckMode#COMMIT} mode.
+     *
+     * @throws InvalidIpAddressException when the hit ip is blank
+     * @throws IngestOverloadedException when the buffer is full or the pipeline is shutting down
+     */
+    public CompletableFuture<Void> submit(EndpointHitDto hit) {
+        EndpointHit entity = EndpointHitMapper.toEntity(hit);
+        CompletableFuture<Void> ack = ackMode == IngestAckMode.COMMIT ? new CompletableFuture<>() : null;
+        if (!running || !buffer.offer(new PendingHit(entity, ack))) {
+            rejected.increment();
+            throw new IngestOverloadedException("Hit ingest buffer is full, retry later");
+        }
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+        if (ack == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return ack.orTimeout(commitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public int pending() {
+        return buffer.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(commitTimeout.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (!buffer.isEmpty()) {
+            log.warn("Stopped hit ingest with {} hits still buffered", buffer.size());
+        }
+    }
+
+    private void runWriteLoop() {
+        List<PendingHit> batch = new ArrayList<>(maxBatchSize);
+        while (running || !buffer.isEmpty()) {
+            if (buffer.drainTo(batch, maxBatchSize) == 0) {
+                park();
+                continue;
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void park() {
+        writerParked = true;
+        if (running && buffer.isEmpty()) {
+            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+        writerParked = false;
+    }
+
+    private void write(List<PendingHit> batch) {
+        RuntimeException failure = null;
+        for (int attempt = 0; attempt <= retryAttempts; attempt++) {
+            if (attempt > 0 && !backOff(attempt)) {
+                break;
+            }
+            failure = trySave(batch);
+            if (failure == null) {
+                return;
+            }
+            if (failure instanceof NonTransientDataAccessException) {
+                isolate(batch, failure);
+                return;
+            }
+            log.warn("Failed to commit batch of {} endpoint hits (attempt {}): {}",
+                    batch.size(), attempt + 1, failure.getMessage());
+        }
+        fail(batch, failure);
+    }
+
+    /**
+     * Saves the halves of a batch the database rejected separately, down to single hits.
+     */
+    private void isolate(List<PendingHit> batch, RuntimeException failure) {
+        if (batch.size() == 1) {
+            fail(batch, failure);
+            return;
+        }
+        int middle = batch.size() / 2;
+        for (List<PendingHit> half : List.of(batch.subList(0, middle), batch.subList(middle, batch.size()))) {
+            RuntimeException halfFailure = trySave(half);
+            if (halfFailure != null) {
+                isolate(half, halfFailure);
+            }
+        }
+    }
+
+    private RuntimeException trySave(List<PendingHit> batch) {
+        List<EndpointHit> hits = new ArrayList<>(batch.size());
+        batch.forEach(pending -> hits.add(pending.hit()));
+        try {
+            statsService.saveAll(hits);
+        } catch (RuntimeException ex) {
+            return ex;
+        }
+        committed.increment(batch.size());
+        batch.forEach(PendingHit::complete);
+        return null;
+    }
+
+    private void fail(List<PendingHit> batch, RuntimeException cause) {
+        failed.increment(batch.size());
+        log.error("Dropped batch of {} endpoint hits: {}", batch.size(), cause.getMessage());
+        batch.forEach(pending -> pending.fail(cause));
+    }
+
+    private boolean backOff(int attempt) {
+        try {
+            Thread.sleep(retryBackoff.multipliedBy(1L << (attempt - 1)));
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record PendingHit(EndpointHit hit, CompletableFuture<Void> ack) {
+
+        void complete() {
+            if (ack != null) {
+                ack.complete(null);
+            }
+        }
+
+        void fail(Throwable cause) {
+            if (ack != null) {
+                ack.completeExceptionally(cause);
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package ru.practicum.stats.server.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.stats.server.repository.HitPartition;
+import ru.practicum.stats.server.repository.HitPartitionRepository;
+import ru.practicum.stats.server.repository.HitRollupRepository;
+import ru.practicum.stats.server.repository.HitSketchRepository;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Keeps {@code endpoint_hits} partitioned ahead of time and, when {@code stats.partitioning.retention-days} is
+ * positive, expires old statistics. The cutoff is aligned to the hour and applied to raw hits, both rollups and the
+ * unique-visitor sketches in the same pass, so a range before it is empty whichever source answers it and a range
+ * spanning it counts only what comes after it.
+ */
+@Slf4j
+@Component
+public class HitPartitionMaintainer {
+
+    private final HitPartitionRepository hitPartitionRepository;
+    private final HitRollupRepository hitRollupRepository;
+    private final HitSketchRepository hitSketchRepository;
+    private final HitTableMigration hitTableMigration;
+    private final boolean migrationEnabled;
+    private final Clock clock;
+    private final PartitionInterval interval;
+    private final int premake;
+    private final int retentionDays;
+
+    public HitPartitionMaintainer(HitPartitionRepository hitPartitionRepository,
+                                  HitRollupRepository hitRollupRepository,
+                                  HitSketchRepository hitSketchRepository,
+                                  HitTableMigration hitTableMigration,
+                                  @Value("${stats.migration.run:false}") boolean migrationEnabled,
+                                  Clock clock,
+                                  @Value("${stats.partitioning.interval:DAY}") PartitionInterval interval,
+                                  @Value("${stats.partitioning.premake:7}") int premake,
+                                  @Value("${stats.partitioning.retention-days:0}") int retentionDays) {
+        this.hitPartitionRepository = hitPartitionRepository;
+        this.hitRollupRepository = hitRollupRepository;
+        this.hitSketchRepository = hitSketchRepository;
+        this.hitTableMigration = hitTableMigration;
+        this.migrationEnabled = migrationEnabled;
+        this.clock = clock;
+        this.interval = interval;
+        this.premake = Math.max(1, premake);
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * Prepares partitions on startup. A table written by an older server is only migrated when the server is
+     * explicitly started with {@code stats.migration.run=true}; otherwise startup fails instead of rewriting hits
+     * unattended.
+     */
+    @PostConstruct
+    public void initialize() {
+        if (hitTableMigration.isPending()) {
+            if (!migrationEnabled) {
+                throw new IllegalStateException("endpoint_hits has a legacy layout; start the server once with "
+                        + "stats.migration.run=true to migrate it");
+            }
+            hitTableMigration.run();
+        }
+        if (!hitPartitionRepository.isPartitioned()) {
+            LocalDateTime latest = hitPartitionRepository.findLatestHitTimestamp();
+            LocalDateTime now = LocalDateTime.now(clock);
+            LocalDateTime newest = latest != null && latest.isAfter(now) ? latest : now;
+            LocalDateTime legacyUntil = interval.next(interval.start(newest));
+            log.info("Converting endpoint_hits to a partitioned table, existing rows kept until {}", legacyUntil);
+            hitPartitionRepository.convertToPartitioned(legacyUntil);
+        }
+        hitPartitionRepository.createUriIndex();
+        hitPartitionRepository.createDefaultPartition();
+        maintain();
+    }
+
+    @Scheduled(cron = "${stats.partitioning.cron:0 5 * * * *}")
+    public void maintain() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<HitPartition> existing = hitPartitionRepository.findPartitions();
+        createUpcomingPartitions(now, existing);
+        expireStats(now, existing);
+    }
+
+    private void createUpcomingPartitions(LocalDateTime now, List<HitPartition> existing) {
+        LocalDateTime from = interval.start(now);
+        for (int i = 0; i <= premake; i++) {
+            LocalDateTime until = interval.next(from);
+            LocalDateTime periodFrom = from;
+            boolean covered = existing.stream().anyMatch(partition -> partition.overlaps(periodFrom, until));
+            if (!covered) {
+                HitPartition partition = new HitPartition(interval.partitionName(from), from, until);
+                try {
+                    hitPartitionRepository.createPartition(partition);
+                    log.debug("Created partition {}", partition);
+                } catch (RuntimeException ex) {
+                    log.error("Failed to create partition {}: {}", partition.name(), ex.getMessage());
+                }
+            }
+            from = until;
+        }
+    }
+
+    private void expireStats(LocalDateTime now, List<HitPartition> existing) {
+        if (retentionDays <= 0) {
+            return;
+        }
+        LocalDateTime cutoff = now.minusDays(retentionDays).truncatedTo(ChronoUnit.HOURS);
+        for (HitPartition partition : existing) {
+            if (partition.until() != null && !partition.until().isAfter(cutoff)) {
+                log.info("Dropping expired partition {}", partition.name());
+                hitPartitionRepository.dropPartition(partition.name());
+            }
+        }
+        int hits = hitPartitionRepository.deleteHitsBefore(cutoff);
+        int rollups = hitRollupRepository.deleteBucketsBefore(cutoff);
+        int sketches = hitSketchRepository.deleteBucketsBefore(cutoff);
+        if (hits > 0 || rollups > 0 || sketches > 0) {
+            log.info("Expired stats before {}: {} hits, {} rollup buckets, {} sketch buckets",
+                    cutoff, hits, rollups, sketches);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package ru.practicum.stats.server.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.model.EndpointHit;
+import ru.practicum.stats.server.repository.HitSketchRepository;
+import ru.practicum.stats.server.repository.RollupGranularity;
+import ru.practicum.stats.server.repository.UriFilter;
+import ru.practicum.stats.server.sketch.HyperLogLog;
+import ru.practicum.stats.server.sketch.SketchKey;
+import ru.practicum.stats.server.sketch.UriSketch;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class HitSketchAggregator {
+
+    private final HitSketchRepository hitSketchRepository;
+    private final Clock clock;
+    private final boolean backfillOnStartup;
+    private final Duration rebuildOnStartup;
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile Map<SketchKey, HyperLogLog> pending = new ConcurrentHashMap<>();
+    private volatile Map<SketchKey, HyperLogLog> flushing = Map.of();
+
+    public HitSketchAggregator(HitSketchRepository hitSketchRepository,
+                               Clock clock,
+                               @Value("${stats.sketch.backfill-on-startup:true}") boolean backfillOnStartup,
+                               @Value("${stats.sketch.rebuild-on-startup:2h}") Duration rebuildOnStartup) {
+        this.hitSketchRepository = hitSketchRepository;
+        this.clock = clock;
+        this.backfillOnStartup = backfillOnStartup;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    public void record(Collection<EndpointHit> hits) {
+        swapLock.readLock().lock();
+        try {
+            for (EndpointHit hit : hits) {
+                SketchKey key = new SketchKey(hit.getApp(), hit.getUri(),
+                        hit.getTimestamp().truncatedTo(RollupGranularity.HOUR.getUnit()));
+                pending.compute(key, (k, sketch) -> {
+                    HyperLogLog target = sketch == null ? new HyperLogLog() : sketch;
+                    target.add(hit.getIp());
+                    return target;
+                });
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    public List<ViewStatsDto> estimateUnique(LocalDateTime from, LocalDateTime until, UriFilter uriFilter) {
+        RollupPlan plan = RollupPlan.of(from, until, RollupGranularity.HOUR);
+        Map<List<String>, UriSketch> merged = new HashMap<>();
+        plan.getRollupRanges().getOrDefault(RollupGranularity.HOUR, List.of()).forEach(range -> {
+            hitSketchRepository.findSketches(range.from(), range.until(), uriFilter)
+                    .forEach(sketch -> mergeInto(merged, sketch));
+            mergeUnflushed(merged, range, uriFilter);
+        });
+        plan.getRawRanges().forEach(range -> hitSketchRepository.findRawSketches(range.from(), range.until(), uriFilter)
+                .forEach(sketch -> mergeInto(merged, sketch)));
+        return merged.values().stream()
+                .map(sketch -> ViewStatsDto.builder()
+                        .app(sketch.app())
+                        .uri(sketch.uri())
+                        .hits(sketch.sketch().estimate())
+                        .build())
+                .sorted(Comparator.comparingLong(ViewStatsDto::getHits).reversed())
+                .toList();
+    }
+
+    @Scheduled(fixedDelayString = "${stats.sketch.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        swapLock.writeLock().lock();
+        try {
+            flushing = pending;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        if (flushing.isEmpty()) {
+            return;
+        }
+        try {
+            hitSketchRepository.mergeAll(flushing);
+            flushing = Map.of();
+        } catch (RuntimeException ex) {
+            log.warn("Failed to flush {} unique-visitor sketches, retrying later: {}", flushing.size(), ex.getMessage());
+            restoreFlushing();
+        }
+    }
+
+    /**
+     * Builds all sketches when none are stored yet. Otherwise rebuilds the buckets of the last
+     * {@code rebuild-on-startup} from raw hits, restoring sketches that were recorded but not flushed before the
+     * previous instance stopped. Hits older than that which were still unflushed are not recovered.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        if (hitSketchRepository.isEmpty()) {
+            log.info("Building unique-visitor sketches from existing hits");
+            hitSketchRepository.backfillFromHits();
+            return;
+        }
+        LocalDateTime from = LocalDateTime.now(clock).truncatedTo(RollupGranularity.HOUR.getUnit())
+                .minus(rebuildOnStartup);
+        log.info("Rebuilding unique-visitor sketches of hits since {}", from);
+        hitSketchRepository.backfillFromHits(from);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void restoreFlushing() {
+        swapLock.readLock().lock();
+        try {
+            flushing.forEach((key, sketch) -> pending.merge(key, sketch, HyperLogLog::merge));
+            flushing = Map.of();
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private void mergeUnflushed(Map<List<String>, UriSketch> merged, RollupPlan.TimeRange range, UriFilter uriFilter) {
+        for (Map<SketchKey, HyperLogLog> source : List.of(flushing, pending)) {
+            source.forEach((key, sketch) -> {
+                if (!key.bucket().isBefore(range.from()) && key.bucket().isBefore(range.until())
+                        && uriFilter.matches(key.uri())) {
+                    mergeInto(merged, new UriSketch(key.app(), key.uri(), copyOf(sketch)));
+                }
+            });
+        }
+    }
+
+    private static void mergeInto(Map<List<String>, UriSketch> merged, UriSketch sketch) {
+        merged.merge(List.of(sketch.app(), sketch.uri()), sketch, (left, right) -> {
+            left.sketch().merge(right.sketch());
+            return left;
+        });
+    }
+
+    private static HyperLogLog copyOf(HyperLogLog sketch) {
+        return new HyperLogLog(sketch.getPrecision()).merge(sketch);
+    }
+}
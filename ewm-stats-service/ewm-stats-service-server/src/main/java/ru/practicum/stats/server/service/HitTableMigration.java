@@ -0,0 +1,72 @@
+package ru.practicum.stats.server.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.stats.server.repository.HitIdRange;
+import ru.practicum.stats.server.repository.HitMigrationRepository;
+
+import java.util.Objects;
+
+/**
+ * Converts an {@code endpoint_hits} table written by an older server to the current layout. Rows are rewritten in
+ * id batches of {@code stats.migration.batch-size}, each in its own short transaction, so an interrupted run can
+ * simply be started again. Only the final step that drops the old columns locks the whole table.
+ */
+@Slf4j
+@Component
+public class HitTableMigration {
+
+    private final HitMigrationRepository hitMigrationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public HitTableMigration(HitMigrationRepository hitMigrationRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${stats.migration.batch-size:10000}") int batchSize) {
+        this.hitMigrationRepository = hitMigrationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public boolean isPending() {
+        return !hitMigrationRepository.isDictionaryEncoded() || !hitMigrationRepository.isIpBinary();
+    }
+
+    public void run() {
+        if (!hitMigrationRepository.isDictionaryEncoded()) {
+            log.info("Moving endpoint_hits app and uri values into dictionary tables");
+            transactionTemplate.executeWithoutResult(status -> hitMigrationRepository.prepareDictionaryEncoding());
+            forEachBatch(hitMigrationRepository::encodeDictionaryBatch);
+            transactionTemplate.executeWithoutResult(status -> hitMigrationRepository.finishDictionaryEncoding());
+        }
+        if (!hitMigrationRepository.isIpBinary()) {
+            log.info("Converting endpoint_hits ip values to 16-byte binary form");
+            transactionTemplate.executeWithoutResult(status -> hitMigrationRepository.prepareIpConversion());
+            forEachBatch(hitMigrationRepository::convertIpBatch);
+            transactionTemplate.executeWithoutResult(status -> hitMigrationRepository.finishIpConversion());
+        }
+    }
+
+    private void forEachBatch(BatchStep step) {
+        HitIdRange range = hitMigrationRepository.findIdRange();
+        if (range == null) {
+            return;
+        }
+        long converted = 0;
+        for (long afterId = range.first() - 1; afterId < range.last(); afterId += batchSize) {
+            long from = afterId;
+            long until = Math.min(afterId + batchSize, range.last());
+            converted += Objects.requireNonNull(transactionTemplate.execute(status -> step.apply(from, until)));
+            log.debug("Migrated endpoint_hits ids up to {} of {}, {} rows so far", until, range.last(), converted);
+        }
+        log.info("Migrated {} endpoint_hits rows", converted);
+    }
+
+    @FunctionalInterface
+    private interface BatchStep {
+        int apply(long afterId, long untilId);
+    }
+}
@@ -0,0 +1,244 @@
+package ru.practicum.stats.server.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.model.EndpointHit;
+import ru.practicum.stats.server.repository.UriFilter;
+
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Per-minute hit counters for the last {@code stats.hot-window.hours}, filled by this instance only. Hits stamped
+ * further in the future than the ring can hold are not counted; their minutes are remembered and answered from the
+ * database once they come into range. Counters of other instances are not visible, so it must be disabled when more
+ * than one stats server writes to the same database.
+ */
+@Slf4j
+@Component
+public class HotWindowStats {
+
+    private static final int FUTURE_TOLERANCE_MINUTES = 1;
+
+    private final Clock clock;
+    private final boolean enabled;
+    private final int slotCount;
+    private final NavigableSet<LocalDateTime> skippedMinutes = new ConcurrentSkipListSet<>();
+    private volatile LocalDateTime validFrom;
+    private final AtomicReferenceArray<Slot> slots;
+
+    public HotWindowStats(Clock clock,
+                          @Value("${stats.hot-window.enabled:true}") boolean enabled,
+                          @Value("${stats.hot-window.hours:3}") int hours) {
+        this.clock = clock;
+        this.enabled = enabled && hours > 0;
+        this.slotCount = Math.max(1, hours) * 60;
+        this.validFrom = ceilToMinute(LocalDateTime.now(clock));
+        this.slots = new AtomicReferenceArray<>(slotCount);
+        if (this.enabled) {
+            log.warn("Hot window answers the last {} h from hits received by this instance only; set "
+                    + "stats.hot-window.enabled=false when running more than one stats server", hours);
+        }
+    }
+
+    public void record(Collection<EndpointHit> hits) {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime currentMinute = currentMinute();
+        LocalDateTime latestAccepted = currentMinute.plusMinutes(FUTURE_TOLERANCE_MINUTES);
+        skippedMinutes.headSet(currentMinute.minusMinutes(slotCount)).clear();
+        for (EndpointHit hit : hits) {
+            LocalDateTime minute = hit.getTimestamp().truncatedTo(ChronoUnit.MINUTES);
+            if (minute.isBefore(validFrom)) {
+                continue;
+            }
+            if (minute.isAfter(latestAccepted)) {
+                skip(minute);
+                continue;
+            }
+            Slot slot = slotFor(minute);
+            if (slot != null) {
+                slot.record(hit);
+            }
+        }
+    }
+
+    public Result query(LocalDateTime from, LocalDateTime until, UriFilter uriFilter, boolean unique) {
+        LocalDateTime windowStart = currentMinute().minusMinutes(slotCount - 1L);
+        LocalDateTime coveredFrom = max(from, max(windowStart, validFrom));
+        if (!enabled || !coveredFrom.isBefore(until)) {
+            return Result.none(until);
+        }
+        List<RollupPlan.TimeRange> uncovered = new ArrayList<>();
+        List<Slot> used = new ArrayList<>();
+        for (LocalDateTime minute = coveredFrom.truncatedTo(ChronoUnit.MINUTES);
+             minute.isBefore(until);
+             minute = minute.plusMinutes(1)) {
+            if (skippedMinutes.contains(minute)) {
+                uncovered.add(new RollupPlan.TimeRange(max(minute, from), min(minute.plusMinutes(1), until)));
+                continue;
+            }
+            Slot slot = slots.get(index(minute));
+            if (slot == null || !slot.start.equals(minute)) {
+                continue;
+            }
+            if (slot.isWithin(from, until)) {
+                used.add(slot);
+            } else {
+                uncovered.add(new RollupPlan.TimeRange(max(minute, from), min(minute.plusMinutes(1), until)));
+            }
+        }
+        if (unique && (coveredFrom.isAfter(from) || !uncovered.isEmpty())) {
+            return Result.none(until);
+        }
+        return new Result(coveredFrom, uncovered, unique ? uniqueStats(used, uriFilter) : hitStats(used, uriFilter));
+    }
+
+    private List<ViewStatsDto> hitStats(List<Slot> used, UriFilter uriFilter) {
+        Map<AppUri, Long> counts = new HashMap<>();
+        for (Slot slot : used) {
+            slot.counters.forEach((key, counter) -> {
+                if (uriFilter.matches(key.uri())) {
+                    counts.merge(key, counter.hits.get(), Long::sum);
+                }
+            });
+        }
+        return toStats(counts);
+    }
+
+    private List<ViewStatsDto> uniqueStats(List<Slot> used, UriFilter uriFilter) {
+        Map<AppUri, Set<ByteBuffer>> ips = new HashMap<>();
+        for (Slot slot : used) {
+            slot.counters.forEach((key, counter) -> {
+                if (uriFilter.matches(key.uri())) {
+                    ips.computeIfAbsent(key, k -> new HashSet<>()).addAll(counter.ips);
+                }
+            });
+        }
+        Map<AppUri, Long> counts = new HashMap<>();
+        ips.forEach((key, set) -> counts.put(key, (long) set.size()));
+        return toStats(counts);
+    }
+
+    private static List<ViewStatsDto> toStats(Map<AppUri, Long> counts) {
+        return counts.entrySet().stream()
+                .map(entry -> ViewStatsDto.builder()
+                        .app(entry.getKey().app())
+                        .uri(entry.getKey().uri())
+                        .hits(entry.getValue())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Remembers a minute with hits that were not counted. Past {@code slotCount} such minutes the window simply
+     * starts after the latest of them, so the memory used stays bounded.
+     */
+    private synchronized void skip(LocalDateTime minute) {
+        skippedMinutes.add(minute);
+        if (skippedMinutes.size() > slotCount) {
+            LocalDateTime latest = skippedMinutes.last().plusMinutes(1);
+            validFrom = max(validFrom, latest);
+            skippedMinutes.clear();
+        }
+    }
+
+    private Slot slotFor(LocalDateTime minute) {
+        int index = index(minute);
+        while (true) {
+            Slot current = slots.get(index);
+            if (current != null && current.start.equals(minute)) {
+                return current;
+            }
+            if (current != null && current.start.isAfter(minute)) {
+                return null;
+            }
+            Slot replacement = new Slot(minute);
+            if (slots.compareAndSet(index, current, replacement)) {
+                return replacement;
+            }
+        }
+    }
+
+    private int index(LocalDateTime minute) {
+        long epochMinute = minute.toEpochSecond(ZoneOffset.UTC) / 60;
+        return (int) Math.floorMod(epochMinute, (long) slotCount);
+    }
+
+    private LocalDateTime currentMinute() {
+        return LocalDateTime.now(clock).truncatedTo(ChronoUnit.MINUTES);
+    }
+
+    private static LocalDateTime ceilToMinute(LocalDateTime value) {
+        LocalDateTime truncated = value.truncatedTo(ChronoUnit.MINUTES);
+        return truncated.equals(value) ? truncated : truncated.plusMinutes(1);
+    }
+
+    private static LocalDateTime max(LocalDateTime left, LocalDateTime right) {
+        return left.isAfter(right) ? left : right;
+    }
+
+    private static LocalDateTime min(LocalDateTime left, LocalDateTime right) {
+        return left.isBefore(right) ? left : right;
+    }
+
+    private static long toMicros(LocalDateTime value) {
+        return value.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + value.getNano() / 1_000;
+    }
+
+    public record Result(LocalDateTime coveredFrom, List<RollupPlan.TimeRange> uncoveredRanges, List<ViewStatsDto> stats) {
+
+        static Result none(LocalDateTime until) {
+            return new Result(until, List.of(), List.of());
+        }
+    }
+
+    private record AppUri(String app, String uri) {
+    }
+
+    private static final class Counter {
+
+        private final AtomicLong hits = new AtomicLong();
+        private final Set<ByteBuffer> ips = ConcurrentHashMap.newKeySet();
+    }
+
+    private static final class Slot {
+
+        private final LocalDateTime start;
+        private final Map<AppUri, Counter> counters = new ConcurrentHashMap<>();
+        private final LongAccumulator minMicros = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        private final LongAccumulator maxMicros = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+        private Slot(LocalDateTime start) {
+            this.start = start;
+        }
+
+        private void record(EndpointHit hit) {
+            long micros = toMicros(hit.getTimestamp());
+            minMicros.accumulate(micros);
+            maxMicros.accumulate(micros);
+            Counter counter = counters.computeIfAbsent(new AppUri(hit.getApp(), hit.getUri()), key -> new Counter());
+            counter.hits.incrementAndGet();
+            counter.ips.add(ByteBuffer.wrap(hit.getIp()));
+        }
+
+        private boolean isWithin(LocalDateTime from, LocalDateTime until) {
+            if (!start.isBefore(from) && !start.plusMinutes(1).isAfter(until)) {
+                return true;
+            }
+            return minMicros.get() >= toMicros(from) && maxMicros.get() < toMicros(until);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.stats.server.service;
+
+public enum IngestAckMode {
+    /** Acknowledge a hit as soon as it is in the ingest buffer; hits still buffered are lost on a crash. */
+    ENQUEUE,
+    /** Acknowledge a hit only after the batch containing it has been committed. */
+    COMMIT
+}
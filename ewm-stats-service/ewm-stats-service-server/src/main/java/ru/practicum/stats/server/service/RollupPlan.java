@@ -0,0 +1,64 @@
+package ru.practicum.stats.server.service;
+
+import lombok.Getter;
+import ru.practicum.stats.server.repository.RollupGranularity;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+final class RollupPlan {
+
+    @Getter
+    private final Map<RollupGranularity, List<TimeRange>> rollupRanges = new EnumMap<>(RollupGranularity.class);
+    @Getter
+    private final List<TimeRange> rawRanges = new ArrayList<>();
+
+    private final RollupGranularity[] granularities;
+
+    private RollupPlan(RollupGranularity[] granularities) {
+        this.granularities = granularities;
+    }
+
+    static RollupPlan of(LocalDateTime from, LocalDateTime until) {
+        return of(from, until, RollupGranularity.values());
+    }
+
+    static RollupPlan of(LocalDateTime from, LocalDateTime until, RollupGranularity... granularities) {
+        RollupPlan plan = new RollupPlan(granularities.clone());
+        plan.split(from, until, 0);
+        return plan;
+    }
+
+    private void split(LocalDateTime from, LocalDateTime until, int level) {
+        if (!from.isBefore(until)) {
+            return;
+        }
+        if (level >= granularities.length) {
+            rawRanges.add(new TimeRange(from, until));
+            return;
+        }
+        RollupGranularity granularity = granularities[level];
+        LocalDateTime alignedFrom = ceil(from, granularity.getUnit());
+        LocalDateTime alignedUntil = until.truncatedTo(granularity.getUnit());
+        if (!alignedFrom.isBefore(alignedUntil)) {
+            split(from, until, level + 1);
+            return;
+        }
+        rollupRanges.computeIfAbsent(granularity, key -> new ArrayList<>())
+                .add(new TimeRange(alignedFrom, alignedUntil));
+        split(from, alignedFrom, level + 1);
+        split(alignedUntil, until, level + 1);
+    }
+
+    private static LocalDateTime ceil(LocalDateTime value, ChronoUnit unit) {
+        LocalDateTime truncated = value.truncatedTo(unit);
+        return truncated.equals(value) ? truncated : truncated.plus(1, unit);
+    }
+
+    record TimeRange(LocalDateTime from, LocalDateTime until) {
+    }
+}
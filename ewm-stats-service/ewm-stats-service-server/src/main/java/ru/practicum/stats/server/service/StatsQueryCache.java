@@ -0,0 +1,121 @@
+package ru.practicum.stats.server.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.repository.UriFilter;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+@Component
+public class StatsQueryCache {
+
+    private final Clock clock;
+    private final boolean enabled;
+    private final long granularityMillis;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Map<Key, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private long nextSweepAt;
+
+    public StatsQueryCache(Clock clock,
+                           MeterRegistry meterRegistry,
+                           @Value("${stats.cache.enabled:true}") boolean enabled,
+                           @Value("${stats.cache.end-granularity:5s}") Duration endGranularity,
+                           @Value("${stats.cache.ttl:10s}") Duration ttl,
+                           @Value("${stats.cache.max-entries:10000}") int maxEntries) {
+        this.clock = clock;
+        this.enabled = enabled && maxEntries > 0 && !ttl.isZero();
+        this.granularityMillis = Math.max(1, endGranularity.toMillis());
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.hits = Counter.builder("stats.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("stats.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("stats.cache.evictions").register(meterRegistry);
+        Gauge.builder("stats.cache.size", this, StatsQueryCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Returns cached stats for the query or computes them. Ranges ending close to now are keyed by the end rounded
+     * up to the configured granularity and computed for that end, so callers passing {@code end = now} share entries.
+     */
+    public List<ViewStatsDto> get(LocalDateTime start,
+                                  LocalDateTime end,
+                                  UriFilter uriFilter,
+                                  boolean unique,
+                                  boolean approximate,
+                                  Function<LocalDateTime, List<ViewStatsDto>> loader) {
+        if (!enabled) {
+            return loader.apply(end);
+        }
+        Key key = new Key(start, normalizeEnd(end), uriFilter, unique, approximate);
+        long now = clock.millis();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt() > now) {
+                hits.increment();
+                return entry.stats();
+            }
+        }
+        misses.increment();
+        List<ViewStatsDto> stats = List.copyOf(loader.apply(key.end()));
+        synchronized (entries) {
+            entries.put(key, new Entry(stats, now + ttlMillis));
+            evictExpiredAndOverflow(now);
+        }
+        return stats;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private LocalDateTime normalizeEnd(LocalDateTime end) {
+        long endMillis = end.toInstant(ZoneOffset.UTC).toEpochMilli();
+        long nowMillis = LocalDateTime.now(clock).toInstant(ZoneOffset.UTC).toEpochMilli();
+        if (endMillis < nowMillis - granularityMillis) {
+            return end;
+        }
+        long rounded = Math.ceilDiv(endMillis, granularityMillis) * granularityMillis;
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(rounded, 1000L),
+                (int) Math.floorMod(rounded, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    private void evictExpiredAndOverflow(long now) {
+        var iterator = entries.values().iterator();
+        boolean sweep = now >= nextSweepAt;
+        while (iterator.hasNext() && (sweep || entries.size() > maxEntries)) {
+            Entry entry = iterator.next();
+            if (entries.size() > maxEntries || entry.expiresAt() <= now) {
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+        if (sweep) {
+            nextSweepAt = now + ttlMillis;
+        }
+    }
+
+    private record Key(LocalDateTime start, LocalDateTime end, UriFilter uriFilter, boolean unique,
+                       boolean approximate) {
+    }
+
+    private record Entry(List<ViewStatsDto> stats, long expiresAt) {
+    }
+}
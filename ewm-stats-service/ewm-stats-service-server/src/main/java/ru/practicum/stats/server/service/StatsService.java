@@ -2,16 +2,40 @@ package ru.practicum.stats.server.service;
 
 import ru.practicum.stats.dto.EndpointHitDto;
 import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.dto.ViewsRequestDto;
+import ru.practicum.stats.server.model.EndpointHit;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 public interface StatsService {
 
     void saveHit(EndpointHitDto endpointHitDto);
 
+    int saveHits(List<EndpointHitDto> endpointHitDtos);
+
+    /**
+     * Persists hits already mapped by {@link ru.practicum.stats.server.mapper.EndpointHitMapper}.
+     */
+    int saveAll(List<EndpointHit> hits);
+
+    default List<ViewStatsDto> getStats(LocalDateTime start,
+                                        LocalDateTime end,
+                                        List<String> uris,
+                                        boolean unique) {
+        return getStats(start, end, uris, unique, false);
+    }
+
     List<ViewStatsDto> getStats(LocalDateTime start,
                                 LocalDateTime end,
                                 List<String> uris,
-                                boolean unique);
+                                boolean unique,
+                                boolean approximate);
+
+    StatsStream streamStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique);
+
+    Map<Long, Long> getViews(ViewsRequestDto viewsRequest);
+
+    List<ViewStatsDto> getTopUris(int minutes, String uriPrefix, int limit);
 }
@@ -3,31 +3,68 @@ package ru.practicum.stats.server.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.stats.dto.EndpointHitDto;
 import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.dto.ViewsRequestDto;
 import ru.practicum.stats.server.exception.InvalidDateRangeException;
+import ru.practicum.stats.server.exception.InvalidParameterCombinationException;
 import ru.practicum.stats.server.mapper.EndpointHitMapper;
 import ru.practicum.stats.server.model.EndpointHit;
 import ru.practicum.stats.server.repository.EndpointHitRepository;
-import ru.practicum.stats.server.repository.ViewStatsProjection;
+import ru.practicum.stats.server.repository.HitRollupRepository;
+import ru.practicum.stats.server.repository.StatsSource;
+import ru.practicum.stats.server.repository.StatsStreamRepository;
+import ru.practicum.stats.server.repository.UriFilter;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
-import java.util.stream.Stream;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class StatsServiceImpl implements StatsService {
 
+    private static final long END_INCLUSIVE_NANOS = 1_000;
+
     private final EndpointHitRepository endpointHitRepository;
+    private final HitRollupRepository hitRollupRepository;
+    private final HitSketchAggregator hitSketchAggregator;
+    private final HotWindowStats hotWindowStats;
+    private final TrendingUris trendingUris;
+    private final StatsQueryCache statsQueryCache;
+    private final StatsStreamRepository statsStreamRepository;
 
     @Override
     public void saveHit(EndpointHitDto endpointHitDto) {
         EndpointHit endpointHit = EndpointHitMapper.toEntity(endpointHitDto);
-        endpointHitRepository.save(endpointHit);
+        endpointHitRepository.insertAll(List.of(endpointHit));
+        hitRollupRepository.increment(List.of(endpointHit));
+        hitSketchAggregator.record(List.of(endpointHit));
+        recordHotAfterCommit(List.of(endpointHit));
+    }
+
+    @Override
+    public int saveHits(List<EndpointHitDto> endpointHitDtos) {
+        if (endpointHitDtos == null || endpointHitDtos.isEmpty()) {
+            return 0;
+        }
+        return saveAll(endpointHitDtos.stream()
+                .map(EndpointHitMapper::toEntity)
+                .toList());
+    }
+
+    @Override
+    public int saveAll(List<EndpointHit> hits) {
+        if (hits.isEmpty()) {
+            return 0;
+        }
+        int saved = endpointHitRepository.insertAll(hits);
+        hitRollupRepository.increment(hits);
+        hitSketchAggregator.record(hits);
+        recordHotAfterCommit(hits);
+        return saved;
     }
 
     @Override
@@ -35,26 +72,144 @@ public class StatsServiceImpl implements StatsService {
     public List<ViewStatsDto> getStats(LocalDateTime start,
                                        LocalDateTime end,
                                        List<String> uris,
-                                       boolean unique) {
+                                       boolean unique,
+                                       boolean approximate) {
+        validateRange(start, end);
+        if (approximate && !unique) {
+            throw new InvalidParameterCombinationException("Parameter 'approximate' requires 'unique=true'");
+        }
+        UriFilter uriFilter = UriFilter.of(uris);
+        return statsQueryCache.get(start, end, uriFilter, unique, approximate,
+                cacheEnd -> computeStats(start, cacheEnd, uriFilter, unique, approximate));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Long> getViews(ViewsRequestDto viewsRequest) {
+        String template = viewsRequest.getUriTemplate();
+        int placeholder = template.indexOf(ViewsRequestDto.ID_PLACEHOLDER);
+        String prefix = template.substring(0, placeholder);
+        String suffix = template.substring(placeholder + ViewsRequestDto.ID_PLACEHOLDER.length());
+        Map<String, Long> idsByUri = new LinkedHashMap<>();
+        Map<Long, Long> views = new LinkedHashMap<>();
+        for (Long id : viewsRequest.getIds()) {
+            idsByUri.put(prefix + id + suffix, id);
+            views.put(id, 0L);
+        }
+        List<ViewStatsDto> stats = getStats(viewsRequest.getStart(), viewsRequest.getEnd(),
+                List.copyOf(idsByUri.keySet()), viewsRequest.isUnique(), false);
+        for (ViewStatsDto dto : stats) {
+            Long id = idsByUri.get(dto.getUri());
+            if (id != null) {
+                views.merge(id, dto.getHits(), Long::sum);
+            }
+        }
+        return views;
+    }
+
+    @Override
+    public List<ViewStatsDto> getTopUris(int minutes, String uriPrefix, int limit) {
+        return trendingUris.top(minutes, uriPrefix, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StatsStream streamStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique) {
+        validateRange(start, end);
+        UriFilter uriFilter = UriFilter.of(uris);
+        LocalDateTime until = end.plusNanos(END_INCLUSIVE_NANOS);
+        if (unique) {
+            return action -> statsStreamRepository.streamUniqueStats(start, until, uriFilter, action);
+        }
+        RollupPlan plan = RollupPlan.of(start, until);
+        List<StatsSource> sources = new ArrayList<>();
+        plan.getRollupRanges().forEach((granularity, ranges) -> ranges.forEach(range ->
+                sources.add(StatsSource.rollup(granularity, range.from(), range.until()))));
+        plan.getRawRanges().forEach(range -> sources.add(StatsSource.raw(range.from(), range.until())));
+        return action -> statsStreamRepository.streamStats(sources, uriFilter, action);
+    }
+
+    private static void validateRange(LocalDateTime start, LocalDateTime end) {
         if (start == null || end == null) {
             throw new InvalidDateRangeException("Start and end dates must be specified");
         }
         if (end.isBefore(start)) {
             throw new InvalidDateRangeException("End date must not be before start date");
         }
+    }
 
-        List<ViewStatsProjection> projections = unique
-                ? endpointHitRepository.findAllStatsUnique(start, end)
-                : endpointHitRepository.findAllStats(start, end);
+    private List<ViewStatsDto> computeStats(LocalDateTime start,
+                                            LocalDateTime end,
+                                            UriFilter uriFilter,
+                                            boolean unique,
+                                            boolean approximate) {
+        LocalDateTime until = end.plusNanos(END_INCLUSIVE_NANOS);
+        HotWindowStats.Result hot = hotWindowStats.query(start, until, uriFilter, unique);
+        if (!unique) {
+            Map<StatsKey, ViewStatsDto> merged = new HashMap<>();
+            if (start.isBefore(hot.coveredFrom())) {
+                mergeHitsFromRollups(merged, start, hot.coveredFrom(), uriFilter);
+            }
+            for (RollupPlan.TimeRange range : hot.uncoveredRanges()) {
+                mergeInto(merged, endpointHitRepository.findStats(range.from(), range.until(), uriFilter, false));
+            }
+            mergeInto(merged, hot.stats());
+            return sortByHits(merged.values());
+        }
+        if (!hot.coveredFrom().isAfter(start)) {
+            return sortByHits(hot.stats());
+        }
+        if (approximate) {
+            return hitSketchAggregator.estimateUnique(start, until, uriFilter);
+        }
+        return endpointHitRepository.findStats(start, until, uriFilter, true);
+    }
 
-        Stream<ViewStatsProjection> stream = projections.stream();
-        if (uris != null && !uris.isEmpty()) {
-            Set<String> uriFilter = new HashSet<>(uris);
-            stream = stream.filter(projection -> uriFilter.contains(projection.getUri()));
+    private void recordHotAfterCommit(List<EndpointHit> hits) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recordHot(hits);
+            return;
         }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recordHot(hits);
+            }
+        });
+    }
 
-        return stream
-                .map(EndpointHitMapper::toDto)
+    private void recordHot(List<EndpointHit> hits) {
+        hotWindowStats.record(hits);
+        trendingUris.record(hits);
+    }
+
+    private void mergeHitsFromRollups(Map<StatsKey, ViewStatsDto> merged,
+                                      LocalDateTime from,
+                                      LocalDateTime until,
+                                      UriFilter uriFilter) {
+        RollupPlan plan = RollupPlan.of(from, until);
+        plan.getRollupRanges().forEach((granularity, ranges) -> ranges.forEach(range ->
+                mergeInto(merged, hitRollupRepository.findStats(granularity, range.from(), range.until(), uriFilter))));
+        for (RollupPlan.TimeRange range : plan.getRawRanges()) {
+            mergeInto(merged, endpointHitRepository.findStats(range.from(), range.until(), uriFilter, false));
+        }
+    }
+
+    private static List<ViewStatsDto> sortByHits(Collection<ViewStatsDto> stats) {
+        return stats.stream()
+                .sorted(Comparator.comparingLong(ViewStatsDto::getHits).reversed())
                 .toList();
     }
+
+    private void mergeInto(Map<StatsKey, ViewStatsDto> merged, List<ViewStatsDto> stats) {
+        for (ViewStatsDto dto : stats) {
+            merged.merge(new StatsKey(dto.getApp(), dto.getUri()), dto, (left, right) -> {
+                left.setHits(left.getHits() + right.getHits());
+                return left;
+            });
+        }
+    }
+
+    private record StatsKey(String app, String uri) {
+    }
 }
@@ -0,0 +1,11 @@
+package ru.practicum.stats.server.service;
+
+import ru.practicum.stats.dto.ViewStatsDto;
+
+import java.util.function.Consumer;
+
+@FunctionalInterface
+public interface StatsStream {
+
+    void forEach(Consumer<ViewStatsDto> action);
+}
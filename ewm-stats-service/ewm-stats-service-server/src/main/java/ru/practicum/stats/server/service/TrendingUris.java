@@ -0,0 +1,135 @@
+package ru.practicum.stats.server.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.exception.InvalidDateRangeException;
+import ru.practicum.stats.server.model.EndpointHit;
+import ru.practicum.stats.server.sketch.SpaceSaving;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps a Space-Saving summary of the most hit URIs for each of the last minutes, fed from ingest. A top-N query
+ * merges at most {@code window-minutes} summaries of bounded size, so its cost does not depend on how many hits
+ * the window holds. A prefix narrows the tracked heavy hitters; URIs too rare to be tracked globally are not
+ * reported even if they lead within the prefix.
+ */
+@Component
+public class TrendingUris {
+
+    private static final int FUTURE_TOLERANCE_MINUTES = 1;
+
+    private final Clock clock;
+    private final int windowMinutes;
+    private final int capacity;
+    private final AtomicReferenceArray<Slot> slots;
+
+    public TrendingUris(Clock clock,
+                        @Value("${stats.top.window-minutes:60}") int windowMinutes,
+                        @Value("${stats.top.capacity:1000}") int capacity) {
+        this.clock = clock;
+        this.windowMinutes = Math.max(1, windowMinutes);
+        this.capacity = Math.max(1, capacity);
+        this.slots = new AtomicReferenceArray<>(this.windowMinutes + FUTURE_TOLERANCE_MINUTES);
+    }
+
+    public void record(Collection<EndpointHit> hits) {
+        LocalDateTime current = currentMinute();
+        LocalDateTime oldestAccepted = current.minusMinutes(windowMinutes - 1L);
+        LocalDateTime latestAccepted = current.plusMinutes(FUTURE_TOLERANCE_MINUTES);
+        for (EndpointHit hit : hits) {
+            LocalDateTime minute = hit.getTimestamp().truncatedTo(ChronoUnit.MINUTES);
+            if (minute.isBefore(oldestAccepted) || minute.isAfter(latestAccepted)) {
+                continue;
+            }
+            Slot slot = slotFor(minute);
+            if (slot != null) {
+                slot.add(new AppUri(hit.getApp(), hit.getUri()));
+            }
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} URIs with the most hits over the last {@code minutes} minutes including the current
+     * one, ordered by hits. Hit counts are Space-Saving estimates and never lower than the true counts.
+     */
+    public List<ViewStatsDto> top(int minutes, String uriPrefix, int limit) {
+        if (minutes < 1 || minutes > windowMinutes) {
+            throw new InvalidDateRangeException("Window must be between 1 and %d minutes".formatted(windowMinutes));
+        }
+        LocalDateTime current = currentMinute();
+        SpaceSaving<AppUri> merged = new SpaceSaving<>(capacity);
+        for (LocalDateTime minute = current.minusMinutes(minutes - 1L);
+             !minute.isAfter(current.plusMinutes(FUTURE_TOLERANCE_MINUTES));
+             minute = minute.plusMinutes(1)) {
+            Slot slot = slots.get(index(minute));
+            if (slot != null && slot.start.equals(minute)) {
+                slot.mergeInto(merged);
+            }
+        }
+        return merged.top(capacity).stream()
+                .filter(counter -> uriPrefix == null || counter.key().uri().startsWith(uriPrefix))
+                .limit(limit)
+                .map(counter -> ViewStatsDto.builder()
+                        .app(counter.key().app())
+                        .uri(counter.key().uri())
+                        .hits(counter.count())
+                        .build())
+                .toList();
+    }
+
+    private Slot slotFor(LocalDateTime minute) {
+        int index = index(minute);
+        while (true) {
+            Slot current = slots.get(index);
+            if (current != null && current.start.equals(minute)) {
+                return current;
+            }
+            if (current != null && current.start.isAfter(minute)) {
+                return null;
+            }
+            Slot replacement = new Slot(minute, capacity);
+            if (slots.compareAndSet(index, current, replacement)) {
+                return replacement;
+            }
+        }
+    }
+
+    private int index(LocalDateTime minute) {
+        long epochMinute = minute.toEpochSecond(ZoneOffset.UTC) / 60;
+        return (int) Math.floorMod(epochMinute, (long) slots.length());
+    }
+
+    private LocalDateTime currentMinute() {
+        return LocalDateTime.now(clock).truncatedTo(ChronoUnit.MINUTES);
+    }
+
+    private record AppUri(String app, String uri) {
+    }
+
+    private static final class Slot {
+
+        private final LocalDateTime start;
+        private final SpaceSaving<AppUri> summary;
+
+        private Slot(LocalDateTime start, int capacity) {
+            this.start = start;
+            this.summary = new SpaceSaving<>(capacity);
+        }
+
+        private synchronized void add(AppUri key) {
+            summary.add(key);
+        }
+
+        private synchronized void mergeInto(SpaceSaving<AppUri> target) {
+            target.merge(summary);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package ru.practicum.stats.server.sketch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy hitters summary over at most {@code capacity} keys. Counters live in a min-heap so an update
+ * costs O(log capacity). A reported count never underestimates the true count and overestimates it by at most
+ * the reported error. Not thread-safe.
+ */
+public final class SpaceSaving<K> {
+
+    private final int capacity;
+    private final Object[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<K, Integer> positions;
+    private int size;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.keys = new Object[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(K key) {
+        add(key, 1, 0);
+    }
+
+    /**
+     * Adds {@code count} occurrences of {@code key}. When the summary is full the smallest counter is taken over by
+     * the key and its count becomes the key's error.
+     */
+    public void add(K key, long count, long error) {
+        Integer position = positions.get(key);
+        if (position != null) {
+            counts[position] += count;
+            errors[position] += error;
+            siftDown(position);
+            return;
+        }
+        if (size < capacity) {
+            set(size, key, count, error);
+            siftUp(size++);
+            return;
+        }
+        long min = counts[0];
+        positions.remove(key(0));
+        set(0, key, min + count, min + error);
+        siftDown(0);
+    }
+
+    /**
+     * Merges {@code other} into this summary. A key missing from a full summary may have been evicted there, so it
+     * is charged that summary's minimum count as both count and error; the largest {@code capacity} counters are
+     * kept. The guarantees of a single summary hold for the result.
+     */
+    public SpaceSaving<K> merge(SpaceSaving<K> other) {
+        long thisMin = minCount();
+        long otherMin = other.minCount();
+        Map<K, Counter<K>> merged = new HashMap<>((size + other.size) * 2);
+        for (int i = 0; i < size; i++) {
+            merged.put(key(i), new Counter<>(key(i), counts[i] + otherMin, errors[i] + otherMin));
+        }
+        for (int i = 0; i < other.size; i++) {
+            K key = other.key(i);
+            Integer position = positions.get(key);
+            merged.put(key, position == null
+                    ? new Counter<>(key, thisMin + other.counts[i], thisMin + other.errors[i])
+                    : new Counter<>(key, counts[position] + other.counts[i], errors[position] + other.errors[i]));
+        }
+        List<Counter<K>> kept = new ArrayList<>(merged.values());
+        kept.sort(Comparator.comparingLong(Counter<K>::count).reversed());
+        positions.clear();
+        size = Math.min(capacity, kept.size());
+        for (int i = 0; i < size; i++) {
+            Counter<K> counter = kept.get(i);
+            set(i, counter.key(), counter.count(), counter.error());
+        }
+        Arrays.fill(keys, size, capacity, null);
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+        return this;
+    }
+
+    public List<Counter<K>> top(int limit) {
+        List<Counter<K>> counters = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            counters.add(new Counter<>(key(i), counts[i], errors[i]));
+        }
+        counters.sort(Comparator.comparingLong(Counter<K>::count).reversed());
+        return counters.size() > limit ? counters.subList(0, limit) : counters;
+    }
+
+    private long minCount() {
+        return size == capacity ? counts[0] : 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K key(int position) {
+        return (K) keys[position];
+    }
+
+    private void set(int position, K key, long count, long error) {
+        keys[position] = key;
+        counts[position] = count;
+        errors[position] = error;
+        positions.put(key, position);
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (counts[parent] <= counts[position]) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == position) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(int first, int second) {
+        K firstKey = key(first);
+        long firstCount = counts[first];
+        long firstError = errors[first];
+        set(first, key(second), counts[second], errors[second]);
+        set(second, firstKey, firstCount, firstError);
+    }
+
+    public record Counter<K>(K key, long count, long error) {
+    }
+}
@@ -0,0 +1,4 @@
+package ru.practicum.stats.server.sketch;
+
+public record UriSketch(String app, String uri, HyperLogLog sketch) {
+}
@@ -1,7 +1,59 @@
+CREATE TABLE IF NOT EXISTS apps (
+    id  SERIAL       PRIMARY KEY,
+    app VARCHAR(255) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS uris (
+    id  SERIAL       PRIMARY KEY,
+    uri VARCHAR(512) NOT NULL UNIQUE
+);
+
+CREATE INDEX IF NOT EXISTS idx_uris_uri_pattern ON uris(uri varchar_pattern_ops);
+
+CREATE TABLE IF NOT EXISTS hit_migrations (
+    step VARCHAR(64) PRIMARY KEY
+);
+
 CREATE TABLE IF NOT EXISTS endpoint_hits (
-    id           BIGSERIAL PRIMARY KEY,
-    app          VARCHAR(255)    NOT NULL,
-    uri          VARCHAR(512)    NOT NULL,
-    ip           VARCHAR(45)     NOT NULL,
-    hit_timestamp TIMESTAMP WITHOUT TIME ZONE NOT NULL
+    id            BIGSERIAL,
+    app_id        INTEGER         NOT NULL REFERENCES apps(id),
+    uri_id        INTEGER         NOT NULL REFERENCES uris(id),
+    ip            BYTEA           NOT NULL,
+    hit_timestamp TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    PRIMARY KEY (id, hit_timestamp)
+) PARTITION BY RANGE (hit_timestamp);
+
+CREATE INDEX IF NOT EXISTS idx_endpoint_hits_timestamp ON endpoint_hits(hit_timestamp);
+
+CREATE TABLE IF NOT EXISTS hit_rollup_minute (
+    app    VARCHAR(255) NOT NULL,
+    uri    VARCHAR(512) NOT NULL,
+    bucket TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    hits   BIGINT       NOT NULL,
+    PRIMARY KEY (app, uri, bucket)
+);
+
+CREATE INDEX IF NOT EXISTS idx_hit_rollup_minute_bucket ON hit_rollup_minute(bucket);
+CREATE INDEX IF NOT EXISTS idx_hit_rollup_minute_uri_bucket ON hit_rollup_minute(uri varchar_pattern_ops, bucket);
+
+CREATE TABLE IF NOT EXISTS hit_rollup_hour (
+    app    VARCHAR(255) NOT NULL,
+    uri    VARCHAR(512) NOT NULL,
+    bucket TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    hits   BIGINT       NOT NULL,
+    PRIMARY KEY (app, uri, bucket)
+);
+
+CREATE INDEX IF NOT EXISTS idx_hit_rollup_hour_bucket ON hit_rollup_hour(bucket);
+CREATE INDEX IF NOT EXISTS idx_hit_rollup_hour_uri_bucket ON hit_rollup_hour(uri varchar_pattern_ops, bucket);
+
+CREATE TABLE IF NOT EXISTS hit_sketch_hour (
+    app    VARCHAR(255) NOT NULL,
+    uri    VARCHAR(512) NOT NULL,
+    bucket TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    sketch BYTEA        NOT NULL,
+    PRIMARY KEY (app, uri, bucket)
 );
+
+CREATE INDEX IF NOT EXISTS idx_hit_sketch_hour_bucket ON hit_sketch_hour(bucket);
+CREATE INDEX IF NOT EXISTS idx_hit_sketch_hour_uri_bucket ON hit_sketch_hour(uri varchar_pattern_ops, bucket);
@@ -0,0 +1,38 @@
+package ru.practicum.stats.server;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * UTC clock for tests that need time to move.
+ */
+public final class MutableClock extends Clock {
+
+    private volatile LocalDateTime now;
+
+    public MutableClock(LocalDateTime now) {
+        this.now = now;
+    }
+
+    public void set(LocalDateTime now) {
+        this.now = now;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return this;
+    }
+
+    @Override
+    public Instant instant() {
+        return now.toInstant(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.stats.server.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.practicum.stats.server.mapper.IpAddresses;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares distinct counting over textual ips (the old {@code VARCHAR} column) with the 16-byte binary form.
+ * Measures the in-memory side only; the table and index size effect needs PostgreSQL and EXPLAIN ANALYZE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class IpDistinctBenchmark {
+
+    @Param({"1000000", "10000000"})
+    private int hits;
+
+    private String[] textIps;
+    private byte[][] binaryIps;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        int visitors = Math.max(1, hits / 4);
+        textIps = new String[hits];
+        binaryIps = new byte[hits][];
+        for (int i = 0; i < hits; i++) {
+            int value = random.nextInt(visitors);
+            textIps[i] = "%d.%d.%d.%d".formatted(10 + (value >>> 24), (value >>> 16) & 0xff,
+                    (value >>> 8) & 0xff, value & 0xff);
+            binaryIps[i] = IpAddresses.parse(textIps[i]);
+        }
+    }
+
+    @Benchmark
+    public long textDistinct() {
+        Set<String> distinct = new HashSet<>();
+        for (String ip : textIps) {
+            distinct.add(ip);
+        }
+        return distinct.size();
+    }
+
+    @Benchmark
+    public long binaryDistinct() {
+        Set<ByteBuffer> distinct = new HashSet<>();
+        for (byte[] ip : binaryIps) {
+            distinct.add(ByteBuffer.wrap(ip));
+        }
+        return distinct.size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IpDistinctBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.stats.server.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.practicum.stats.server.sketch.HyperLogLog;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares exact distinct counting (what COUNT(DISTINCT ip) does over raw rows) with merging
+ * hourly HyperLogLog sketches. Run with {@code main}; accuracy is printed before the JMH run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class UniqueCountBenchmark {
+
+    private static final int BUCKETS = 24 * 30;
+
+    @Param({"100000", "1000000"})
+    private int hits;
+
+    private String[][] ipsPerBucket;
+    private HyperLogLog[] sketchesPerBucket;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        int visitors = Math.max(1, hits / 4);
+        int perBucket = Math.max(1, hits / BUCKETS);
+        ipsPerBucket = new String[BUCKETS][perBucket];
+        sketchesPerBucket = new HyperLogLog[BUCKETS];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            sketchesPerBucket[bucket] = new HyperLogLog();
+            for (int i = 0; i < perBucket; i++) {
+                String ip = ip(random.nextInt(visitors));
+                ipsPerBucket[bucket][i] = ip;
+                sketchesPerBucket[bucket].add(ip);
+            }
+        }
+    }
+
+    @Benchmark
+    public long exactDistinct() {
+        Set<String> distinct = new HashSet<>();
+        for (String[] bucket : ipsPerBucket) {
+            for (String ip : bucket) {
+                distinct.add(ip);
+            }
+        }
+        return distinct.size();
+    }
+
+    @Benchmark
+    public long mergedSketches() {
+        HyperLogLog merged = new HyperLogLog();
+        for (HyperLogLog sketch : sketchesPerBucket) {
+            merged.merge(sketch);
+        }
+        return merged.estimate();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int hits : new int[]{100_000, 1_000_000}) {
+            UniqueCountBenchmark benchmark = new UniqueCountBenchmark();
+            benchmark.hits = hits;
+            benchmark.setUp();
+            long exact = benchmark.exactDistinct();
+            long approximate = benchmark.mergedSketches();
+            System.out.printf("hits=%d exact=%d approximate=%d error=%.3f%% (expected stderr %.3f%%)%n",
+                    hits, exact, approximate, 100.0 * Math.abs(approximate - exact) / exact,
+                    100.0 * HyperLogLog.relativeStandardError(HyperLogLog.DEFAULT_PRECISION));
+        }
+        new Runner(new OptionsBuilder()
+                .include(UniqueCountBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private static String ip(int value) {
+        return "%d.%d.%d.%d".formatted(10 + (value >>> 24), (value >>> 16) & 0xff, (value >>> 8) & 0xff, value & 0xff);
+    }
+}
@@ -0,0 +1,130 @@
+package ru.practicum.stats.server.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.practicum.stats.dto.EndpointHitDto;
+import ru.practicum.stats.dto.StatsBinaryCodec;
+import ru.practicum.stats.dto.ViewStatsDto;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares JSON and {@link StatsBinaryCodec} for a hit batch as sent by the buffered client and for a stats
+ * response. Run with {@code main}; payload sizes are printed before the JMH run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final TypeReference<List<EndpointHitDto>> HITS = new TypeReference<>() {
+    };
+    private static final TypeReference<List<ViewStatsDto>> STATS = new TypeReference<>() {
+    };
+
+    @Param({"200", "10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<EndpointHitDto> hits;
+    private List<ViewStatsDto> stats;
+    private byte[] hitsJson;
+    private byte[] hitsBinary;
+    private byte[] statsJson;
+    private byte[] statsBinary;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = JsonMapper.builder().findAndAddModules().build();
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 12, 0);
+        hits = new ArrayList<>(size);
+        stats = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            hits.add(EndpointHitDto.builder()
+                    .app("ewm-main-service")
+                    .uri(random.nextInt(4) == 0 ? "/events" : "/events/" + random.nextInt(1000))
+                    .ip("10.0.%d.%d".formatted(random.nextInt(256), random.nextInt(256)))
+                    .timestamp(start.plusSeconds(i / 20))
+                    .build());
+            stats.add(ViewStatsDto.builder()
+                    .app("ewm-main-service")
+                    .uri("/events/" + i)
+                    .hits(random.nextInt(100_000))
+                    .build());
+        }
+        hitsJson = objectMapper.writeValueAsBytes(hits);
+        hitsBinary = StatsBinaryCodec.encodeHits(hits);
+        statsJson = objectMapper.writeValueAsBytes(stats);
+        statsBinary = StatsBinaryCodec.encodeStats(stats);
+    }
+
+    @Benchmark
+    public byte[] encodeHitsJson() throws IOException {
+        return objectMapper.writeValueAsBytes(hits);
+    }
+
+    @Benchmark
+    public byte[] encodeHitsBinary() {
+        return StatsBinaryCodec.encodeHits(hits);
+    }
+
+    @Benchmark
+    public List<EndpointHitDto> decodeHitsJson() throws IOException {
+        return objectMapper.readValue(hitsJson, HITS);
+    }
+
+    @Benchmark
+    public List<EndpointHitDto> decodeHitsBinary() {
+        return StatsBinaryCodec.decodeHits(hitsBinary);
+    }
+
+    @Benchmark
+    public byte[] encodeStatsJson() throws IOException {
+        return objectMapper.writeValueAsBytes(stats);
+    }
+
+    @Benchmark
+    public byte[] encodeStatsBinary() {
+        return StatsBinaryCodec.encodeStats(stats);
+    }
+
+    @Benchmark
+    public List<ViewStatsDto> decodeStatsJson() throws IOException {
+        return objectMapper.readValue(statsJson, STATS);
+    }
+
+    @Benchmark
+    public List<ViewStatsDto> decodeStatsBinary() {
+        return StatsBinaryCodec.decodeStats(statsBinary);
+    }
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        for (int size : new int[]{200, 10_000}) {
+            WireFormatBenchmark benchmark = new WireFormatBenchmark();
+            benchmark.size = size;
+            benchmark.setUp();
+            System.out.printf("size=%d hits json=%dB binary=%dB (%.1f%%), stats json=%dB binary=%dB (%.1f%%)%n",
+                    size, benchmark.hitsJson.length, benchmark.hitsBinary.length,
+                    100.0 * benchmark.hitsBinary.length / benchmark.hitsJson.length,
+                    benchmark.statsJson.length, benchmark.statsBinary.length,
+                    100.0 * benchmark.statsBinary.length / benchmark.statsJson.length);
+        }
+        new Runner(new OptionsBuilder()
+                .include(WireFormatBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.stats.server.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import ru.practicum.stats.dto.EndpointHitDto;
+import ru.practicum.stats.dto.StatsBinaryCodec;
+import ru.practicum.stats.dto.ViewStatsDto;
+
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class StatsBinaryHttpMessageConverterTest {
+
+    private static final Type HITS = new ParameterizedTypeReference<List<EndpointHitDto>>() {
+    }.getType();
+    private static final Type STATS = new ParameterizedTypeReference<List<ViewStatsDto>>() {
+    }.getType();
+
+    private final StatsBinaryHttpMessageConverter converter = new StatsBinaryHttpMessageConverter();
+
+    @Test
+    void canReadHitListsAndWriteStatsListsOnly() {
+        MediaType binary = StatsBinaryHttpMessageConverter.MEDIA_TYPE;
+
+        assertThat(converter.canRead(HITS, null, binary)).isTrue();
+        assertThat(converter.canRead(STATS, null, binary)).isFalse();
+        assertThat(converter.canRead(HITS, null, MediaType.APPLICATION_JSON)).isFalse();
+        assertThat(converter.canWrite(STATS, List.class, binary)).isTrue();
+        assertThat(converter.canWrite(HITS, List.class, binary)).isFalse();
+    }
+
+    @Test
+    void read_decodesHitBatch() throws Exception {
+        List<EndpointHitDto> hits = List.of(
+                hit("/events/1", "10.0.0.1", LocalDateTime.of(2024, 1, 1, 10, 0, 0)),
+                hit("/events/2", "10.0.0.1", LocalDateTime.of(2024, 1, 1, 9, 59, 59, 500))
+        );
+
+        Object read = converter.read(HITS, null, new MockHttpInputMessage(StatsBinaryCodec.encodeHits(hits)));
+
+        assertThat(read).isEqualTo(hits);
+    }
+
+    @Test
+    void read_rejectsMalformedPayload() {
+        Throwable thrown = catchThrowable(() ->
+                converter.read(HITS, null, new MockHttpInputMessage(new byte[]{0x45, 0x53, 1, 1, (byte) 0x80})));
+
+        assertThat(thrown).isInstanceOf(HttpMessageNotReadableException.class);
+    }
+
+    @Test
+    void write_encodesStats() throws Exception {
+        List<ViewStatsDto> stats = List.of(
+                ViewStatsDto.builder().app("ewm-main-service").uri("/events/1").hits(12).build(),
+                ViewStatsDto.builder().app("ewm-main-service").uri("/events").hits(3).build()
+        );
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        converter.write(stats, STATS, StatsBinaryHttpMessageConverter.MEDIA_TYPE, output);
+
+        assertThat(StatsBinaryCodec.decodeStats(output.getBodyAsBytes())).isEqualTo(stats);
+        assertThat(output.getHeaders().getContentType()).isEqualTo(StatsBinaryHttpMessageConverter.MEDIA_TYPE);
+    }
+
+    private EndpointHitDto hit(String uri, String ip, LocalDateTime timestamp) {
+        return EndpointHitDto.builder().app("ewm-main-service").uri(uri).ip(ip).timestamp(timestamp).build();
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.stats.server.mapper;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.stats.server.exception.InvalidIpAddressException;
+
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IpAddressesTest {
+
+    @Test
+    void parse_storesIpv4AsMappedIpv6() {
+        assertThat(hex(IpAddresses.parse("192.168.0.1"))).isEqualTo("00000000000000000000ffffc0a80001");
+        assertThat(IpAddresses.parse(" 192.168.0.1 ")).isEqualTo(IpAddresses.parse("::ffff:192.168.0.1"));
+    }
+
+    @Test
+    void parse_expandsCompressedIpv6() {
+        assertThat(hex(IpAddresses.parse("2001:db8::1"))).isEqualTo("20010db8000000000000000000000001");
+        assertThat(hex(IpAddresses.parse("::"))).isEqualTo("00000000000000000000000000000000");
+        assertThat(IpAddresses.parse("2001:DB8:0:0:0:0:0:1")).isEqualTo(IpAddresses.parse("2001:db8::1"));
+    }
+
+    @Test
+    void parse_rejectsNonLiterals() {
+        for (String value : new String[]{"999.1.1.1", "1.2.3", "host.name", "1::2::3", "1:2:3:4:5:6:7:8:9", ""}) {
+            assertThat(IpAddresses.tryParse(value)).as(value).isNull();
+        }
+        assertThatThrownBy(() -> IpAddresses.parse(" ")).isInstanceOf(InvalidIpAddressException.class);
+        assertThatThrownBy(() -> IpAddresses.parse(null)).isInstanceOf(InvalidIpAddressException.class);
+    }
+
+    @Test
+    void parse_storesNonLiteralsAsMd5OfText() {
+        assertThat(hex(IpAddresses.parse("unknown"))).isEqualTo("ad921d60486366258809553a3db49a4a");
+        assertThat(IpAddresses.parse("_hidden")).isEqualTo(IpAddresses.parse("_hidden")).hasSize(IpAddresses.LENGTH);
+    }
+
+    private static String hex(byte[] bytes) {
+        return HexFormat.of().formatHex(bytes);
+    }
+}
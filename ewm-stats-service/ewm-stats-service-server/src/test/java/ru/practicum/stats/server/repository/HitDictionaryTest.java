@@ -0,0 +1,88 @@
+package ru.practicum.stats.server.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class HitDictionaryTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<List<String>> lookups = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        doAnswer(invocation -> {
+            List<String> names = captureNames(invocation.getArgument(0));
+            lookups.add(names);
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (String name : names) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString(2)).thenReturn(name);
+                when(rs.getInt(1)).thenReturn(Integer.parseInt(name.substring("/events/".length())));
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void uriIds_evictsLeastRecentlyUsedName_whenCacheIsFull() {
+        HitDictionary dictionary = new HitDictionary(jdbcTemplate, 2);
+        dictionary.uriIds(List.of("/events/1", "/events/2"));
+        dictionary.uriIds(List.of("/events/1"));
+        dictionary.uriIds(List.of("/events/3"));
+        lookups.clear();
+
+        Map<String, Integer> ids = dictionary.uriIds(List.of("/events/1", "/events/2", "/events/3"));
+
+        assertThat(ids).containsExactlyInAnyOrderEntriesOf(Map.of("/events/1", 1, "/events/2", 2, "/events/3", 3));
+        assertThat(lookups).containsExactly(List.of("/events/2"));
+    }
+
+    @Test
+    void uriIds_keepsOtherCachedNames_whenCacheOverflows() {
+        HitDictionary dictionary = new HitDictionary(jdbcTemplate, 3);
+        dictionary.uriIds(List.of("/events/1"));
+        dictionary.uriIds(List.of("/events/2"));
+        dictionary.uriIds(List.of("/events/3"));
+        dictionary.uriIds(List.of("/events/4"));
+        lookups.clear();
+
+        dictionary.uriIds(List.of("/events/2", "/events/3", "/events/4"));
+
+        assertThat(lookups).isEmpty();
+    }
+
+    private static List<String> captureNames(PreparedStatementCreator creator) throws Exception {
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+        Object[][] names = new Object[1][];
+        when(connection.createArrayOf(anyString(), any())).thenAnswer(invocation -> {
+            names[0] = invocation.getArgument(1);
+            return mock(Array.class);
+        });
+        creator.createPreparedStatement(connection);
+        return Arrays.stream(names[0]).map(String.class::cast).toList();
+    }
+}
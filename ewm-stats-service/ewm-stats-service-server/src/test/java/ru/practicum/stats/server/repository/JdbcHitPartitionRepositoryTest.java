@@ -0,0 +1,33 @@
+package ru.practicum.stats.server.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JdbcHitPartitionRepositoryTest {
+
+    @Test
+    void parsePartition_readsRangeBounds() {
+        HitPartition partition = JdbcHitPartitionRepository.parsePartition("endpoint_hits_p20240310",
+                "FOR VALUES FROM ('2024-03-10 00:00:00') TO ('2024-03-11 00:00:00')");
+
+        assertThat(partition).isEqualTo(new HitPartition("endpoint_hits_p20240310",
+                LocalDateTime.of(2024, 3, 10, 0, 0), LocalDateTime.of(2024, 3, 11, 0, 0)));
+    }
+
+    @Test
+    void parsePartition_treatsMinValueAsOpenBound() {
+        HitPartition partition = JdbcHitPartitionRepository.parsePartition("endpoint_hits_legacy",
+                "FOR VALUES FROM (MINVALUE) TO ('2024-04-01 00:00:00')");
+
+        assertThat(partition.from()).isNull();
+        assertThat(partition.until()).isEqualTo(LocalDateTime.of(2024, 4, 1, 0, 0));
+    }
+
+    @Test
+    void parsePartition_skipsDefaultPartition() {
+        assertThat(JdbcHitPartitionRepository.parsePartition("endpoint_hits_default", "DEFAULT")).isNull();
+    }
+}
@@ -0,0 +1,66 @@
+package ru.practicum.stats.server.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UriFilterTest {
+
+    @Test
+    void of_returnsNone_whenNoUrisOrMatchAllWildcard() {
+        assertThat(UriFilter.of(null)).isSameAs(UriFilter.NONE);
+        assertThat(UriFilter.of(List.of())).isSameAs(UriFilter.NONE);
+        assertThat(UriFilter.of(List.of("/events/1", "*"))).isSameAs(UriFilter.NONE);
+    }
+
+    @Test
+    void matches_supportsExactAndPrefixForms() {
+        UriFilter filter = UriFilter.of(List.of("/events", "/events/*"));
+
+        assertThat(filter.matches("/events")).isTrue();
+        assertThat(filter.matches("/events/42")).isTrue();
+        assertThat(filter.matches("/compilations")).isFalse();
+    }
+
+    @Test
+    void matches_treatsEscapedTrailingWildcardAsLiteral() {
+        UriFilter filter = UriFilter.of(List.of("/search/\\*"));
+
+        assertThat(filter.matches("/search/*")).isTrue();
+        assertThat(filter.matches("/search/jazz")).isFalse();
+    }
+
+    @Test
+    void toSql_rendersEscapedWildcardAsExactUri() {
+        List<Object> args = new ArrayList<>();
+
+        String sql = UriFilter.of(List.of("/search/\\*")).toSql("uri", args);
+
+        assertThat(sql).isEqualTo("(uri IN (?))");
+        assertThat(args).containsExactly("/search/*");
+    }
+
+    @Test
+    void toSql_rendersInListAndEscapedLikePrefixes() {
+        List<Object> args = new ArrayList<>();
+
+        String sql = UriFilter.of(List.of("/a", "/b", "/c_d%/*")).toSql("uri", args);
+
+        assertThat(sql).isEqualTo("(uri IN (?, ?) OR uri LIKE ? ESCAPE '\\')");
+        assertThat(args).containsExactly("/a", "/b", "/c\\_d\\%/%");
+    }
+
+    @Test
+    void toIdSql_filtersIdsThroughUriDictionary() {
+        List<Object> args = new ArrayList<>();
+
+        String sql = UriFilter.of(List.of("/events/*")).toIdSql("uri_id", args);
+
+        assertThat(sql).isEqualTo("uri_id IN (SELECT id FROM uris WHERE (uri LIKE ? ESCAPE '\\'))");
+        assertThat(args).containsExactly("/events/%");
+        assertThat(UriFilter.NONE.toIdSql("uri_id", new ArrayList<>())).isEqualTo("TRUE");
+    }
+}
@@ -0,0 +1,211 @@
+package ru.practicum.stats.server.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import ru.practicum.stats.dto.EndpointHitDto;
+import ru.practicum.stats.server.exception.IngestOverloadedException;
+import ru.practicum.stats.server.exception.InvalidIpAddressException;
+import ru.practicum.stats.server.model.EndpointHit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class HitIngestPipelineTest {
+
+    private final StatsService statsService = mock(StatsService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HitIngestPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.close();
+        }
+    }
+
+    @Test
+    void submit_inCommitMode_completesAfterBatchIsSaved() throws Exception {
+        List<List<EndpointHit>> batches = new ArrayList<>();
+        doAnswer(invocation -> {
+            batches.add(List.copyOf(invocation.getArgument(0)));
+            return batches.get(batches.size() - 1).size();
+        }).when(statsService).saveAll(anyList());
+        pipeline = pipeline(IngestAckMode.COMMIT, 16);
+
+        CompletableFuture<Void> ack = pipeline.submit(hit("/events/1"));
+
+        ack.get(5, TimeUnit.SECONDS);
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).extracting(EndpointHit::getUri).containsExactly("/events/1");
+        assertThat(meterRegistry.counter("stats.ingest.hits", "result", "committed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void submit_groupsHitsArrivingDuringCommitIntoOneBatch() throws Exception {
+        CountDownLatch firstCommitStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstCommit = new CountDownLatch(1);
+        List<Integer> batchSizes = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<EndpointHit> hits = invocation.getArgument(0);
+            batchSizes.add(hits.size());
+            firstCommitStarted.countDown();
+            releaseFirstCommit.await(5, TimeUnit.SECONDS);
+            return hits.size();
+        }).when(statsService).saveAll(anyList());
+        pipeline = pipeline(IngestAckMode.COMMIT, 16);
+
+        CompletableFuture<Void> first = pipeline.submit(hit("/events/1"));
+        assertThat(firstCommitStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        List<CompletableFuture<Void>> rest = new ArrayList<>();
+        for (int i = 2; i <= 4; i++) {
+            rest.add(pipeline.submit(hit("/events/" + i)));
+        }
+        releaseFirstCommit.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        CompletableFuture.allOf(rest.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        assertThat(batchSizes).containsExactly(1, 3);
+    }
+
+    @Test
+    void submit_whenBufferIsFull_rejectsHit() throws Exception {
+        CountDownLatch commitStarted = new CountDownLatch(1);
+        CountDownLatch releaseCommit = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            commitStarted.countDown();
+            releaseCommit.await(5, TimeUnit.SECONDS);
+            return 1;
+        }).when(statsService).saveAll(anyList());
+        pipeline = pipeline(IngestAckMode.ENQUEUE, 2);
+
+        pipeline.submit(hit("/events/1"));
+        assertThat(commitStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        pipeline.submit(hit("/events/2"));
+        pipeline.submit(hit("/events/3"));
+
+        assertThatThrownBy(() -> pipeline.submit(hit("/events/4")))
+                .isInstanceOf(IngestOverloadedException.class);
+        assertThat(meterRegistry.counter("stats.ingest.hits", "result", "rejected").count()).isEqualTo(1);
+        releaseCommit.countDown();
+    }
+
+    @Test
+    void submit_inEnqueueMode_acknowledgesBeforeCommit() {
+        pipeline = pipeline(IngestAckMode.ENQUEUE, 16);
+
+        CompletableFuture<Void> ack = pipeline.submit(hit("/events/1"));
+
+        assertThat(ack).isCompleted();
+        verify(statsService, timeout(5000)).saveAll(anyList());
+    }
+
+    @Test
+    void submit_inCommitMode_failsWhenBatchCannotBeSaved() {
+        doAnswer(invocation -> {
+            throw new IllegalStateException("database is down");
+        }).when(statsService).saveAll(anyList());
+        pipeline = pipeline(IngestAckMode.COMMIT, 16);
+
+        CompletableFuture<Void> ack = pipeline.submit(hit("/events/1"));
+
+        assertThatThrownBy(() -> ack.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void submit_rejectsBlankIpBeforeEnqueueing() {
+        pipeline = pipeline(IngestAckMode.ENQUEUE, 16);
+        EndpointHitDto hit = hit("/events/1");
+        hit.setIp(" ");
+
+        assertThatThrownBy(() -> pipeline.submit(hit)).isInstanceOf(InvalidIpAddressException.class);
+        assertThat(pipeline.pending()).isZero();
+    }
+
+    @Test
+    void write_retriesTransientFailureInEnqueueMode() {
+        AtomicInteger attempts = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new TransientDataAccessResourceException("connection reset");
+            }
+            return 1;
+        }).when(statsService).saveAll(anyList());
+        pipeline = pipeline(IngestAckMode.ENQUEUE, 16);
+
+        pipeline.submit(hit("/events/1"));
+
+        verify(statsService, timeout(5000).times(3)).saveAll(anyList());
+        assertThat(meterRegistry.counter("stats.ingest.hits", "result", "committed").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("stats.ingest.hits", "result", "failed").count()).isZero();
+    }
+
+    @Test
+    void write_splitsRejectedBatchToIsolateBadHit() throws Exception {
+        CountDownLatch commitStarted = new CountDownLatch(1);
+        CountDownLatch releaseCommit = new CountDownLatch(1);
+        List<String> saved = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            List<EndpointHit> hits = invocation.getArgument(0);
+            commitStarted.countDown();
+            releaseCommit.await(5, TimeUnit.SECONDS);
+            if (hits.stream().anyMatch(hit -> hit.getUri().equals("/bad"))) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            hits.forEach(hit -> saved.add(hit.getUri()));
+            return hits.size();
+        }).when(statsService).saveAll(anyList());
+        pipeline = pipeline(IngestAckMode.COMMIT, 16);
+
+        CompletableFuture<Void> first = pipeline.submit(hit("/events/0"));
+        assertThat(commitStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        List<CompletableFuture<Void>> acks = new ArrayList<>();
+        for (String uri : List.of("/events/1", "/events/2", "/bad", "/events/3", "/events/4")) {
+            acks.add(pipeline.submit(hit(uri)));
+        }
+        releaseCommit.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        assertThatThrownBy(() -> acks.get(2).get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(
+                DataIntegrityViolationException.class);
+        for (int i : new int[]{0, 1, 3, 4}) {
+            acks.get(i).get(5, TimeUnit.SECONDS);
+        }
+        assertThat(saved).containsExactlyInAnyOrder("/events/0", "/events/1", "/events/2", "/events/3", "/events/4");
+        assertThat(meterRegistry.counter("stats.ingest.hits", "result", "failed").count()).isEqualTo(1);
+    }
+
+    private HitIngestPipeline pipeline(IngestAckMode ackMode, int capacity) {
+        return new HitIngestPipeline(statsService, meterRegistry, ackMode, capacity, 100, Duration.ofSeconds(5),
+                2, Duration.ofMillis(10));
+    }
+
+    private static EndpointHitDto hit(String uri) {
+        return EndpointHitDto.builder()
+                .app("ewm-main-service")
+                .uri(uri)
+                .ip("192.168.0.1")
+                .timestamp(LocalDateTime.of(2024, 1, 1, 12, 0))
+                .build();
+    }
+}
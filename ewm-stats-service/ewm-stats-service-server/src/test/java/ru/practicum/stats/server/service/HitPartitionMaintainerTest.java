@@ -0,0 +1,165 @@
+package ru.practicum.stats.server.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import ru.practicum.stats.server.repository.HitPartition;
+import ru.practicum.stats.server.repository.HitPartitionRepository;
+import ru.practicum.stats.server.repository.HitRollupRepository;
+import ru.practicum.stats.server.repository.HitSketchRepository;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class HitPartitionMaintainerTest {
+
+    private final Clock clock = Clock.fixed(Instant.parse("2024-03-10T12:00:00Z"), ZoneOffset.UTC);
+
+    @Mock
+    private HitPartitionRepository hitPartitionRepository;
+
+    @Mock
+    private HitRollupRepository hitRollupRepository;
+
+    @Mock
+    private HitSketchRepository hitSketchRepository;
+
+    @Mock
+    private HitTableMigration hitTableMigration;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void maintain_createsMissingPartitionsAhead() {
+        when(hitPartitionRepository.findPartitions()).thenReturn(List.of(
+                new HitPartition("endpoint_hits_p20240310", day(10), day(11))));
+
+        maintainer(PartitionInterval.DAY, 2, 0, false).maintain();
+
+        ArgumentCaptor<HitPartition> captor = ArgumentCaptor.forClass(HitPartition.class);
+        verify(hitPartitionRepository, times(2)).createPartition(captor.capture());
+        assertThat(captor.getAllValues()).containsExactly(
+                new HitPartition("endpoint_hits_p20240311", day(11), day(12)),
+                new HitPartition("endpoint_hits_p20240312", day(12), day(13)));
+        verify(hitPartitionRepository, never()).dropPartition(any());
+    }
+
+    @Test
+    void maintain_dropsPartitionsOlderThanRetention() {
+        when(hitPartitionRepository.findPartitions()).thenReturn(List.of(
+                new HitPartition("endpoint_hits_legacy", null, day(1)),
+                new HitPartition("endpoint_hits_p20240307", day(7), day(8)),
+                new HitPartition("endpoint_hits_p20240308", day(8), day(9)),
+                new HitPartition("endpoint_hits_p20240310", day(10), day(11))));
+
+        maintainer(PartitionInterval.DAY, 1, 2, false).maintain();
+
+        verify(hitPartitionRepository).dropPartition("endpoint_hits_legacy");
+        verify(hitPartitionRepository).dropPartition("endpoint_hits_p20240307");
+        verify(hitPartitionRepository, never()).dropPartition("endpoint_hits_p20240308");
+        verify(hitPartitionRepository, never()).dropPartition("endpoint_hits_p20240310");
+        verify(hitPartitionRepository).deleteHitsBefore(LocalDateTime.of(2024, 3, 8, 12, 0));
+    }
+
+    @Test
+    void maintain_expiresRawHitsRollupsAndSketchesAtSameHourAlignedCutoff() {
+        Clock midHour = Clock.fixed(Instant.parse("2024-03-10T12:34:56Z"), ZoneOffset.UTC);
+        when(hitPartitionRepository.findPartitions()).thenReturn(List.of());
+
+        new HitPartitionMaintainer(hitPartitionRepository, hitRollupRepository, hitSketchRepository,
+                hitTableMigration, false, midHour, PartitionInterval.DAY, 1, 2).maintain();
+
+        LocalDateTime cutoff = LocalDateTime.of(2024, 3, 8, 12, 0);
+        verify(hitPartitionRepository).deleteHitsBefore(cutoff);
+        verify(hitRollupRepository).deleteBucketsBefore(cutoff);
+        verify(hitSketchRepository).deleteBucketsBefore(cutoff);
+    }
+
+    @Test
+    void maintain_keepsAllStats_withoutRetention() {
+        when(hitPartitionRepository.findPartitions()).thenReturn(List.of());
+
+        maintainer(PartitionInterval.DAY, 1, 0, false).maintain();
+
+        verify(hitPartitionRepository, never()).deleteHitsBefore(any());
+        verify(hitRollupRepository, never()).deleteBucketsBefore(any());
+        verify(hitSketchRepository, never()).deleteBucketsBefore(any());
+    }
+
+    @Test
+    void initialize_convertsLegacyTableUpToNextMonth() {
+        when(hitPartitionRepository.isPartitioned()).thenReturn(false);
+        when(hitPartitionRepository.findLatestHitTimestamp()).thenReturn(day(9));
+        when(hitPartitionRepository.findPartitions()).thenReturn(List.of(
+                new HitPartition("endpoint_hits_legacy", null, LocalDateTime.of(2024, 4, 1, 0, 0))));
+
+        maintainer(PartitionInterval.MONTH, 1, 0, false).initialize();
+
+        verify(hitPartitionRepository).convertToPartitioned(LocalDateTime.of(2024, 4, 1, 0, 0));
+        verify(hitPartitionRepository).createDefaultPartition();
+        verify(hitPartitionRepository).createPartition(new HitPartition("endpoint_hits_p202404",
+                LocalDateTime.of(2024, 4, 1, 0, 0), LocalDateTime.of(2024, 5, 1, 0, 0)));
+    }
+
+    @Test
+    void initialize_migratesLegacyTableBeforePartitioning_whenEnabled() {
+        when(hitTableMigration.isPending()).thenReturn(true);
+        when(hitPartitionRepository.isPartitioned()).thenReturn(false);
+        when(hitPartitionRepository.findPartitions()).thenReturn(List.of());
+
+        maintainer(PartitionInterval.DAY, 1, 0, true).initialize();
+
+        InOrder inOrder = inOrder(hitTableMigration, hitPartitionRepository);
+        inOrder.verify(hitTableMigration).run();
+        inOrder.verify(hitPartitionRepository).convertToPartitioned(any());
+        inOrder.verify(hitPartitionRepository).createUriIndex();
+    }
+
+    @Test
+    void initialize_refusesLegacyTable_whenMigrationNotEnabled() {
+        when(hitTableMigration.isPending()).thenReturn(true);
+
+        HitPartitionMaintainer maintainer = maintainer(PartitionInterval.DAY, 1, 0, false);
+
+        assertThatThrownBy(maintainer::initialize).isInstanceOf(IllegalStateException.class);
+        verify(hitTableMigration, never()).run();
+        verify(hitPartitionRepository, never()).convertToPartitioned(any());
+    }
+
+    @Test
+    void initialize_skipsMigration_whenLayoutIsCurrent() {
+        when(hitPartitionRepository.isPartitioned()).thenReturn(true);
+        when(hitPartitionRepository.findPartitions()).thenReturn(List.of());
+
+        maintainer(PartitionInterval.DAY, 1, 0, false).initialize();
+
+        verify(hitTableMigration, never()).run();
+        verify(hitPartitionRepository).createUriIndex();
+    }
+
+    private HitPartitionMaintainer maintainer(PartitionInterval interval,
+                                              int premake,
+                                              int retentionDays,
+                                              boolean migrationEnabled) {
+        return new HitPartitionMaintainer(hitPartitionRepository, hitRollupRepository, hitSketchRepository,
+                hitTableMigration, migrationEnabled, clock, interval, premake, retentionDays);
+    }
+
+    private static LocalDateTime day(int dayOfMonth) {
+        return LocalDateTime.of(2024, 3, dayOfMonth, 0, 0);
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.stats.server.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HitRingBufferTest {
+
+    @Test
+    void offer_rejectsWhenFullAndAcceptsAgainAfterDrain() {
+        HitRingBuffer<Integer> buffer = new HitRingBuffer<>(3);
+        List<Integer> drained = new ArrayList<>();
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.capacity()).isEqualTo(4);
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.drainTo(drained, 2)).isEqualTo(2);
+        assertThat(buffer.offer(4)).isTrue();
+        assertThat(buffer.offer(5)).isTrue();
+        buffer.drainTo(drained, 10);
+
+        assertThat(drained).containsExactly(0, 1, 2, 3, 4, 5);
+        assertThat(buffer.isEmpty()).isTrue();
+    }
+
+    @Test
+    void offer_fromManyProducers_deliversEveryElementOnce() throws Exception {
+        HitRingBuffer<Integer> buffer = new HitRingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            executor.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        List<Integer> drained = new ArrayList<>();
+        while (drained.size() < producers * perProducer) {
+            if (buffer.drainTo(drained, 128) == 0) {
+                Thread.yield();
+            }
+        }
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+
+        assertThat(drained).doesNotHaveDuplicates().hasSize(producers * perProducer);
+    }
+}
@@ -0,0 +1,119 @@
+package ru.practicum.stats.server.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.MutableClock;
+import ru.practicum.stats.server.mapper.IpAddresses;
+import ru.practicum.stats.server.model.EndpointHit;
+import ru.practicum.stats.server.repository.HitSketchRepository;
+import ru.practicum.stats.server.repository.UriFilter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+class HitSketchAggregatorTest {
+
+    private static final LocalDateTime HOUR = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @Mock
+    private HitSketchRepository hitSketchRepository;
+
+    private HitSketchAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        aggregator = new HitSketchAggregator(hitSketchRepository, new MutableClock(HOUR.plusMinutes(20)), false,
+                Duration.ofHours(2));
+    }
+
+    @Test
+    void estimateUnique_includesHitsNotYetFlushed() {
+        aggregator.record(List.of(
+                hit("/events/1", "10.0.0.1"),
+                hit("/events/1", "10.0.0.1"),
+                hit("/events/1", "10.0.0.2"),
+                hit("/events/2", "10.0.0.3")));
+
+        List<ViewStatsDto> result = aggregator.estimateUnique(HOUR, HOUR.plusHours(1),
+                UriFilter.of(List.of("/events/1")));
+
+        assertThat(result).hasSize(1);
+        assertThat(result.getFirst().getHits()).isEqualTo(2);
+    }
+
+    @Test
+    void flush_writesPendingSketchesOnce() {
+        aggregator.record(List.of(hit("/events/1", "10.0.0.1")));
+
+        aggregator.flush();
+        aggregator.flush();
+
+        verify(hitSketchRepository, times(1)).mergeAll(anyMap());
+    }
+
+    @Test
+    void flush_keepsSketchesWhenRepositoryFails() {
+        doThrow(new IllegalStateException("db down")).when(hitSketchRepository).mergeAll(anyMap());
+        aggregator.record(List.of(hit("/events/1", "10.0.0.1")));
+
+        aggregator.flush();
+        aggregator.flush();
+
+        verify(hitSketchRepository, times(2)).mergeAll(anyMap());
+        when(hitSketchRepository.findSketches(any(), any(), any())).thenReturn(List.of());
+        assertThat(aggregator.estimateUnique(HOUR, HOUR.plusHours(1), UriFilter.NONE))
+                .extracting(ViewStatsDto::getHits)
+                .containsExactly(1L);
+    }
+
+    @Test
+    void backfillOnStartup_buildsAllSketches_whenNoneAreStored() {
+        when(hitSketchRepository.isEmpty()).thenReturn(true);
+
+        startupAggregator().backfillOnStartup();
+
+        verify(hitSketchRepository).backfillFromHits();
+        verify(hitSketchRepository, never()).backfillFromHits(any());
+    }
+
+    @Test
+    void backfillOnStartup_rebuildsRecentBuckets_whenSketchesAreStored() {
+        when(hitSketchRepository.isEmpty()).thenReturn(false);
+
+        startupAggregator().backfillOnStartup();
+
+        verify(hitSketchRepository).backfillFromHits(HOUR.minusHours(2));
+        verify(hitSketchRepository, never()).backfillFromHits();
+    }
+
+    @Test
+    void backfillOnStartup_doesNothing_whenDisabled() {
+        aggregator.backfillOnStartup();
+
+        verifyNoInteractions(hitSketchRepository);
+    }
+
+    private HitSketchAggregator startupAggregator() {
+        return new HitSketchAggregator(hitSketchRepository, new MutableClock(HOUR.plusMinutes(20)), true,
+                Duration.ofHours(2));
+    }
+
+    private static EndpointHit hit(String uri, String ip) {
+        return EndpointHit.builder()
+                .app("app")
+                .uri(uri)
+                .ip(IpAddresses.parse(ip))
+                .timestamp(HOUR.plusMinutes(15))
+                .build();
+    }
+}
@@ -0,0 +1,95 @@
+package ru.practicum.stats.server.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import ru.practicum.stats.server.repository.HitIdRange;
+import ru.practicum.stats.server.repository.HitMigrationRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class HitTableMigrationTest {
+
+    @Mock
+    private HitMigrationRepository hitMigrationRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private HitTableMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(hitMigrationRepository.isIpBinary()).thenReturn(true);
+        migration = new HitTableMigration(hitMigrationRepository, transactionManager, 10);
+    }
+
+    @Test
+    void run_encodesDictionaryInIdBatches() {
+        when(hitMigrationRepository.isDictionaryEncoded()).thenReturn(false);
+        when(hitMigrationRepository.findIdRange()).thenReturn(new HitIdRange(5, 27));
+
+        migration.run();
+
+        InOrder inOrder = inOrder(hitMigrationRepository, transactionManager);
+        inOrder.verify(hitMigrationRepository).prepareDictionaryEncoding();
+        inOrder.verify(hitMigrationRepository).encodeDictionaryBatch(4, 14);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(hitMigrationRepository).encodeDictionaryBatch(14, 24);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(hitMigrationRepository).encodeDictionaryBatch(24, 27);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(hitMigrationRepository).finishDictionaryEncoding();
+        verify(hitMigrationRepository, times(3)).encodeDictionaryBatch(anyLong(), anyLong());
+    }
+
+    @Test
+    void run_finishesEmptyTableWithoutBatches() {
+        when(hitMigrationRepository.isDictionaryEncoded()).thenReturn(false);
+        when(hitMigrationRepository.findIdRange()).thenReturn(null);
+
+        migration.run();
+
+        verify(hitMigrationRepository, never()).encodeDictionaryBatch(anyLong(), anyLong());
+        verify(hitMigrationRepository).finishDictionaryEncoding();
+    }
+
+    @Test
+    void run_convertsIpsInIdBatchesAfterDictionary() {
+        when(hitMigrationRepository.isDictionaryEncoded()).thenReturn(false);
+        when(hitMigrationRepository.isIpBinary()).thenReturn(false);
+        when(hitMigrationRepository.findIdRange()).thenReturn(new HitIdRange(1, 15));
+
+        assertThat(migration.isPending()).isTrue();
+        migration.run();
+
+        InOrder inOrder = inOrder(hitMigrationRepository);
+        inOrder.verify(hitMigrationRepository).finishDictionaryEncoding();
+        inOrder.verify(hitMigrationRepository).prepareIpConversion();
+        inOrder.verify(hitMigrationRepository).convertIpBatch(0, 10);
+        inOrder.verify(hitMigrationRepository).convertIpBatch(10, 15);
+        inOrder.verify(hitMigrationRepository).finishIpConversion();
+    }
+
+    @Test
+    void run_doesNothing_whenAlreadyEncoded() {
+        when(hitMigrationRepository.isDictionaryEncoded()).thenReturn(true);
+
+        assertThat(migration.isPending()).isFalse();
+        migration.run();
+
+        verify(hitMigrationRepository, never()).prepareDictionaryEncoding();
+        verify(hitMigrationRepository, never()).finishDictionaryEncoding();
+        verify(hitMigrationRepository, never()).prepareIpConversion();
+        verify(hitMigrationRepository, never()).finishIpConversion();
+    }
+}
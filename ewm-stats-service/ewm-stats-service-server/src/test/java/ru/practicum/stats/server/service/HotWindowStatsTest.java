@@ -0,0 +1,115 @@
+package ru.practicum.stats.server.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.MutableClock;
+import ru.practicum.stats.server.mapper.IpAddresses;
+import ru.practicum.stats.server.model.EndpointHit;
+import ru.practicum.stats.server.repository.UriFilter;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotWindowStatsTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final Clock clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+
+    @Test
+    void query_coversOnlyMinutesAfterStartup() {
+        HotWindowStats stats = new HotWindowStats(clock, true, 1);
+
+        HotWindowStats.Result result = stats.query(NOW.minusHours(2), NOW.plusSeconds(1), UriFilter.NONE, false);
+
+        assertThat(result.coveredFrom()).isEqualTo(NOW);
+    }
+
+    @Test
+    void query_returnsUncoveredRangeForSlotStraddlingBoundary() {
+        HotWindowStats stats = new HotWindowStats(clock, true, 1);
+        stats.record(List.of(hit("/a", "10.0.0.1", NOW.plusSeconds(10)), hit("/a", "10.0.0.2", NOW.plusSeconds(50))));
+
+        HotWindowStats.Result result = stats.query(NOW, NOW.plusSeconds(30), UriFilter.NONE, false);
+
+        assertThat(result.stats()).isEmpty();
+        assertThat(result.uncoveredRanges()).containsExactly(new RollupPlan.TimeRange(NOW, NOW.plusSeconds(30)));
+    }
+
+    @Test
+    void query_usesPartialSlotWhenAllHitsFallInsideRange() {
+        HotWindowStats stats = new HotWindowStats(clock, true, 1);
+        stats.record(List.of(hit("/a", "10.0.0.1", NOW.plusSeconds(10)), hit("/b", "10.0.0.1", NOW.plusSeconds(20))));
+
+        HotWindowStats.Result result = stats.query(NOW, NOW.plusSeconds(30), UriFilter.of(List.of("/a")), false);
+
+        assertThat(result.uncoveredRanges()).isEmpty();
+        assertThat(result.stats()).extracting(ViewStatsDto::getUri).containsExactly("/a");
+    }
+
+    @Test
+    void query_countsUniqueIpsAcrossSlots() {
+        HotWindowStats stats = new HotWindowStats(clock, true, 1);
+        stats.record(List.of(
+                hit("/a", "10.0.0.1", NOW.plusSeconds(10)),
+                hit("/a", "10.0.0.1", NOW.plusMinutes(1)),
+                hit("/a", "10.0.0.2", NOW.plusMinutes(1).plusSeconds(30))
+        ));
+
+        HotWindowStats.Result result = stats.query(NOW, NOW.plusMinutes(5), UriFilter.NONE, true);
+
+        assertThat(result.stats()).extracting(ViewStatsDto::getHits).containsExactly(2L);
+    }
+
+    @Test
+    void query_declinesUniqueWhenRangeStartsBeforeWindow() {
+        HotWindowStats stats = new HotWindowStats(clock, true, 1);
+        stats.record(List.of(hit("/a", "10.0.0.1", NOW.plusSeconds(10))));
+
+        HotWindowStats.Result result = stats.query(NOW.minusMinutes(1), NOW.plusMinutes(1), UriFilter.NONE, true);
+
+        assertThat(result.stats()).isEmpty();
+        assertThat(result.coveredFrom()).isEqualTo(NOW.plusMinutes(1));
+    }
+
+    @Test
+    void query_leavesMinuteWithFutureHitsToDatabase() {
+        MutableClock movingClock = new MutableClock(NOW);
+        HotWindowStats stats = new HotWindowStats(movingClock, true, 1);
+        stats.record(List.of(hit("/a", "10.0.0.1", NOW.plusMinutes(10).plusSeconds(5))));
+        movingClock.set(NOW.plusMinutes(10));
+        stats.record(List.of(hit("/a", "10.0.0.2", NOW.plusMinutes(10).plusSeconds(20))));
+
+        HotWindowStats.Result result = stats.query(NOW, NOW.plusMinutes(11), UriFilter.NONE, false);
+
+        assertThat(result.uncoveredRanges())
+                .containsExactly(new RollupPlan.TimeRange(NOW.plusMinutes(10), NOW.plusMinutes(11)));
+        assertThat(result.stats()).isEmpty();
+        assertThat(stats.query(NOW, NOW.plusMinutes(11), UriFilter.NONE, true).stats()).isEmpty();
+    }
+
+    @Test
+    void record_startsWindowAfterFutureMinutes_whenTooManyAreSkipped() {
+        HotWindowStats stats = new HotWindowStats(clock, true, 1);
+        for (int minute = 2; minute <= 62; minute++) {
+            stats.record(List.of(hit("/a", "10.0.0.1", NOW.plusMinutes(minute))));
+        }
+
+        HotWindowStats.Result result = stats.query(NOW.minusMinutes(5), NOW.plusSeconds(30), UriFilter.NONE, false);
+
+        assertThat(result.coveredFrom()).isEqualTo(NOW.plusSeconds(30));
+    }
+
+    private EndpointHit hit(String uri, String ip, LocalDateTime timestamp) {
+        EndpointHit hit = new EndpointHit();
+        hit.setApp("app");
+        hit.setUri(uri);
+        hit.setIp(IpAddresses.parse(ip));
+        hit.setTimestamp(timestamp);
+        return hit;
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.stats.server.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.stats.server.repository.RollupGranularity;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RollupPlanTest {
+
+    @Test
+    void of_splitsRangeIntoHoursMinutesAndRawEdges() {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 9, 58, 30);
+        LocalDateTime until = LocalDateTime.of(2024, 1, 1, 12, 2, 10);
+
+        RollupPlan plan = RollupPlan.of(from, until);
+
+        assertThat(plan.getRollupRanges().get(RollupGranularity.HOUR)).containsExactly(
+                new RollupPlan.TimeRange(at(10, 0, 0), at(12, 0, 0)));
+        assertThat(plan.getRollupRanges().get(RollupGranularity.MINUTE)).containsExactly(
+                new RollupPlan.TimeRange(at(9, 59, 0), at(10, 0, 0)),
+                new RollupPlan.TimeRange(at(12, 0, 0), at(12, 2, 0)));
+        assertThat(plan.getRawRanges()).containsExactly(
+                new RollupPlan.TimeRange(from, at(9, 59, 0)),
+                new RollupPlan.TimeRange(at(12, 2, 0), until));
+    }
+
+    @Test
+    void of_usesRawRowsOnlyForSubMinuteRange() {
+        LocalDateTime from = at(10, 0, 5);
+        LocalDateTime until = at(10, 0, 50);
+
+        RollupPlan plan = RollupPlan.of(from, until);
+
+        assertThat(plan.getRollupRanges()).isEmpty();
+        assertThat(plan.getRawRanges()).containsExactly(new RollupPlan.TimeRange(from, until));
+    }
+
+    private static LocalDateTime at(int hour, int minute, int second) {
+        return LocalDateTime.of(2024, 1, 1, hour, minute, second);
+    }
+}
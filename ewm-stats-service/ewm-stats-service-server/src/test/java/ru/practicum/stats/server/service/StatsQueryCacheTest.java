@@ -0,0 +1,78 @@
+package ru.practicum.stats.server.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.MutableClock;
+import ru.practicum.stats.server.repository.UriFilter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatsQueryCacheTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0, 1);
+    private static final LocalDateTime START = LocalDateTime.of(2023, 1, 1, 0, 0);
+
+    private final MutableClock clock = new MutableClock(NOW);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StatsQueryCache cache = new StatsQueryCache(clock, meterRegistry, true,
+            Duration.ofSeconds(5), Duration.ofSeconds(10), 2);
+    private final List<LocalDateTime> loads = new ArrayList<>();
+
+    @Test
+    void get_sharesEntryForEndsWithinGranularity() {
+        get(NOW, UriFilter.NONE);
+        clock.set(NOW.plusSeconds(2));
+        get(NOW.plusSeconds(2), UriFilter.NONE);
+
+        assertThat(loads).containsExactly(LocalDateTime.of(2024, 1, 1, 12, 0, 5));
+        assertThat(meterRegistry.counter("stats.cache.requests", "result", "hit").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("stats.cache.requests", "result", "miss").count()).isEqualTo(1);
+    }
+
+    @Test
+    void get_keepsExactEndForHistoricalRanges() {
+        LocalDateTime end = NOW.minusDays(1).plusNanos(123_000);
+
+        get(end, UriFilter.NONE);
+
+        assertThat(loads).containsExactly(end);
+    }
+
+    @Test
+    void get_reloadsAfterTtl() {
+        get(NOW, UriFilter.NONE);
+        clock.set(NOW.plusSeconds(3).plusSeconds(10));
+        get(NOW, UriFilter.NONE);
+
+        assertThat(loads).hasSize(2);
+    }
+
+    @Test
+    void get_evictsLeastRecentlyUsedBeyondMaxEntries() {
+        UriFilter a = UriFilter.of(List.of("/a"));
+        UriFilter b = UriFilter.of(List.of("/b"));
+        UriFilter c = UriFilter.of(List.of("/c"));
+        get(NOW, a);
+        get(NOW, b);
+        get(NOW, a);
+        get(NOW, c);
+        get(NOW, a);
+        get(NOW, b);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(loads).hasSize(4);
+    }
+
+    private List<ViewStatsDto> get(LocalDateTime end, UriFilter uriFilter) {
+        return cache.get(START, end, uriFilter, false, false, loadEnd -> {
+            loads.add(loadEnd);
+            return List.of(ViewStatsDto.builder().app("app").uri("/a").hits(1L).build());
+        });
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.stats.server.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -7,17 +8,35 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import ru.practicum.stats.dto.EndpointHitDto;
 import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.dto.ViewsRequestDto;
+import ru.practicum.stats.server.MutableClock;
 import ru.practicum.stats.server.exception.InvalidDateRangeException;
+import ru.practicum.stats.server.exception.InvalidIpAddressException;
+import ru.practicum.stats.server.exception.InvalidParameterCombinationException;
+import ru.practicum.stats.server.mapper.IpAddresses;
 import ru.practicum.stats.server.model.EndpointHit;
 import ru.practicum.stats.server.repository.EndpointHitRepository;
-import ru.practicum.stats.server.repository.ViewStatsProjection;
+import ru.practicum.stats.server.repository.HitRollupRepository;
+import ru.practicum.stats.server.repository.RollupGranularity;
+import ru.practicum.stats.server.repository.StatsSource;
+import ru.practicum.stats.server.repository.StatsStreamRepository;
+import ru.practicum.stats.server.repository.UriFilter;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 class StatsServiceImplTest {
@@ -27,13 +46,25 @@ class StatsServiceImplTest {
     @Mock
     private EndpointHitRepository endpointHitRepository;
 
+    @Mock
+    private HitRollupRepository hitRollupRepository;
+
+    @Mock
+    private HitSketchAggregator hitSketchAggregator;
+
+    @Mock
+    private StatsStreamRepository statsStreamRepository;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        statsService = new StatsServiceImpl(endpointHitRepository);
+        statsService = new StatsServiceImpl(endpointHitRepository, hitRollupRepository, hitSketchAggregator,
+                new HotWindowStats(Clock.systemUTC(), false, 3), new TrendingUris(Clock.systemUTC(), 60, 100),
+                disabledCache(), statsStreamRepository);
     }
 
     @Test
+    @SuppressWarnings("unchecked")
     void saveHit_persistsEntity() {
         EndpointHitDto dto = EndpointHitDto.builder()
                 .app("test-app")
@@ -44,11 +75,66 @@ class StatsServiceImplTest {
 
         statsService.saveHit(dto);
 
-        ArgumentCaptor<EndpointHit> captor = ArgumentCaptor.forClass(EndpointHit.class);
-        verify(endpointHitRepository).save(captor.capture());
-        EndpointHit saved = captor.getValue();
+        ArgumentCaptor<Collection<EndpointHit>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(endpointHitRepository).insertAll(captor.capture());
+        EndpointHit saved = captor.getValue().iterator().next();
         assertThat(saved.getApp()).isEqualTo(dto.getApp());
         assertThat(saved.getUri()).isEqualTo(dto.getUri());
+        verify(hitRollupRepository).increment(List.of(saved));
+        verify(hitSketchAggregator).record(List.of(saved));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void saveHits_insertsBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<EndpointHitDto> dtos = List.of(
+                EndpointHitDto.builder().app("app").uri("/a").ip("10.0.0.1").timestamp(now).build(),
+                EndpointHitDto.builder().app("app").uri("/b").ip("10.0.0.2").timestamp(now).build()
+        );
+        when(endpointHitRepository.insertAll(anyCollection())).thenReturn(2);
+
+        int saved = statsService.saveHits(dtos);
+
+        ArgumentCaptor<Collection<EndpointHit>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(endpointHitRepository).insertAll(captor.capture());
+        assertThat(saved).isEqualTo(2);
+        assertThat(captor.getValue()).extracting(EndpointHit::getUri).containsExactly("/a", "/b");
+        verify(hitRollupRepository).increment(captor.getValue());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void saveHits_keepsHitsWithNonLiteralIp() {
+        LocalDateTime now = LocalDateTime.now();
+        List<EndpointHitDto> dtos = List.of(
+                EndpointHitDto.builder().app("app").uri("/a").ip("unknown").timestamp(now).build(),
+                EndpointHitDto.builder().app("app").uri("/b").ip("10.0.0.2").timestamp(now).build()
+        );
+        when(endpointHitRepository.insertAll(anyCollection())).thenReturn(2);
+
+        assertThat(statsService.saveHits(dtos)).isEqualTo(2);
+
+        ArgumentCaptor<Collection<EndpointHit>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(endpointHitRepository).insertAll(captor.capture());
+        assertThat(captor.getValue()).extracting(EndpointHit::getIp)
+                .containsExactly(IpAddresses.parse("unknown"), IpAddresses.parse("10.0.0.2"));
+    }
+
+    @Test
+    void saveHits_rejectsBlankIpBeforeInsert() {
+        EndpointHitDto dto = EndpointHitDto.builder()
+                .app("app").uri("/a").ip("").timestamp(LocalDateTime.now()).build();
+
+        assertThat(catchThrowable(() -> statsService.saveHits(List.of(dto))))
+                .isInstanceOf(InvalidIpAddressException.class);
+        verifyNoInteractions(endpointHitRepository);
+    }
+
+    @Test
+    void saveHits_skipsEmptyBatch() {
+        assertThat(statsService.saveHits(List.of())).isZero();
+        verifyNoInteractions(endpointHitRepository);
     }
 
     @Test
@@ -67,25 +153,45 @@ class StatsServiceImplTest {
 
     @Test
     void getStats_filtersByUris() {
-        LocalDateTime now = LocalDateTime.now();
-        when(endpointHitRepository.findAllStats(now.minusHours(1), now)).thenReturn(List.of(
-                projection("app", "/a", 5),
-                projection("app", "/b", 10)
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        LocalDateTime end = start.plusHours(1);
+        UriFilter filter = UriFilter.of(List.of("/b"));
+        when(hitRollupRepository.findStats(RollupGranularity.HOUR, start, end, filter)).thenReturn(List.of(
+                stats("app", "/b", 10)
         ));
+        when(endpointHitRepository.findStats(end, end.plusNanos(1000), filter, false)).thenReturn(List.of());
 
-        List<ViewStatsDto> result = statsService.getStats(now.minusHours(1), now, List.of("/b"), false);
+        List<ViewStatsDto> result = statsService.getStats(start, end, List.of("/b"), false);
 
         assertThat(result).hasSize(1);
         assertThat(result.getFirst().getUri()).isEqualTo("/b");
         assertThat(result.getFirst().getHits()).isEqualTo(10);
     }
 
+    @Test
+    void getStats_mergesRollupsWithRawEdges() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 59, 30);
+        LocalDateTime end = LocalDateTime.of(2024, 1, 1, 11, 0, 15);
+        when(hitRollupRepository.findStats(RollupGranularity.HOUR,
+                LocalDateTime.of(2024, 1, 1, 10, 0), LocalDateTime.of(2024, 1, 1, 11, 0), UriFilter.NONE))
+                .thenReturn(List.of(stats("app", "/a", 100), stats("app", "/b", 1)));
+        when(endpointHitRepository.findStats(start, LocalDateTime.of(2024, 1, 1, 10, 0), UriFilter.NONE, false))
+                .thenReturn(List.of(stats("app", "/b", 150)));
+        when(endpointHitRepository.findStats(LocalDateTime.of(2024, 1, 1, 11, 0), end.plusNanos(1000),
+                UriFilter.NONE, false))
+                .thenReturn(List.of(stats("app", "/a", 2)));
+
+        List<ViewStatsDto> result = statsService.getStats(start, end, null, false);
+
+        assertThat(result).extracting(ViewStatsDto::getUri).containsExactly("/b", "/a");
+        assertThat(result).extracting(ViewStatsDto::getHits).containsExactly(151L, 102L);
+    }
+
     @Test
     void getStats_usesUniqueHits_whenRequested() {
         LocalDateTime now = LocalDateTime.now();
-        when(endpointHitRepository.findAllStatsUnique(now.minusHours(1), now)).thenReturn(List.of(
-                projection("app", "/a", 3)
-        ));
+        when(endpointHitRepository.findStats(now.minusHours(1), now.plusNanos(1000), UriFilter.NONE, true))
+                .thenReturn(List.of(stats("app", "/a", 3)));
 
         List<ViewStatsDto> result = statsService.getStats(now.minusHours(1), now, null, true);
 
@@ -93,22 +199,120 @@ class StatsServiceImplTest {
         assertThat(result.getFirst().getHits()).isEqualTo(3);
     }
 
-    private ViewStatsProjection projection(String app, String uri, long hits) {
-        return new ViewStatsProjection() {
-            @Override
-            public String getApp() {
-                return app;
-            }
+    @Test
+    void getStats_pushesUriFilterIntoUniqueQuery() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        LocalDateTime end = start.plusDays(1);
+        UriFilter filter = UriFilter.of(List.of("/events/*"));
+        when(endpointHitRepository.findStats(start, end.plusNanos(1000), filter, true))
+                .thenReturn(List.of(stats("app", "/events/1", 4)));
 
-            @Override
-            public String getUri() {
-                return uri;
-            }
+        List<ViewStatsDto> result = statsService.getStats(start, end, List.of("/events/*"), true);
+
+        assertThat(result).extracting(ViewStatsDto::getHits).containsExactly(4L);
+        verify(endpointHitRepository, never()).findStats(any(), any(), eq(UriFilter.NONE), eq(true));
+    }
+
+    @Test
+    void getStats_usesSketches_whenApproximateUniqueRequested() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        LocalDateTime end = start.plusDays(30);
+        when(hitSketchAggregator.estimateUnique(start, end.plusNanos(1000), UriFilter.NONE))
+                .thenReturn(List.of(stats("app", "/events/1", 1000)));
+
+        List<ViewStatsDto> result = statsService.getStats(start, end, null, true, true);
+
+        assertThat(result).extracting(ViewStatsDto::getHits).containsExactly(1000L);
+        verify(endpointHitRepository, never()).findStats(any(), any(), any(), eq(true));
+    }
+
+    @Test
+    void getStats_rejectsApproximateWithoutUnique() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+        assertThat(catchThrowable(() -> statsService.getStats(start, start.plusDays(1), null, false, true)))
+                .isInstanceOf(InvalidParameterCombinationException.class);
+        verifyNoInteractions(hitSketchAggregator, endpointHitRepository);
+    }
+
+    @Test
+    void getStats_answersRecentTailFromHotWindow() {
+        LocalDateTime startedAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        MutableClock clock = new MutableClock(startedAt);
+        HotWindowStats hotWindowStats = new HotWindowStats(clock, true, 1);
+        statsService = new StatsServiceImpl(endpointHitRepository, hitRollupRepository, hitSketchAggregator,
+                hotWindowStats, new TrendingUris(clock, 60, 100), disabledCache(), statsStreamRepository);
+        clock.set(startedAt.plusMinutes(10));
+        statsService.saveHits(List.of(
+                EndpointHitDto.builder().app("app").uri("/a").ip("10.0.0.1").timestamp(startedAt.plusSeconds(10)).build(),
+                EndpointHitDto.builder().app("app").uri("/a").ip("10.0.0.1").timestamp(startedAt.plusMinutes(5)).build()
+        ));
+        LocalDateTime start = startedAt.minusHours(1);
+        when(hitRollupRepository.findStats(RollupGranularity.HOUR, start, startedAt, UriFilter.NONE))
+                .thenReturn(List.of(stats("app", "/a", 40)));
+
+        List<ViewStatsDto> hits = statsService.getStats(start, startedAt.plusMinutes(10), null, false);
+        List<ViewStatsDto> unique = statsService.getStats(startedAt, startedAt.plusMinutes(10), null, true);
+
+        assertThat(hits).extracting(ViewStatsDto::getHits).containsExactly(42L);
+        assertThat(unique).extracting(ViewStatsDto::getHits).containsExactly(1L);
+        verify(endpointHitRepository, never()).findStats(any(), any(), any(), eq(true));
+    }
+
+    @Test
+    void getViews_mapsTemplatedUrisBackToIds() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        LocalDateTime end = start.plusDays(1);
+        when(endpointHitRepository.findStats(eq(start), eq(end.plusNanos(1000)), any(), eq(true)))
+                .thenReturn(List.of(stats("app", "/events/7", 4), stats("app", "/events/other", 9)));
+
+        Map<Long, Long> views = statsService.getViews(ViewsRequestDto.builder()
+                .start(start)
+                .end(end)
+                .uriTemplate("/events/{id}")
+                .ids(List.of(7L, 8L))
+                .unique(true)
+                .build());
+
+        assertThat(views).containsExactly(Map.entry(7L, 4L), Map.entry(8L, 0L));
+        verify(endpointHitRepository).findStats(start, end.plusNanos(1000),
+                UriFilter.of(List.of("/events/7", "/events/8")), true);
+    }
+
+    @Test
+    void streamStats_queriesRollupsAndRawEdgesInOneStream() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 59, 30);
+        LocalDateTime end = LocalDateTime.of(2024, 1, 1, 11, 0, 15);
+
+        StatsStream stream = statsService.streamStats(start, end, null, false);
+        verifyNoInteractions(statsStreamRepository);
+        stream.forEach(dto -> {
+        });
+
+        verify(statsStreamRepository).streamStats(eq(List.of(
+                StatsSource.rollup(RollupGranularity.HOUR,
+                        LocalDateTime.of(2024, 1, 1, 10, 0), LocalDateTime.of(2024, 1, 1, 11, 0)),
+                StatsSource.raw(start, LocalDateTime.of(2024, 1, 1, 10, 0)),
+                StatsSource.raw(LocalDateTime.of(2024, 1, 1, 11, 0), end.plusNanos(1000))
+        )), eq(UriFilter.NONE), any());
+    }
+
+    @Test
+    void streamStats_validatesRangeEagerly() {
+        LocalDateTime start = LocalDateTime.now();
+
+        Throwable thrown = catchThrowable(() -> statsService.streamStats(start, start.minusSeconds(1), null, true));
+
+        assertThat(thrown).isInstanceOf(InvalidDateRangeException.class);
+        verifyNoInteractions(statsStreamRepository);
+    }
+
+    private static StatsQueryCache disabledCache() {
+        return new StatsQueryCache(Clock.systemUTC(), new SimpleMeterRegistry(), false,
+                Duration.ofSeconds(5), Duration.ofSeconds(10), 100);
+    }
 
-            @Override
-            public Long getHits() {
-                return hits;
-            }
-        };
+    private ViewStatsDto stats(String app, String uri, long hits) {
+        return ViewStatsDto.builder().app(app).uri(uri).hits(hits).build();
     }
 }
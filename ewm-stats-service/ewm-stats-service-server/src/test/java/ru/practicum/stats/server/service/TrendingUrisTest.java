@@ -0,0 +1,66 @@
+package ru.practicum.stats.server.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.stats.dto.ViewStatsDto;
+import ru.practicum.stats.server.exception.InvalidDateRangeException;
+import ru.practicum.stats.server.mapper.IpAddresses;
+import ru.practicum.stats.server.model.EndpointHit;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrendingUrisTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 30);
+
+    private final Clock clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+
+    @Test
+    void top_ordersUrisByHitsWithinWindow() {
+        TrendingUris trending = new TrendingUris(clock, 60, 100);
+        trending.record(List.of(
+                hit("/events/1", NOW.minusMinutes(20)),
+                hit("/events/2", NOW.minusMinutes(2)),
+                hit("/events/2", NOW.minusMinutes(1)),
+                hit("/events/3", NOW)
+        ));
+
+        List<ViewStatsDto> lastFiveMinutes = trending.top(5, null, 10);
+        List<ViewStatsDto> lastHour = trending.top(60, null, 1);
+
+        assertThat(lastFiveMinutes).extracting(ViewStatsDto::getUri).containsExactly("/events/2", "/events/3");
+        assertThat(lastFiveMinutes).extracting(ViewStatsDto::getHits).containsExactly(2L, 1L);
+        assertThat(lastHour).extracting(ViewStatsDto::getUri).containsExactly("/events/2");
+    }
+
+    @Test
+    void top_filtersByUriPrefix() {
+        TrendingUris trending = new TrendingUris(clock, 60, 100);
+        trending.record(List.of(hit("/events", NOW), hit("/events", NOW), hit("/events/7", NOW)));
+
+        assertThat(trending.top(10, "/events/", 10)).extracting(ViewStatsDto::getUri).containsExactly("/events/7");
+    }
+
+    @Test
+    void record_ignoresHitsOutsideWindow() {
+        TrendingUris trending = new TrendingUris(clock, 10, 100);
+        trending.record(List.of(hit("/old", NOW.minusMinutes(10)), hit("/future", NOW.plusMinutes(5))));
+
+        assertThat(trending.top(10, null, 10)).isEmpty();
+        assertThatThrownBy(() -> trending.top(11, null, 10)).isInstanceOf(InvalidDateRangeException.class);
+    }
+
+    private EndpointHit hit(String uri, LocalDateTime timestamp) {
+        EndpointHit hit = new EndpointHit();
+        hit.setApp("app");
+        hit.setUri(uri);
+        hit.setIp(IpAddresses.parse("10.0.0.1"));
+        hit.setTimestamp(timestamp);
+        return hit;
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.stats.server.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimate_staysWithinErrorBound() {
+        HyperLogLog sketch = new HyperLogLog();
+        int distinct = 200_000;
+        for (int i = 0; i < distinct; i++) {
+            String ip = ip(i);
+            sketch.add(ip);
+            sketch.add(ip);
+        }
+
+        double error = HyperLogLog.relativeStandardError(HyperLogLog.DEFAULT_PRECISION);
+        assertThat((double) sketch.estimate()).isCloseTo(distinct, within(distinct * error * 3));
+    }
+
+    @Test
+    void estimate_isExactEnoughForSmallCardinalities() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 20; i++) {
+            sketch.add(ip(i));
+        }
+
+        assertThat(sketch.estimate()).isEqualTo(20);
+    }
+
+    @Test
+    void merge_equalsSketchOfUnion() {
+        HyperLogLog left = new HyperLogLog();
+        HyperLogLog right = new HyperLogLog();
+        HyperLogLog union = new HyperLogLog();
+        for (int i = 0; i < 30_000; i++) {
+            (i % 2 == 0 ? left : right).add(ip(i));
+            union.add(ip(i));
+        }
+
+        assertThat(left.merge(right).estimate()).isEqualTo(union.estimate());
+    }
+
+    @Test
+    void toBytes_roundTripsSparseAndDenseEncodings() {
+        HyperLogLog sparse = new HyperLogLog();
+        sparse.add("10.0.0.1");
+        HyperLogLog dense = new HyperLogLog();
+        for (int i = 0; i < 50_000; i++) {
+            dense.add(ip(i));
+        }
+
+        assertThat(sparse.toBytes()).hasSizeLessThan(16);
+        assertThat(HyperLogLog.fromBytes(sparse.toBytes()).estimate()).isEqualTo(sparse.estimate());
+        assertThat(HyperLogLog.fromBytes(dense.toBytes()).estimate()).isEqualTo(dense.estimate());
+    }
+
+    private static String ip(int i) {
+        return "10.%d.%d.%d".formatted((i >> 16) & 0xff, (i >> 8) & 0xff, i & 0xff);
+    }
+}
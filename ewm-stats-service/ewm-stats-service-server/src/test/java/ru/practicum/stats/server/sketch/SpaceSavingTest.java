@@ -0,0 +1,76 @@
+package ru.practicum.stats.server.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpaceSavingTest {
+
+    @Test
+    void top_isExact_whileKeysFitCapacity() {
+        SpaceSaving<String> summary = new SpaceSaving<>(4);
+        add(summary, "/a", 5);
+        add(summary, "/b", 3);
+        add(summary, "/c", 7);
+
+        assertThat(summary.top(2)).containsExactly(
+                new SpaceSaving.Counter<>("/c", 7, 0),
+                new SpaceSaving.Counter<>("/a", 5, 0));
+    }
+
+    @Test
+    void top_keepsHeavyHittersAmongManyRareKeys() {
+        SpaceSaving<String> summary = new SpaceSaving<>(50);
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            int roll = random.nextInt(100);
+            summary.add(roll < 20 ? "/hot" : roll < 30 ? "/warm" : "/rare/" + random.nextInt(10_000));
+        }
+
+        assertThat(summary.size()).isEqualTo(50);
+        assertThat(summary.top(2)).extracting(SpaceSaving.Counter::key).containsExactly("/hot", "/warm");
+        SpaceSaving.Counter<String> hot = summary.top(1).get(0);
+        assertThat(hot.count() - hot.error()).isLessThanOrEqualTo(20_500);
+    }
+
+    @Test
+    void merge_addsCountsOfSharedKeys() {
+        SpaceSaving<String> left = new SpaceSaving<>(8);
+        SpaceSaving<String> right = new SpaceSaving<>(8);
+        add(left, "/a", 2);
+        add(right, "/a", 3);
+        add(right, "/b", 4);
+
+        left.merge(right);
+
+        assertThat(left.top(1)).containsExactly(new SpaceSaving.Counter<>("/a", 5, 0));
+        assertThat(left.size()).isEqualTo(2);
+    }
+
+    @Test
+    void merge_neverUndercountsKeyEvictedInOneSummaryOnly() {
+        SpaceSaving<String> first = new SpaceSaving<>(2);
+        add(first, "/x", 10);
+        add(first, "/y", 5);
+        add(first, "/z", 1);
+        SpaceSaving<String> second = new SpaceSaving<>(2);
+        add(second, "/y", 3);
+        add(second, "/w", 1);
+
+        SpaceSaving<String> merged = new SpaceSaving<String>(2).merge(first).merge(second);
+
+        assertThat(merged.top(2)).extracting(SpaceSaving.Counter::key).containsExactly("/x", "/y");
+        SpaceSaving.Counter<String> y = merged.top(2).get(1);
+        assertThat(y.count()).isGreaterThanOrEqualTo(8);
+        assertThat(y.count() - y.error()).isLessThanOrEqualTo(8);
+        assertThat(merged.size()).isEqualTo(2);
+    }
+
+    private static void add(SpaceSaving<String> summary, String key, int times) {
+        for (int i = 0; i < times; i++) {
+            summary.add(key);
+        }
+    }
+}